@@ -0,0 +1,72 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ortus.boxlang.jsoup.bifs.HtmlClean;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+
+/**
+ * Throughput of <code>htmlClean()</code> over the corpus, for every built-in safelist.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class CleanBenchmark {
+
+	@Param( { "small", "medium", "large" } )
+	public String			corpus;
+
+	@Param( { "none", "simpletext", "basic", "basicwithimages", "relaxed" } )
+	public String			safeList;
+
+	private final HtmlClean	bif	= new HtmlClean();
+	private IBoxContext		context;
+	private ArgumentsScope	arguments;
+
+	@Setup
+	public void setup() {
+		this.context	= Corpus.context();
+		this.arguments	= new ArgumentsScope();
+		this.arguments.put( KeyDictionary.html, Corpus.load( this.corpus ) );
+		this.arguments.put( KeyDictionary.safeList, this.safeList );
+		this.arguments.put( KeyDictionary.preserveRelativeLinks, false );
+		this.arguments.put( KeyDictionary.baseUri, "https://www.example.com/" );
+	}
+
+	@Benchmark
+	public Object htmlClean() {
+		return this.bif._invoke( this.context, this.arguments );
+	}
+
+}
@@ -0,0 +1,82 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ortus.boxlang.jsoup.bifs.HtmlParse;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+
+/**
+ * Throughput of loading the corpus back from <code>toBytes()</code> with <code>BoxDocument.fromBytes()</code>, against
+ * parsing its HTML with <code>htmlParse()</code>, and of encoding it.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class CodecBenchmark {
+
+	@Param( { "small", "medium", "large" } )
+	public String			corpus;
+
+	private final HtmlParse	parse	= new HtmlParse();
+	private IBoxContext		context;
+	private ArgumentsScope	parseArguments;
+	private BoxDocument		document;
+	private byte[]			bytes;
+
+	@Setup
+	public void setup() {
+		this.context		= Corpus.context();
+		this.parseArguments	= new ArgumentsScope();
+		this.parseArguments.put( KeyDictionary.html, Corpus.load( this.corpus ) );
+		this.document	= ( BoxDocument ) this.parse._invoke( this.context, this.parseArguments );
+		this.bytes		= this.document.toBytes();
+	}
+
+	@Benchmark
+	public Object fromBytes() {
+		return BoxDocument.fromBytes( this.bytes );
+	}
+
+	@Benchmark
+	public Object htmlParse() {
+		return this.parse._invoke( this.context, this.parseArguments );
+	}
+
+	@Benchmark
+	public Object toBytes() {
+		return this.document.toBytes();
+	}
+
+}
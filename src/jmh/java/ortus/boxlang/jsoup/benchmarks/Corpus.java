@@ -0,0 +1,69 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import ortus.boxlang.runtime.BoxRuntime;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.context.ScriptingRequestBoxContext;
+
+/**
+ * Shared fixtures for the benchmarks: the HTML corpus and a running BoxLang runtime.
+ * <p>
+ * The corpus lives in <code>src/test/resources/corpus</code>, its location is passed by the <code>jmh</code> Gradle task
+ * through the <code>corpus.dir</code> system property.
+ */
+public final class Corpus {
+
+	/**
+	 * The corpus file names, smallest first: a comment, an article page and a product catalog
+	 */
+	public static final String[] NAMES = { "small", "medium", "large" };
+
+	private Corpus() {
+	}
+
+	/**
+	 * Load an HTML file of the corpus.
+	 *
+	 * @param name The name of the file, without the <code>.html</code> extension.
+	 *
+	 * @return The HTML.
+	 */
+	public static String load( String name ) {
+		Path file = Path.of( System.getProperty( "corpus.dir", "src/test/resources/corpus" ), name + ".html" );
+		try {
+			return Files.readString( file, StandardCharsets.UTF_8 );
+		} catch ( IOException e ) {
+			throw new UncheckedIOException( "Unable to load the benchmark corpus file " + file.toAbsolutePath(), e );
+		}
+	}
+
+	/**
+	 * Start the BoxLang runtime, if needed, and create a request context to invoke the BIFs with.
+	 *
+	 * @return A new request context.
+	 */
+	public static IBoxContext context() {
+		BoxRuntime.getInstance( true );
+		return new ScriptingRequestBoxContext();
+	}
+
+}
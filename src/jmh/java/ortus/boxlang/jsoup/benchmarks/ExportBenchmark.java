@@ -0,0 +1,77 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ortus.boxlang.jsoup.util.BoxDocument;
+
+/**
+ * Throughput of the <code>BoxDocument</code> exports over the corpus.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ExportBenchmark {
+
+	@Param( { "small", "medium", "large" } )
+	public String		corpus;
+
+	@Param( { "false", "true" } )
+	public boolean		prettyPrint;
+
+	private BoxDocument	document;
+
+	@Setup
+	public void setup() {
+		Corpus.context();
+		this.document = BoxDocument.parse( Corpus.load( this.corpus ) );
+	}
+
+	@Benchmark
+	public String toJSON() {
+		return this.document.toJSON( this.prettyPrint );
+	}
+
+	@Benchmark
+	public String toXML() {
+		return this.document.toXML( this.prettyPrint, 2 );
+	}
+
+	/**
+	 * The HTML serialization toXML() did before it used per-call settings, changing the settings of the document itself
+	 */
+	@Benchmark
+	public String toXMLMutatingSettings() {
+		this.document.outputSettings().prettyPrint( this.prettyPrint ).indentAmount( 2 );
+		return this.document.outerHtml();
+	}
+
+}
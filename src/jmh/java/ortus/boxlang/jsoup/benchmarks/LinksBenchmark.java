@@ -0,0 +1,114 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.benchmarks;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ortus.boxlang.jsoup.bifs.HtmlExtractLinks;
+import ortus.boxlang.jsoup.bifs.HtmlParse;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Throughput of <code>htmlExtractLinks()</code> on a parsed document and on the HTML itself, against one
+ * <code>select()</code> per link kind with an <code>absUrl()</code> call per match.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class LinksBenchmark {
+
+	private static final String[][]	SELECTS		= {
+	    { "a[href]", "href" },
+	    { "img[src]", "src" },
+	    { "link[href]", "href" },
+	    { "script[src]", "src" }
+	};
+
+	@Param( { "small", "medium", "large" } )
+	public String					corpus;
+
+	private final HtmlExtractLinks	extract		= new HtmlExtractLinks();
+	private IBoxContext				context;
+	private BoxDocument				document;
+	private ArgumentsScope			documentArguments;
+	private ArgumentsScope			htmlArguments;
+
+	@Setup
+	public void setup() {
+		String			html			= Corpus.load( this.corpus );
+		ArgumentsScope	parseArguments	= new ArgumentsScope();
+
+		this.context = Corpus.context();
+		parseArguments.put( KeyDictionary.html, html );
+		parseArguments.put( KeyDictionary.baseUri, "https://example.com/corpus/" );
+		this.document			= ( BoxDocument ) new HtmlParse()._invoke( this.context, parseArguments );
+		this.documentArguments	= arguments( this.document );
+		this.htmlArguments		= arguments( html );
+		this.htmlArguments.put( KeyDictionary.baseUri, "https://example.com/corpus/" );
+	}
+
+	@Benchmark
+	public Object extractFromDocument() {
+		return this.extract._invoke( this.context, this.documentArguments );
+	}
+
+	@Benchmark
+	public Object extractWhileParsing() {
+		return this.extract._invoke( this.context, this.htmlArguments );
+	}
+
+	@Benchmark
+	public Object selectThenAbsUrl() {
+		Set<String> urls = new LinkedHashSet<>();
+		for ( String[] select : SELECTS ) {
+			for ( Element element : this.document.select( select[ 0 ] ) ) {
+				urls.add( element.absUrl( select[ 1 ] ) );
+			}
+		}
+		return urls;
+	}
+
+	private static ArgumentsScope arguments( Object html ) {
+		ArgumentsScope arguments = new ArgumentsScope();
+		arguments.put( KeyDictionary.html, html );
+		arguments.put( KeyDictionary.baseUri, "" );
+		arguments.put( KeyDictionary.options, Struct.of( KeyDictionary.types, "link,image,resource,script" ) );
+		arguments.put( KeyDictionary.charset, "UTF-8" );
+		return arguments;
+	}
+
+}
@@ -0,0 +1,83 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ortus.boxlang.jsoup.bifs.HtmlParse;
+import ortus.boxlang.jsoup.bifs.HtmlToText;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Throughput of <code>htmlToText()</code> over the corpus, against parsing with <code>htmlParse()</code> then calling
+ * <code>text()</code> on the document.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TextBenchmark {
+
+	@Param( { "small", "medium", "large" } )
+	public String				corpus;
+
+	private final HtmlToText	toText	= new HtmlToText();
+	private final HtmlParse		parse	= new HtmlParse();
+	private IBoxContext			context;
+	private ArgumentsScope		textArguments;
+	private ArgumentsScope		parseArguments;
+
+	@Setup
+	public void setup() {
+		String html = Corpus.load( this.corpus );
+
+		this.context		= Corpus.context();
+		this.textArguments	= new ArgumentsScope();
+		this.textArguments.put( KeyDictionary.html, html );
+		this.textArguments.put( KeyDictionary.options, new Struct() );
+		this.textArguments.put( KeyDictionary.charset, "UTF-8" );
+		this.parseArguments = new ArgumentsScope();
+		this.parseArguments.put( KeyDictionary.html, html );
+	}
+
+	@Benchmark
+	public Object htmlToText() {
+		return this.toText._invoke( this.context, this.textArguments );
+	}
+
+	@Benchmark
+	public Object parseThenText() {
+		return ( ( BoxDocument ) this.parse._invoke( this.context, this.parseArguments ) ).text();
+	}
+
+}
@@ -0,0 +1,70 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import ortus.boxlang.jsoup.util.CleanCache;
+import ortus.boxlang.jsoup.util.HtmlExecutor;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.SelectorCache;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Struct;
+
+@BoxBIF
+public class HtmlCacheStats extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlCacheStats() {
+		super();
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of the module caches and executor, to size them through the module settings.
+	 * <h2>Caches</h2>
+	 * <ul>
+	 * <li><code>selectors</code>: The compiled CSS selector cache shared by all the <code>select()</code> calls on parsed documents and
+	 * <code>htmlSelect()</code>, with its <code>size</code>, <code>maxSize</code>, <code>hits</code> and <code>misses</code>.</li>
+	 * <li><code>clean</code>: The cleaned HTML cache used by <code>htmlClean()</code> and <code>htmlCleanAll()</code>, with its <code>enabled</code>
+	 * flag, its <code>size</code> in entries, its <code>bytes</code> against <code>maxBytes</code>, its <code>maxEntryBytes</code>, <code>hits</code>,
+	 * <code>misses</code> and <code>evictions</code>.</li>
+	 * <li><code>async</code>: The executor running <code>htmlParseAsync()</code> and <code>htmlCleanAsync()</code>, with its
+	 * <code>virtualThreads</code> flag and <code>maxConcurrent</code> tasks, the tasks <code>queued</code> and <code>active</code> right
+	 * now, and the tasks <code>completed</code>, <code>failed</code> and <code>cancelled</code> so far.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * stats = htmlCacheStats();
+	 * hitRatio = stats.selectors.hits / max( 1, stats.selectors.hits + stats.selectors.misses );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @return A struct of cache name to cache statistics.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		return Struct.of(
+		    KeyDictionary.selectors, SelectorCache.getInstance().stats(),
+		    KeyDictionary.clean, CleanCache.getInstance().stats(),
+		    KeyDictionary.async, HtmlExecutor.getInstance().stats()
+		);
+	}
+
+}
@@ -16,17 +16,21 @@ package ortus.boxlang.jsoup.bifs;
 
 import java.util.Set;
 
-import org.jsoup.Jsoup;
 import org.jsoup.safety.Safelist;
 
+import ortus.boxlang.jsoup.util.BifMetrics;
+import ortus.boxlang.jsoup.util.HtmlCleaner;
+import ortus.boxlang.jsoup.util.HtmlSource;
 import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.jsoup.util.SafelistRegistry;
 import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.Argument;
-import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
-import ortus.boxlang.runtime.validation.Validator;
 
 @BoxBIF
 public class HtmlClean extends BIF {
@@ -37,12 +41,14 @@ public class HtmlClean extends BIF {
 	public HtmlClean() {
 		super();
 		declaredArguments = new Argument[] {
-		    new Argument( true, Argument.STRING, KeyDictionary.html, Set.of( Validator.NON_EMPTY ) ),
-		    new Argument( false, Argument.STRING, KeyDictionary.safeList, "relaxed",
-		        Set.of( Validator.valueOneOf( "basic", "none", "simpletext", "basicwithimages", "relaxed" ) )
-		    ),
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( false, Argument.STRING, KeyDictionary.safeList, "relaxed", Set.of( SafelistRegistry.validator() ) ),
 		    new Argument( false, Argument.BOOLEAN, KeyDictionary.preserveRelativeLinks, false ),
-		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" )
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.BOOLEAN, KeyDictionary.cache, true ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "" ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.limits )
 		};
 	}
 
@@ -57,6 +63,14 @@ public class HtmlClean extends BIF {
 	 * <li>The <code>baseUri</code> argument is used to resolve relative links into absolute URLs <strong>only when</strong>
 	 * <code>preserveRelativeLinks</code> is <code>false</code> (the default behavior). If <code>preserveRelativeLinks</code> is <code>true</code>, then
 	 * <code>baseUri</code> is ignored.</li>
+	 * <li>When the <code>cleanCache</code> module setting is enabled, the cleaned output of each input is cached, so cleaning the same snippet
+	 * again is a lookup. Pass <code>cache = false</code> to bypass the cache for inputs that are never repeated.</li>
+	 * <li>Besides strings, the <code>html</code> argument accepts a <code>byte[]</code>, or a Java <code>InputStream</code>, <code>Reader</code>,
+	 * <code>File</code> or <code>Path</code>, and the <code>file</code> argument takes the path of an HTML file. These are parsed as full
+	 * documents straight from their bytes, with their charset detected unless one is given, and the cleaned body is returned. They are
+	 * never cached.</li>
+	 * <li>The HTML is parsed within the <code>parseLimits</code> module setting, which the <code>limits</code> argument overrides for the
+	 * call. Going over any limit aborts the clean with an <code>HtmlLimitException</code>.</li>
 	 * </ul>
 	 * <h2>Safe List Options</h2>
 	 * The valid values for safeList are:
@@ -68,6 +82,8 @@ public class HtmlClean extends BIF {
 	 * <li><code>basicwithimages</code>: Basic cleaning but allows images.</li>
 	 * <li><code>relaxed</code>: More lenient cleaning, allows more tags.</li>
 	 * </ul>
+	 * Any custom safelist registered in the module settings under <code>safelists</code> can be used by name as well.
+	 * All safelists are built once and shared, so choosing one costs nothing per call.
 	 * <h2>Differences from ESAPI</h2>
 	 * This BIF uses Jsoup for HTML cleaning, which is different from ESAPI's approach.
 	 * Jsoup provides a more flexible and powerful way to clean HTML, allowing for more customization and control over the cleaning process.
@@ -91,7 +107,7 @@ public class HtmlClean extends BIF {
 	 * @param context   The context in which the BIF is being invoked.
 	 * @param arguments Argument scope for the BIF.
 	 *
-	 * @argument.html A HTML string to be cleaned.
+	 * @argument.html The HTML to clean: an HTML string, or a byte array, a Java InputStream, Reader, File or Path.
 	 *
 	 * @argument.safeList The level of cleaning to apply, defaults to "relaxed".
 	 *
@@ -100,40 +116,59 @@ public class HtmlClean extends BIF {
 	 * @argument.baseUri The base URI to resolve relative links in the cleaned HTML. Defaults to an empty string. Only active if preserveRelativeLinks is
 	 *                   false.
 	 *
+	 * @argument.cache Whether to use the clean cache, when it is enabled in the module settings. Defaults to true.
+	 *
+	 * @argument.file The path of an HTML file to clean, instead of the <code>html</code> argument.
+	 *
+	 * @argument.charset The charset of byte, stream and file sources. Defaults to detecting it, falling back to UTF-8.
+	 *
+	 * @argument.limits A struct overriding the <code>parseLimits</code> module setting for this call, see <code>htmlParse()</code>.
+	 *
 	 * @return A cleaned HTML string or an empty string if the input is null or empty.
 	 */
 	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
-		var			target			= arguments.getAsString( KeyDictionary.html );
-		Safelist	targetSafeList	= resolveSafelist( arguments.getAsString( KeyDictionary.safeList ) );
-
-		if ( target == null || target.isEmpty() ) {
-			return "";
-		}
-
-		// Preserve relative links if specified
-		targetSafeList = targetSafeList.preserveRelativeLinks( arguments.getAsBoolean( KeyDictionary.preserveRelativeLinks ) );
-
-		// Clean the HTML using Jsoup with the specified safelist and base URI if provided
-		return Jsoup.clean( target, arguments.getAsString( KeyDictionary.baseUri ), targetSafeList );
-
+		return clean(
+		    KeyDictionary.htmlClean,
+		    HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) ),
+		    arguments,
+		    ParseLimits.forCall( arguments.getAsStruct( KeyDictionary.limits ) )
+		);
 	}
 
 	/**
-	 * Resolves the Safelist based on the provided name.
+	 * Clean a resolved source with the cleaning arguments of <code>htmlClean()</code>, measured under the name of the calling BIF.
 	 *
-	 * @param name The name of the safelist to resolve.
+	 * @param bif       The name of the calling BIF, for the metrics.
+	 * @param source    The resolved HTML source.
+	 * @param arguments The <code>safeList</code>, <code>preserveRelativeLinks</code>, <code>baseUri</code>, <code>cache</code> and
+	 *                  <code>charset</code> arguments.
+	 * @param limits    The limits to parse within.
 	 *
-	 * @return The resolved Safelist.
+	 * @return The cleaned HTML.
 	 */
-	private Safelist resolveSafelist( String name ) {
-		return switch ( name.toLowerCase() ) {
-			case "none" -> Safelist.none();
-			case "simpletext" -> Safelist.simpleText();
-			case "basic" -> Safelist.basic();
-			case "basicwithimages" -> Safelist.basicWithImages();
-			case "relaxed" -> Safelist.relaxed();
-			default -> throw new BoxRuntimeException( "Unknown HTML Safelist: " + name );
-		};
+	static String clean( Key bif, Object source, ArgumentsScope arguments, ParseLimits limits ) {
+		String	safelistName			= arguments.getAsString( KeyDictionary.safeList );
+		boolean	preserveRelativeLinks	= arguments.getAsBoolean( KeyDictionary.preserveRelativeLinks );
+		String	baseUri					= arguments.getAsString( KeyDictionary.baseUri );
+
+		if ( HtmlSource.isStreamed( source ) ) {
+			// The shared safelist is resolved by name, already set up to preserve relative links or not
+			Safelist safelist = SafelistRegistry.getInstance().get( safelistName, preserveRelativeLinks );
+			return BifMetrics.getInstance().measureClean( bif, safelistName, source, () -> HtmlCleaner.clean(
+			    HtmlSource.parse( source, arguments.getAsString( KeyDictionary.charset ), HtmlCleaner.parseBaseUri( safelist, baseUri ), limits ),
+			    safelist
+			) );
+		}
+
+		String html = StringCaster.cast( source );
+		return BifMetrics.getInstance().measureClean( bif, safelistName, html, () -> HtmlCleaner.clean(
+		    html,
+		    safelistName,
+		    preserveRelativeLinks,
+		    baseUri,
+		    arguments.getAsBoolean( KeyDictionary.cache ),
+		    limits
+		) );
 	}
 
 }
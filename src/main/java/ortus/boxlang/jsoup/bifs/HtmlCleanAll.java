@@ -0,0 +1,120 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.util.Set;
+
+import org.jsoup.safety.Safelist;
+
+import ortus.boxlang.jsoup.util.BatchExecutor;
+import ortus.boxlang.jsoup.util.BifMetrics;
+import ortus.boxlang.jsoup.util.HtmlCleaner;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.jsoup.util.SafelistRegistry;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class HtmlCleanAll extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlCleanAll() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, Argument.ANY, KeyDictionary.items, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, Argument.STRING, KeyDictionary.safeList, "relaxed", Set.of( SafelistRegistry.validator() ) ),
+		    new Argument( false, Argument.BOOLEAN, KeyDictionary.preserveRelativeLinks, false ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.BOOLEAN, KeyDictionary.cache, true ),
+		    new Argument( false, Argument.STRING, KeyDictionary.column, "" ),
+		    new Argument( false, Argument.INTEGER, KeyDictionary.parallelism, 0, Set.of( Validator.min( 0 ) ) ),
+		    new Argument( false, Argument.STRING, KeyDictionary.errors, BatchExecutor.FAIL,
+		        Set.of( Validator.valueOneOf( BatchExecutor.FAIL, BatchExecutor.COLLECT ) ) ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.limits )
+		};
+	}
+
+	/**
+	 * Cleans a whole batch of HTML fragments in parallel, on virtual threads, with exactly the same rules as <code>htmlClean()</code>.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The fragments come from an array, or from a column of a query.</li>
+	 * <li>The safelist is resolved once and shared by all the workers, which share the clean cache as well when it is enabled.</li>
+	 * <li>The results come back in the original order.</li>
+	 * <li>The <code>parallelism</code> caps how many fragments are cleaned at the same time. It defaults to the <code>batchParallelism</code>
+	 * module setting, or the number of available processors.</li>
+	 * <li>With <code>errors = "fail"</code> (the default), the first failure stops the batch and is thrown. With <code>errors = "collect"</code>
+	 * the whole batch runs and a struct of <code>results</code> and <code>errors</code> is returned instead.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * cleaned = htmlCleanAll( comments, "basic" );
+	 * cleaned = htmlCleanAll( items: commentsQuery, column: "body", safeList: "basic", errors: "collect" );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.items An array of HTML strings, or a query holding them.
+	 *
+	 * @argument.safeList The level of cleaning to apply, defaults to "relaxed". See <code>htmlClean()</code>.
+	 *
+	 * @argument.preserveRelativeLinks If true, relative links will be preserved in the cleaned HTML. Defaults to false.
+	 *
+	 * @argument.baseUri The base URI to resolve relative links in the cleaned HTML. Defaults to an empty string.
+	 *
+	 * @argument.cache Whether to use the clean cache, when it is enabled in the module settings. Defaults to true.
+	 *
+	 * @argument.column The query column holding the HTML when <code>items</code> is a query.
+	 *
+	 * @argument.parallelism How many fragments are cleaned at the same time. Defaults to 0, which uses the module default.
+	 *
+	 * @argument.errors Either "fail" to throw the first failure, or "collect" to return the failures next to the results. Defaults to "fail".
+	 *
+	 * @argument.limits A struct overriding the <code>parseLimits</code> module setting for every fragment, see <code>htmlParse()</code>.
+	 *
+	 * @return An array of cleaned HTML strings, in the original order. In "collect" mode, a struct with the <code>results</code> array and an
+	 *         <code>errors</code> array of <code>{ index, message, type }</code> structs.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		String		safelistName	= arguments.getAsString( KeyDictionary.safeList );
+		Safelist	safelist		= SafelistRegistry.getInstance().get( safelistName, arguments.getAsBoolean( KeyDictionary.preserveRelativeLinks ) );
+		String		baseUri			= arguments.getAsString( KeyDictionary.baseUri );
+		boolean		useCache		= arguments.getAsBoolean( KeyDictionary.cache );
+		ParseLimits	limits			= ParseLimits.forCall( arguments.getAsStruct( KeyDictionary.limits ) );
+		BifMetrics	metrics			= BifMetrics.getInstance();
+
+		return BatchExecutor.run(
+		    BatchExecutor.items( arguments.get( KeyDictionary.items ), arguments.getAsString( KeyDictionary.column ) ),
+		    item -> {
+			    String html = item == null ? null : StringCaster.cast( item );
+			    return metrics.measureClean( KeyDictionary.htmlCleanAll, safelistName, html,
+			        () -> HtmlCleaner.clean( html, safelist, baseUri, useCache, limits ) );
+		    },
+		    BatchExecutor.parallelism( arguments.getAsInteger( KeyDictionary.parallelism ) ),
+		    arguments.getAsString( KeyDictionary.errors )
+		);
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.jsoup.util.HtmlExecutor;
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.jsoup.util.SafelistRegistry;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+
+@BoxBIF
+public class HtmlCleanAsync extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlCleanAsync() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( false, Argument.STRING, KeyDictionary.safeList, "relaxed", Set.of( SafelistRegistry.validator() ) ),
+		    new Argument( false, Argument.BOOLEAN, KeyDictionary.preserveRelativeLinks, false ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.BOOLEAN, KeyDictionary.cache, true ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "" ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.limits )
+		};
+	}
+
+	/**
+	 * Cleans HTML in the background, like <code>htmlClean()</code>, and returns a future of the cleaned HTML right away, so the request
+	 * thread can overlap other work with the clean.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The sources, safelists, clean cache, limits and cleaned output are the same as <code>htmlClean()</code>.</li>
+	 * <li>The clean runs on the module executor: a virtual thread per clean by default, see the <code>async</code> module setting. Its
+	 * queued and active tasks are reported by <code>htmlCacheStats().async</code>.</li>
+	 * <li>Cancelling the future, with <code>cancel( true )</code>, stops the parse of the HTML at the next element or buffer read. A clean
+	 * cancelled before it starts never runs.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * cleaned = htmlCleanAsync( form.body, "basic" );
+	 * // ... other work ...
+	 * comment.setBody( cleaned.get() );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The HTML to clean: an HTML string, or a byte array, a Java InputStream, Reader, File or Path.
+	 *
+	 * @argument.safeList The level of cleaning to apply, defaults to "relaxed".
+	 *
+	 * @argument.preserveRelativeLinks If true, relative links will be preserved in the cleaned HTML. Defaults to false.
+	 *
+	 * @argument.baseUri The base URI to resolve relative links in the cleaned HTML. Only active if preserveRelativeLinks is false.
+	 *
+	 * @argument.cache Whether to use the clean cache, when it is enabled in the module settings. Defaults to true.
+	 *
+	 * @argument.file The path of an HTML file to clean, instead of the <code>html</code> argument.
+	 *
+	 * @argument.charset The charset of byte, stream and file sources. Defaults to detecting it, falling back to UTF-8.
+	 *
+	 * @argument.limits A struct overriding the <code>parseLimits</code> module setting for this call, see <code>htmlParse()</code>.
+	 *
+	 * @return A BoxFuture of the cleaned HTML string.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Object		source	= HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) );
+		ParseLimits	limits	= ParseLimits.forCall( arguments.getAsStruct( KeyDictionary.limits ) ).interruptible();
+
+		return HtmlExecutor.getInstance().submit( () -> HtmlClean.clean( KeyDictionary.htmlCleanAsync, source, arguments, limits ) );
+	}
+
+}
@@ -0,0 +1,175 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.jsoup.safety.Safelist;
+
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.jsoup.util.SafelistRegistry;
+import ortus.boxlang.jsoup.util.StreamingCleaner;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+import ortus.boxlang.runtime.util.FileSystemUtil;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class HtmlCleanStream extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlCleanStream() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( true, Argument.ANY, KeyDictionary.output, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, Argument.STRING, KeyDictionary.safeList, "relaxed", Set.of( SafelistRegistry.validator() ) ),
+		    new Argument( false, Argument.BOOLEAN, KeyDictionary.preserveRelativeLinks, false ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "UTF-8" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.limits )
+		};
+	}
+
+	/**
+	 * Cleans HTML with a safelist while it is read, writing the cleaned HTML to an output instead of returning it, for inputs
+	 * too large to hold in memory, like big rich-text uploads.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The input is read incrementally and each element is checked against the safelist as soon as the parser reaches it, then
+	 * dropped. Neither the input, the parsed document nor the cleaned HTML is ever held as a whole: memory only grows with the nesting
+	 * depth of the document.</li>
+	 * <li>The same safe tags, attributes and enforced attributes are kept as with <code>htmlClean()</code>, and the
+	 * <code>preserveRelativeLinks</code> and <code>baseUri</code> arguments work the same way.</li>
+	 * <li>The input is parsed as a full document and its cleaned body is written, like <code>htmlClean()</code> does for streams and
+	 * files. The output is not pretty-printed, the whitespace of the input is kept.</li>
+	 * <li>The output is either a Java <code>Writer</code> or any other <code>Appendable</code>, an <code>OutputStream</code> like an
+	 * HTTP response stream, or the path of a file to create or overwrite. Writers and streams are flushed but not closed.</li>
+	 * <li>Strings given as <code>html</code> are always the HTML itself, files to clean are passed with the <code>file</code> argument.</li>
+	 * <li>The HTML is parsed within the <code>parseLimits</code> module setting, which the <code>limits</code> argument overrides for the
+	 * call. Going over any limit aborts the clean with an <code>HtmlLimitException</code>, once the HTML cleaned so far is written.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * // Clean a large upload straight into a file
+	 * htmlCleanStream( getHTTPRequestData().content, expandPath( "./cleaned.html" ), "basic" );
+	 * // Clean a file into the response
+	 * htmlCleanStream( file: expandPath( "./upload.html" ), output: getPageContext().getResponse().getOutputStream() );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The HTML to clean: an HTML string, or a byte array, a Java InputStream, Reader, File or Path.
+	 *
+	 * @argument.output Where to write the cleaned HTML: a Java Writer or Appendable, an OutputStream, a File or Path, or a file path.
+	 *
+	 * @argument.safeList The level of cleaning to apply, defaults to "relaxed". See <code>htmlClean()</code>.
+	 *
+	 * @argument.preserveRelativeLinks If true, relative links will be preserved in the cleaned HTML. Defaults to false.
+	 *
+	 * @argument.baseUri The base URI to resolve relative links in the cleaned HTML. Defaults to an empty string. Only active if
+	 *                   preserveRelativeLinks is false.
+	 *
+	 * @argument.charset The charset of byte, stream and file inputs and outputs. Defaults to UTF-8.
+	 *
+	 * @argument.file The path of an HTML file to clean, instead of the <code>html</code> argument.
+	 *
+	 * @argument.limits A struct overriding the <code>parseLimits</code> module setting for this call, see <code>htmlParse()</code>.
+	 *
+	 * @return The number of characters written.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Charset		charset		= Charset.forName( arguments.getAsString( KeyDictionary.charset ) );
+		Safelist	safelist	= SafelistRegistry.getInstance().get(
+		    arguments.getAsString( KeyDictionary.safeList ),
+		    arguments.getAsBoolean( KeyDictionary.preserveRelativeLinks )
+		);
+		Object		source		= HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) );
+		ParseLimits	limits		= ParseLimits.forCall( arguments.getAsStruct( KeyDictionary.limits ) );
+		Reader		input		= HtmlSource.reader( source, charset );
+		String		baseUri		= arguments.getAsString( KeyDictionary.baseUri );
+		Object		output		= arguments.get( KeyDictionary.output );
+
+		if ( output instanceof Appendable appendable ) {
+			long written = StreamingCleaner.clean( input, safelist, baseUri, appendable, StandardCharsets.UTF_8, limits );
+			if ( appendable instanceof Flushable flushable ) {
+				flush( flushable );
+			}
+			return written;
+		}
+		if ( output instanceof OutputStream stream ) {
+			Writer	writer	= new BufferedWriter( new OutputStreamWriter( stream, charset ) );
+			long	written	= StreamingCleaner.clean( input, safelist, baseUri, writer, charset, limits );
+			flush( writer );
+			return written;
+		}
+
+		Path path = outputPath( context, output );
+		try ( Writer writer = Files.newBufferedWriter( path, charset ) ) {
+			return StreamingCleaner.clean( input, safelist, baseUri, writer, charset, limits );
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Unable to write the cleaned HTML file [" + path + "]", e );
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static Path outputPath( IBoxContext context, Object output ) {
+		if ( output instanceof File file ) {
+			return file.toPath();
+		}
+		if ( output instanceof Path path ) {
+			return path;
+		}
+		return FileSystemUtil.expandPath( context, StringCaster.cast( output ) ).absolutePath();
+	}
+
+	private static void flush( Flushable output ) {
+		try {
+			output.flush();
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Failed to write the cleaned HTML", e );
+		}
+	}
+
+}
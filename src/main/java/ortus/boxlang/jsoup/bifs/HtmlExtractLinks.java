@@ -0,0 +1,157 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.nio.charset.Charset;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.jsoup.nodes.Element;
+
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.LinkExtractor;
+import ortus.boxlang.jsoup.util.ModuleSettings;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.ArrayCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+@BoxBIF
+public class HtmlExtractLinks extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlExtractLinks() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.options, new Struct() ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "UTF-8" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" )
+		};
+	}
+
+	/**
+	 * Extracts the URLs of the links and assets of an HTML document in a single pass, resolved to absolute URLs.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>Every URL-bearing attribute is gathered at once: <code>a[href]</code>, <code>img[src]</code>, <code>img[srcset]</code>,
+	 * <code>link[href]</code>, <code>script[src]</code>, <code>iframe[src]</code>, <code>form[action]</code> and the like, each with its
+	 * link type.</li>
+	 * <li>URLs are resolved exactly like <code>element.absUrl()</code> does, and those that cannot be resolved are left out.</li>
+	 * <li>Each URL is only returned the first time it is found, unless <code>dedupe</code> is false.</li>
+	 * <li>HTML strings, files and streams are read while they are parsed, without ever building the document. Parsed documents and
+	 * elements are read in place, in a single traversal.</li>
+	 * <li>Strings given as <code>html</code> are always the HTML itself, files are read with the <code>file</code> argument.</li>
+	 * </ul>
+	 * <h2>Link Types</h2>
+	 * <ul>
+	 * <li><code>link</code>: <code>a[href]</code> and <code>area[href]</code></li>
+	 * <li><code>resource</code>: <code>link[href]</code>, like stylesheets and icons</li>
+	 * <li><code>image</code>: <code>img[src]</code>, <code>img[srcset]</code>, <code>source[srcset]</code>, <code>video[poster]</code> and
+	 * <code>input[src]</code></li>
+	 * <li><code>script</code>: <code>script[src]</code></li>
+	 * <li><code>frame</code>: <code>iframe[src]</code> and <code>frame[src]</code></li>
+	 * <li><code>media</code>: <code>audio[src]</code>, <code>video[src]</code>, <code>source[src]</code> and <code>track[src]</code></li>
+	 * <li><code>object</code>: <code>embed[src]</code> and <code>object[data]</code></li>
+	 * <li><code>form</code>: <code>form[action]</code>, <code>button[formaction]</code> and <code>input[formaction]</code></li>
+	 * <li><code>cite</code>: the <code>cite</code> of <code>blockquote</code>, <code>q</code>, <code>del</code> and <code>ins</code></li>
+	 * <li><code>base</code>: <code>base[href]</code></li>
+	 * </ul>
+	 * <h2>Options</h2>
+	 * <ul>
+	 * <li><code>types</code>: An array or list of the link types to extract. Defaults to all of them.</li>
+	 * <li><code>dedupe</code>: Whether each URL is only returned once. Defaults to true.</li>
+	 * <li><code>stripFragments</code>: Whether the <code>#fragment</code> of the URLs is removed, so links to parts of the same page are
+	 * the same URL. Defaults to false.</li>
+	 * <li><code>maxLinks</code>: The maximum number of links to return, parsing stops once they are found. Defaults to 0, all of them.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * links = htmlExtractLinks( page, "https://example.com/blog/", { types: [ "link" ], stripFragments: true } );
+	 * assets = htmlExtractLinks( file: expandPath( "./page.html" ), baseUri: "https://example.com/", options: { types: "image,script,resource" } );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The HTML to read: an HTML string, a parsed document or element, or a Java File, Path, InputStream or Reader.
+	 *
+	 * @argument.baseUri The base URI to resolve relative URLs against. For HTML sources a <code>&lt;base href&gt;</code> in the document
+	 *                   takes over, like it does for <code>absUrl()</code>. Defaults to the base URI parsed documents were parsed with.
+	 *
+	 * @argument.options The <code>types</code>, <code>dedupe</code>, <code>stripFragments</code> and <code>maxLinks</code> options.
+	 *
+	 * @argument.charset The charset of file and byte stream sources. Defaults to UTF-8.
+	 *
+	 * @argument.file The path of an HTML file to read, instead of the <code>html</code> argument.
+	 *
+	 * @return An array of <code>{ url, type, tag, attribute }</code> structs, in document order.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Object			html		= HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) );
+		IStruct			options		= arguments.getAsStruct( KeyDictionary.options );
+		LinkExtractor	extractor	= new LinkExtractor(
+		    arguments.getAsString( KeyDictionary.baseUri ),
+		    types( options.get( KeyDictionary.types ) ),
+		    ModuleSettings.getBoolean( options, KeyDictionary.dedupe, true ),
+		    ModuleSettings.getBoolean( options, KeyDictionary.stripFragments, false ),
+		    ( int ) ModuleSettings.getLong( options, KeyDictionary.maxLinks, 0 )
+		);
+
+		if ( html instanceof Element element ) {
+			return extractor.extract( element );
+		}
+		return extractor.extract( HtmlSource.reader( html, Charset.forName( arguments.getAsString( KeyDictionary.charset ) ) ) );
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static Set<String> types( Object types ) {
+		Set<String> names = new LinkedHashSet<>();
+		if ( types == null ) {
+			return names;
+		}
+		Iterable<?> values = types instanceof String list ? List.of( list.split( "," ) ) : ArrayCaster.cast( types );
+		for ( Object value : values ) {
+			String name = StringCaster.cast( value ).trim().toLowerCase( Locale.ROOT );
+			if ( name.isEmpty() ) {
+				continue;
+			}
+			if ( !LinkExtractor.TYPES.contains( name ) ) {
+				throw new BoxRuntimeException( "Unknown link type [" + name + "], valid types are " + LinkExtractor.TYPES );
+			}
+			names.add( name );
+		}
+		return names;
+	}
+
+}
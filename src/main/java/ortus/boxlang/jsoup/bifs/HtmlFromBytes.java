@@ -0,0 +1,73 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class HtmlFromBytes extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlFromBytes() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, Argument.ANY, KeyDictionary.bytes, Set.of( Validator.REQUIRED ) )
+		};
+	}
+
+	/**
+	 * Loads a document saved with <code>toBytes()</code>, without parsing any HTML.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The document comes back exactly as it was saved: the same nodes, attributes, text, base URI and output settings.</li>
+	 * <li>Loading skips the tokenizer and the tree builder, so it is much faster than <code>htmlParse()</code> on the HTML.</li>
+	 * <li>The bytes are much smaller than the HTML, which suits caches and sending parsed documents to other servers.</li>
+	 * <li>Every call returns a new, editable document.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * cachePut( "page", htmlParse( html ).toBytes() );
+	 *
+	 * doc = htmlFromBytes( cacheGet( "page" ) );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.bytes The binary value returned by <code>toBytes()</code>.
+	 *
+	 * @return The decoded Jsoup Document.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		if ( arguments.get( KeyDictionary.bytes ) instanceof byte[] bytes ) {
+			return BoxDocument.fromBytes( bytes );
+		}
+		throw new BoxRuntimeException( "The bytes argument must be the binary value returned by toBytes()" );
+	}
+
+}
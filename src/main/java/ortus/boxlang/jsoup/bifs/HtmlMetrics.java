@@ -0,0 +1,79 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import ortus.boxlang.jsoup.util.BifMetrics;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.IStruct;
+
+@BoxBIF
+public class HtmlMetrics extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlMetrics() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.BOOLEAN, KeyDictionary.reset, false )
+		};
+	}
+
+	/**
+	 * Returns a snapshot of the metrics recorded by <code>htmlParse()</code>, <code>htmlParseAll()</code>, <code>htmlClean()</code> and
+	 * <code>htmlCleanAll()</code>, when the <code>metrics</code> module setting is enabled.
+	 * <h2>Metrics</h2>
+	 * The <code>bifs</code> struct holds an entry per BIF called since the metrics were enabled or reset, with:
+	 * <ul>
+	 * <li><code>calls</code> and <code>errors</code>: How many documents or fragments were processed, and how many failed.</li>
+	 * <li><code>latency</code>: The <code>count</code>, <code>min</code>, <code>mean</code>, <code>p50</code>, <code>p90</code>,
+	 * <code>p99</code>, <code>p999</code> and <code>max</code> durations in nanoseconds, within 12.5% of the real values.</li>
+	 * <li><code>inputBytes</code> and <code>outputBytes</code>: The sizes of the sources and of the cleaned HTML. Strings are counted in
+	 * characters.</li>
+	 * <li><code>safelists</code>: For each safelist used to clean, its <code>calls</code>, <code>inputBytes</code> and the
+	 * <code>strippedBytes</code> it removed.</li>
+	 * </ul>
+	 * The batch BIFs record every item on its own, so their latencies are per document or fragment.
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * metrics = htmlMetrics();
+	 * writeOutput( "p99 clean: " &amp; metrics.bifs.htmlClean.latency.p99 / 1000 &amp; "µs" );
+	 * // Ship and start over
+	 * metrics = htmlMetrics( reset: true );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.reset Whether to start over once the snapshot is taken. Defaults to false.
+	 *
+	 * @return A struct with the <code>enabled</code> and <code>events</code> flags, and the <code>bifs</code> metrics.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		BifMetrics	metrics		= BifMetrics.getInstance();
+		IStruct		snapshot	= metrics.stats();
+		if ( arguments.getAsBoolean( KeyDictionary.reset ) ) {
+			metrics.reset();
+		}
+		return snapshot;
+	}
+
+}
@@ -14,18 +14,17 @@
  */
 package ortus.boxlang.jsoup.bifs;
 
-import java.util.Set;
-
-import org.jsoup.Jsoup;
-
+import ortus.boxlang.jsoup.util.BifMetrics;
 import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.HtmlSource;
 import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
 import ortus.boxlang.runtime.bifs.BIF;
 import ortus.boxlang.runtime.bifs.BoxBIF;
 import ortus.boxlang.runtime.context.IBoxContext;
 import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.Argument;
-import ortus.boxlang.runtime.validation.Validator;
 
 @BoxBIF
 public class HtmlParse extends BIF {
@@ -36,7 +35,11 @@ public class HtmlParse extends BIF {
 	public HtmlParse() {
 		super();
 		declaredArguments = new Argument[] {
-		    new Argument( true, Argument.STRING, KeyDictionary.html, Set.of( Validator.NON_EMPTY ) )
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.limits )
 		};
 	}
 
@@ -62,6 +65,17 @@ public class HtmlParse extends BIF {
 	 * <li><code>normalise()</code> – Normalize the document structure (e.g., ensures head/body exist).</li>
 	 * </ul>
 	 *
+	 * <h2>Sources</h2>
+	 * The <code>html</code> argument can be an HTML string, or a <code>byte[]</code>, a Java <code>InputStream</code>, <code>Reader</code>,
+	 * <code>File</code> or <code>Path</code>. Use the <code>file</code> argument to parse a file by path instead. Bytes, streams and files
+	 * are decoded by Jsoup while parsing, without ever being read into a string. Their charset is detected from the byte order mark or the
+	 * <code>&lt;meta charset&gt;</code> declaration, falling back to UTF-8, unless one is given.
+	 *
+	 * <h2>Limits</h2>
+	 * The <code>parseLimits</code> module setting bounds the size of the input, the number of nodes, the nesting depth, the
+	 * attributes per element, the parse errors and the time spent parsing. They are checked while parsing, and the first one
+	 * exceeded aborts it with an <code>HtmlLimitException</code>. Pass <code>limits</code> to override them for a call.
+	 *
 	 * <h2>Usage</h2>
 	 *
 	 * <pre>
@@ -85,23 +99,60 @@ public class HtmlParse extends BIF {
 	 * doc = htmlParse( htmlContent );
 	 * mainDiv = doc.getElementById( "main" );
 	 * // You can now work with the mainDiv element
+	 *
+	 * // Parse a file or an HTTP response body straight from its bytes
+	 * doc = htmlParse( file: "/data/pages/index.html" );
+	 * doc = htmlParse( html: response.fileContent, baseUri: "https://example.com/" );
 	 * </pre>
 	 *
 	 * @param context   The context in which the BIF is being invoked.
 	 * @param arguments Argument scope for the BIF.
 	 *
-	 * @argument.html A HTML string to be parsed.
+	 * @argument.html The HTML to parse: an HTML string, or a byte array, a Java InputStream, Reader, File or Path.
+	 *
+	 * @argument.file The path of an HTML file to parse, instead of the <code>html</code> argument.
+	 *
+	 * @argument.charset The charset of byte, stream and file sources. Defaults to detecting it, falling back to UTF-8.
+	 *
+	 * @argument.baseUri The base URI of the document, used to resolve relative links. Defaults to an empty string.
+	 *
+	 * @argument.limits A struct overriding the <code>parseLimits</code> module setting for this call: <code>maxInputBytes</code>,
+	 *                  <code>maxNodes</code>, <code>maxDepth</code>, <code>maxAttributes</code>, <code>maxErrors</code> and
+	 *                  <code>timeout</code> in milliseconds, 0 meaning unlimited.
 	 *
 	 * @return A Jsoup Document object representing the parsed HTML content.
+	 *
+	 * @throws ortus.boxlang.jsoup.util.HtmlLimitException If the HTML goes over one of the limits.
 	 */
 	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
-		var target = arguments.getAsString( KeyDictionary.html );
-
-		if ( target == null || target.isEmpty() ) {
-			return BoxDocument.EMPTY_DOCUMENT;
-		}
+		return parse(
+		    KeyDictionary.htmlParse,
+		    HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) ),
+		    arguments.getAsString( KeyDictionary.charset ),
+		    arguments.getAsString( KeyDictionary.baseUri ),
+		    ParseLimits.forCall( arguments.getAsStruct( KeyDictionary.limits ) )
+		);
+	}
 
-		return BoxDocument.fromDocument( Jsoup.parse( target ) );
+	/**
+	 * Parse a resolved source into a document, measured under the name of the calling BIF.
+	 *
+	 * @param bif     The name of the calling BIF, for the metrics.
+	 * @param source  The resolved HTML source.
+	 * @param charset The charset of byte, stream and file sources, or empty to detect it.
+	 * @param baseUri The base URI of the document.
+	 * @param limits  The limits to parse within.
+	 *
+	 * @return The parsed document.
+	 */
+	static BoxDocument parse( Key bif, Object source, String charset, String baseUri, ParseLimits limits ) {
+		return BifMetrics.getInstance().measureParse( bif, source, () -> {
+			if ( source instanceof String html && html.isEmpty() ) {
+				// A fresh document each time, the shared empty one is frozen
+				return new BoxDocument( "" );
+			}
+			return BoxDocument.adopt( HtmlSource.parse( source, charset, baseUri, limits ) );
+		} );
 	}
 
 }
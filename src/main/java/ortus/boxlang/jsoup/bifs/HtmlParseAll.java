@@ -0,0 +1,100 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.jsoup.util.BatchExecutor;
+import ortus.boxlang.jsoup.util.BifMetrics;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class HtmlParseAll extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlParseAll() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, Argument.ANY, KeyDictionary.items, Set.of( Validator.REQUIRED ) ),
+		    new Argument( false, Argument.STRING, KeyDictionary.column, "" ),
+		    new Argument( false, Argument.INTEGER, KeyDictionary.parallelism, 0, Set.of( Validator.min( 0 ) ) ),
+		    new Argument( false, Argument.STRING, KeyDictionary.errors, BatchExecutor.FAIL,
+		        Set.of( Validator.valueOneOf( BatchExecutor.FAIL, BatchExecutor.COLLECT ) ) ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.limits )
+		};
+	}
+
+	/**
+	 * Parses a whole batch of HTML strings in parallel, on virtual threads, into the same documents <code>htmlParse()</code> returns.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The HTML strings come from an array, or from a column of a query.</li>
+	 * <li>The documents come back in the original order.</li>
+	 * <li>The <code>parallelism</code> caps how many strings are parsed at the same time. It defaults to the <code>batchParallelism</code>
+	 * module setting, or the number of available processors.</li>
+	 * <li>With <code>errors = "fail"</code> (the default), the first failure stops the batch and is thrown. With <code>errors = "collect"</code>
+	 * the whole batch runs and a struct of <code>results</code> and <code>errors</code> is returned instead.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * docs = htmlParseAll( pages );
+	 * titles = docs.map( ( doc ) =&gt; doc.title() );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.items An array of HTML strings, or a query holding them.
+	 *
+	 * @argument.column The query column holding the HTML when <code>items</code> is a query.
+	 *
+	 * @argument.parallelism How many strings are parsed at the same time. Defaults to 0, which uses the module default.
+	 *
+	 * @argument.errors Either "fail" to throw the first failure, or "collect" to return the failures next to the results. Defaults to "fail".
+	 *
+	 * @argument.limits A struct overriding the <code>parseLimits</code> module setting for every string, see <code>htmlParse()</code>.
+	 *
+	 * @return An array of documents, in the original order. In "collect" mode, a struct with the <code>results</code> array and an
+	 *         <code>errors</code> array of <code>{ index, message, type }</code> structs.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		ParseLimits	limits	= ParseLimits.forCall( arguments.getAsStruct( KeyDictionary.limits ) );
+		BifMetrics	metrics	= BifMetrics.getInstance();
+
+		return BatchExecutor.run(
+		    BatchExecutor.items( arguments.get( KeyDictionary.items ), arguments.getAsString( KeyDictionary.column ) ),
+		    item -> {
+			    String html = item == null ? null : StringCaster.cast( item );
+			    return metrics.measureParse( KeyDictionary.htmlParseAll, html,
+			        () -> html == null || html.isEmpty() ? new BoxDocument( "" ) : BoxDocument.adopt( limits.parse( html, "" ) ) );
+		    },
+		    BatchExecutor.parallelism( arguments.getAsInteger( KeyDictionary.parallelism ) ),
+		    arguments.getAsString( KeyDictionary.errors )
+		);
+	}
+
+}
@@ -0,0 +1,90 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import ortus.boxlang.jsoup.util.HtmlExecutor;
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+
+@BoxBIF
+public class HtmlParseAsync extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlParseAsync() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.limits )
+		};
+	}
+
+	/**
+	 * Parses HTML in the background, like <code>htmlParse()</code>, and returns a future of the document right away, so the request
+	 * thread can overlap other work with the parse.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The sources, limits and returned document are the same as <code>htmlParse()</code>.</li>
+	 * <li>The parse runs on the module executor: a virtual thread per parse by default, see the <code>async</code> module setting. Its
+	 * queued and active tasks are reported by <code>htmlCacheStats().async</code>.</li>
+	 * <li>Cancelling the future, with <code>cancel( true )</code>, stops the parse at the next element or buffer read. A parse cancelled
+	 * before it starts never runs.</li>
+	 * <li>File paths are checked right away, read and parse failures fail the future.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * future = htmlParseAsync( file: "/data/pages/index.html" );
+	 * // ... other work ...
+	 * doc = future.get();
+	 *
+	 * titles = htmlParseAsync( response.fileContent ).then( ( doc ) =&gt; doc.title() );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The HTML to parse: an HTML string, or a byte array, a Java InputStream, Reader, File or Path.
+	 *
+	 * @argument.file The path of an HTML file to parse, instead of the <code>html</code> argument.
+	 *
+	 * @argument.charset The charset of byte, stream and file sources. Defaults to detecting it, falling back to UTF-8.
+	 *
+	 * @argument.baseUri The base URI of the document, used to resolve relative links. Defaults to an empty string.
+	 *
+	 * @argument.limits A struct overriding the <code>parseLimits</code> module setting for this call, see <code>htmlParse()</code>.
+	 *
+	 * @return A BoxFuture of the parsed document.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Object		source	= HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) );
+		String		charset	= arguments.getAsString( KeyDictionary.charset );
+		String		baseUri	= arguments.getAsString( KeyDictionary.baseUri );
+		ParseLimits	limits	= ParseLimits.forCall( arguments.getAsStruct( KeyDictionary.limits ) ).interruptible();
+
+		return HtmlExecutor.getInstance().submit( () -> HtmlParse.parse( KeyDictionary.htmlParseAsync, source, charset, baseUri, limits ) );
+	}
+
+}
@@ -0,0 +1,105 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.nio.charset.Charset;
+import java.util.Set;
+
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.SelectorCache;
+import ortus.boxlang.jsoup.util.StreamingSelector;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class HtmlSelect extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlSelect() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( true, Argument.STRING, KeyDictionary.selector, Set.of( Validator.NON_EMPTY ) ),
+		    new Argument( false, Argument.INTEGER, KeyDictionary.limit, 0, Set.of( Validator.min( 0 ) ) ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "UTF-8" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" )
+		};
+	}
+
+	/**
+	 * Parses HTML and returns only the elements matching a CSS selector, without keeping the whole document alive.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The HTML is parsed incrementally and each element is checked against the selector as soon as it is complete.</li>
+	 * <li>Elements outside of any match are thrown away as parsing goes, so the peak memory is driven by the matches, not the document.</li>
+	 * <li>The matches are returned in document order and detached from the document.</li>
+	 * <li>With a <code>limit</code>, parsing stops as soon as enough matches are found.</li>
+	 * <li>Selectors that depend on children, text or siblings (<code>:has()</code>, <code>:contains()</code>, <code>:nth-child()</code>,
+	 * <code>+</code>, <code>~</code>, ...) return the same results, but need the full document to be parsed first.</li>
+	 * <li>Strings given as <code>html</code> are always the HTML itself, files are selected from with the <code>file</code> argument.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * prices = htmlSelect( productPage, ".price" ).map( ( element ) =&gt; element.text() );
+	 * firstImage = htmlSelect( html: productPage, selector: "img[src]", limit: 1 );
+	 * titles = htmlSelect( file: expandPath( "./catalog.html" ), selector: "h2" );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The HTML to select from: an HTML string, or a Java File, Path, InputStream or Reader.
+	 *
+	 * @argument.selector The CSS selector to match.
+	 *
+	 * @argument.limit The maximum number of matches to return. Defaults to 0, which returns all of them.
+	 *
+	 * @argument.charset The charset of file and byte stream sources. Defaults to UTF-8.
+	 *
+	 * @argument.baseUri The base URI of the document, used to resolve relative links. Defaults to an empty string.
+	 *
+	 * @argument.file The path of an HTML file to select from, instead of the <code>html</code> argument.
+	 *
+	 * @return An array of the matching Jsoup Elements, detached from their document.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		String	selector	= arguments.getAsString( KeyDictionary.selector );
+		Charset	charset		= Charset.forName( arguments.getAsString( KeyDictionary.charset ) );
+		Object	source		= HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) );
+
+		Array	results		= new Array();
+		results.addAll(
+		    StreamingSelector.select(
+		        HtmlSource.reader( source, charset ),
+		        arguments.getAsString( KeyDictionary.baseUri ),
+		        selector,
+		        SelectorCache.getInstance().get( selector ),
+		        arguments.getAsInteger( KeyDictionary.limit )
+		    )
+		);
+		return results;
+	}
+
+}
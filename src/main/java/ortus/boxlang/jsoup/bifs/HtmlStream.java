@@ -0,0 +1,178 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.nio.charset.Charset;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+
+import ortus.boxlang.jsoup.util.HtmlEventHandler;
+import ortus.boxlang.jsoup.util.HtmlEventStreamer;
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.Function;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+@BoxBIF
+public class HtmlStream extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlStream() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.source ),
+		    new Argument( true, Argument.STRUCT, KeyDictionary.handlers ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "UTF-8" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.baseUri, "" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" )
+		};
+	}
+
+	/**
+	 * Streams an HTML document as a sequence of SAX-style events, without ever holding the whole document in memory.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The source is read incrementally: a file is read through a file channel, a string is read in place.</li>
+	 * <li>Each event calls the matching closure of the <code>handlers</code> struct, in document order.</li>
+	 * <li>Nodes are discarded as soon as their events are fired, so memory only grows with the nesting depth of the document.</li>
+	 * <li>Any handler returning <code>false</code> stops the parse right away.</li>
+	 * <li>Strings given as <code>source</code> are always the HTML itself, files are streamed with the <code>file</code> argument.</li>
+	 * </ul>
+	 * <h2>Handlers</h2>
+	 * All handlers are optional:
+	 * <ul>
+	 * <li><code>onStartTag( name, attributes )</code>: An element was opened, <code>attributes</code> is an ordered struct.</li>
+	 * <li><code>onEndTag( name )</code>: An element was closed.</li>
+	 * <li><code>onText( text )</code>: A run of text was read, including the raw contents of <code>script</code> and <code>style</code> elements.</li>
+	 * <li><code>onComment( text )</code>: A comment was read.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * links = [];
+	 * htmlStream( file: expandPath( "./big-page.html" ), handlers: {
+	 *     onStartTag : ( name, attributes ) =&gt; {
+	 *         if ( name == "a" &amp;&amp; attributes.keyExists( "href" ) ) {
+	 *             links.append( attributes.href );
+	 *         }
+	 *     }
+	 * } );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.source The HTML to stream: an HTML string, or a Java File, Path, InputStream or Reader.
+	 *
+	 * @argument.handlers A struct of closures receiving the events: onStartTag, onEndTag, onText and onComment.
+	 *
+	 * @argument.charset The charset of file and byte stream sources. Defaults to UTF-8.
+	 *
+	 * @argument.baseUri The base URI of the document, used to resolve relative links. Defaults to an empty string.
+	 *
+	 * @argument.file The path of an HTML file to stream, instead of the <code>source</code> argument.
+	 *
+	 * @return True if the whole document was streamed, false if a handler stopped it early.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		IStruct	handlers	= arguments.getAsStruct( KeyDictionary.handlers );
+		Charset	charset		= Charset.forName( arguments.getAsString( KeyDictionary.charset ) );
+		Object	source		= HtmlSource.resolve( context, arguments.get( KeyDictionary.source ), arguments.getAsString( KeyDictionary.file ) );
+
+		return HtmlEventStreamer.stream(
+		    HtmlSource.reader( source, charset ),
+		    arguments.getAsString( KeyDictionary.baseUri ),
+		    new ClosureHandler( context, handlers )
+		);
+	}
+
+	/**
+	 * Adapts the handler closures to the streamer's events
+	 */
+	private static class ClosureHandler implements HtmlEventHandler {
+
+		private final IBoxContext	context;
+		private final Function		onStartTag;
+		private final Function		onEndTag;
+		private final Function		onText;
+		private final Function		onComment;
+
+		ClosureHandler( IBoxContext context, IStruct handlers ) {
+			this.context	= context;
+			this.onStartTag	= handler( handlers, KeyDictionary.onStartTag );
+			this.onEndTag	= handler( handlers, KeyDictionary.onEndTag );
+			this.onText		= handler( handlers, KeyDictionary.onText );
+			this.onComment	= handler( handlers, KeyDictionary.onComment );
+		}
+
+		@Override
+		public boolean startTag( Element element ) {
+			if ( this.onStartTag == null ) {
+				return true;
+			}
+			IStruct attributes = new Struct( IStruct.TYPES.LINKED );
+			for ( Attribute attribute : element.attributes() ) {
+				attributes.put( Key.of( attribute.getKey() ), attribute.getValue() );
+			}
+			return call( this.onStartTag, element.tagName(), attributes );
+		}
+
+		@Override
+		public boolean endTag( Element element ) {
+			return this.onEndTag == null || call( this.onEndTag, element.tagName() );
+		}
+
+		@Override
+		public boolean text( TextNode text ) {
+			return this.onText == null || call( this.onText, text.getWholeText() );
+		}
+
+		@Override
+		public boolean data( DataNode data ) {
+			return this.onText == null || call( this.onText, data.getWholeData() );
+		}
+
+		@Override
+		public boolean comment( Comment comment ) {
+			return this.onComment == null || call( this.onComment, comment.getData() );
+		}
+
+		/**
+		 * Calls a handler, only an explicit false stops the stream
+		 */
+		private boolean call( Function handler, Object... args ) {
+			return !Boolean.FALSE.equals( this.context.invokeFunction( handler, args ) );
+		}
+
+		private static Function handler( IStruct handlers, Key name ) {
+			return handlers.get( name ) instanceof Function function ? function : null;
+		}
+
+	}
+
+}
@@ -0,0 +1,149 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.jsoup.nodes.Element;
+
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ModuleSettings;
+import ortus.boxlang.jsoup.util.SelectorCache;
+import ortus.boxlang.jsoup.util.TableQueryBuilder;
+import ortus.boxlang.jsoup.util.TableQueryBuilder.HeaderMode;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.ArrayCaster;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class HtmlTableToQuery extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlTableToQuery() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( false, Argument.STRING, KeyDictionary.selector, "table", Set.of( Validator.NON_EMPTY ) ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.options, new Struct() ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "UTF-8" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" )
+		};
+	}
+
+	/**
+	 * Converts an HTML table into a query, filled natively as the table is read.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The first table matching the selector is converted, nested tables stay inside the text of their cells.</li>
+	 * <li>Header rows are detected from the <code>thead</code>, or from leading rows of <code>th</code> cells, and name the columns.
+	 * Stacked header rows are joined, missing names default to <code>column1</code>, <code>column2</code>, ...</li>
+	 * <li>Cells spanning several columns or rows (<code>colspan</code>, <code>rowspan</code>) are repeated in every column and row they
+	 * cover.</li>
+	 * <li>Columns holding only integers, decimals or booleans are typed, empty cells in them are null.</li>
+	 * <li>HTML strings, files and streams are converted while they are parsed: each row is dropped from the DOM once converted, so huge
+	 * tables never need a full document. Parsed documents and elements are read in place.</li>
+	 * <li>Strings given as <code>html</code> are always the HTML itself, files are converted with the <code>file</code> argument.</li>
+	 * </ul>
+	 * <h2>Options</h2>
+	 * <ul>
+	 * <li><code>header</code>: <code>"auto"</code> (default) to detect the header rows, <code>true</code> to also take the first row as
+	 * the header without a <code>thead</code>, <code>false</code> when every row is data.</li>
+	 * <li><code>columns</code>: An array of column names to use, in order, over the header ones.</li>
+	 * <li><code>inferTypes</code>: Whether to type integer, decimal and boolean columns. Defaults to true, use false to get strings and
+	 * add the rows to the query as soon as they are read.</li>
+	 * <li><code>maxRows</code>: The maximum number of data rows to read, parsing stops once they are read. Defaults to 0, all of them.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * report = htmlTableToQuery( file: expandPath( "./report.html" ), selector: "table.sales" );
+	 * first10 = htmlTableToQuery( html: page, options: { maxRows: 10, columns: [ "region", "total" ] } );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The table to convert: an HTML string, a parsed document or element, or a Java File, Path, InputStream or Reader.
+	 *
+	 * @argument.selector The CSS selector matching the table. Defaults to <code>table</code>, the first table.
+	 *
+	 * @argument.options The <code>header</code>, <code>columns</code>, <code>inferTypes</code> and <code>maxRows</code> options.
+	 *
+	 * @argument.charset The charset of file and byte stream sources. Defaults to UTF-8.
+	 *
+	 * @argument.file The path of an HTML file to convert, instead of the <code>html</code> argument.
+	 *
+	 * @return A query with a row per data row of the table.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Object				html		= HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) );
+		String				selector	= arguments.getAsString( KeyDictionary.selector );
+		IStruct				options		= arguments.getAsStruct( KeyDictionary.options );
+		TableQueryBuilder	builder		= new TableQueryBuilder(
+		    headerMode( options.get( KeyDictionary.header ) ),
+		    columns( options.get( KeyDictionary.columns ) ),
+		    ModuleSettings.getBoolean( options, KeyDictionary.inferTypes, true ),
+		    ( int ) ModuleSettings.getLong( options, KeyDictionary.maxRows, 0 )
+		);
+
+		if ( html instanceof Element element ) {
+			return builder.build( element, selector, SelectorCache.getInstance().get( selector ) );
+		}
+		return builder.build(
+		    HtmlSource.reader( html, Charset.forName( arguments.getAsString( KeyDictionary.charset ) ) ),
+		    "",
+		    selector,
+		    SelectorCache.getInstance().get( selector )
+		);
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static HeaderMode headerMode( Object header ) {
+		if ( header == null || "auto".equalsIgnoreCase( header.toString() ) ) {
+			return HeaderMode.AUTO;
+		}
+		return BooleanCaster.cast( header ) ? HeaderMode.FIRST_ROW : HeaderMode.NONE;
+	}
+
+	private static List<String> columns( Object columns ) {
+		List<String> names = new ArrayList<>();
+		if ( columns != null ) {
+			for ( Object name : ArrayCaster.cast( columns ) ) {
+				names.add( StringCaster.cast( name ) );
+			}
+		}
+		return names;
+	}
+
+}
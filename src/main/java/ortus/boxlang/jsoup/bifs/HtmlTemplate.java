@@ -0,0 +1,73 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.util.Set;
+
+import ortus.boxlang.jsoup.util.BoxDocumentTemplate;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.validation.Validator;
+
+@BoxBIF
+public class HtmlTemplate extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlTemplate() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, Argument.STRING, KeyDictionary.html, Set.of( Validator.NON_EMPTY ) )
+		};
+	}
+
+	/**
+	 * Parses an HTML template once, to get fresh editable documents out of it without parsing the HTML again.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>The HTML is parsed once into a frozen document that is never handed out.</li>
+	 * <li>Every <code>instance()</code> call returns a new document, like <code>htmlParse()</code> would, which can be freely edited
+	 * without affecting the template or any other instance.</li>
+	 * <li>Copying the parsed nodes is much cheaper than parsing the HTML again, as it skips the tokenizer and the tree builder.</li>
+	 * <li>The template is immutable and thread-safe, so it can be kept in the application scope and shared by all requests.</li>
+	 * <li><code>html()</code> returns the HTML of the template.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * application.layout = htmlTemplate( fileRead( expandPath( "/layouts/main.html" ) ) );
+	 *
+	 * doc = application.layout.instance();
+	 * doc.title( "Products" );
+	 * doc.getElementById( "content" ).append( productsHtml );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The HTML of the template.
+	 *
+	 * @return A template object whose <code>instance()</code> method returns a new Jsoup Document for each call.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		return BoxDocumentTemplate.compile( arguments.getAsString( KeyDictionary.html ) );
+	}
+
+}
@@ -0,0 +1,107 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import java.nio.charset.Charset;
+
+import org.jsoup.nodes.Element;
+
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.HtmlTextExtractor;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ModuleSettings;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+@BoxBIF
+public class HtmlToText extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public HtmlToText() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( false, Argument.ANY, KeyDictionary.html ),
+		    new Argument( false, Argument.STRUCT, KeyDictionary.options, new Struct() ),
+		    new Argument( false, Argument.STRING, KeyDictionary.charset, "UTF-8" ),
+		    new Argument( false, Argument.STRING, KeyDictionary.file, "" )
+		};
+	}
+
+	/**
+	 * Extracts the text of HTML without keeping the whole document in memory.
+	 * <h2>Functionality</h2>
+	 * <ul>
+	 * <li>Gives the same text as <code>htmlParse( html ).text()</code>: whitespace is normalized, block elements and <code>br</code>
+	 * are separated from the text around them, and <code>pre</code> and <code>textarea</code> keep their whitespace.</li>
+	 * <li>HTML strings, files and streams are parsed as a stream: each element is turned into text and dropped once it is complete, so
+	 * only the open elements and the table being read are held in memory. Parsed documents and elements are read in place.</li>
+	 * <li>Character references are decoded, comments are left out.</li>
+	 * <li>Strings given as <code>html</code> are always the HTML itself, files are read with the <code>file</code> argument.</li>
+	 * </ul>
+	 * <h2>Options</h2>
+	 * <ul>
+	 * <li><code>lineBreaks</code>: Whether block elements and <code>br</code> start new lines instead of being separated by a space.
+	 * Defaults to false.</li>
+	 * <li><code>skipScripts</code>: Whether the content of <code>script</code> and <code>style</code> elements is left out. Defaults to
+	 * true.</li>
+	 * <li><code>maxLength</code>: The maximum length of the text, reading stops as soon as it is reached. Defaults to 0, all of it.</li>
+	 * </ul>
+	 * <h2>Example</h2>
+	 *
+	 * <pre>
+	 * summary = htmlToText( html, { maxLength: 200 } );
+	 * lines = htmlToText( file: expandPath( "./page.html" ), options: { lineBreaks: true } ).listToArray( char( 10 ) );
+	 * </pre>
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.html The HTML to read: an HTML string, a parsed document or element, or a Java File, Path, InputStream or Reader.
+	 *
+	 * @argument.options The <code>lineBreaks</code>, <code>skipScripts</code> and <code>maxLength</code> options.
+	 *
+	 * @argument.charset The charset of file and byte stream sources. Defaults to UTF-8.
+	 *
+	 * @argument.file The path of an HTML file to read, instead of the <code>html</code> argument.
+	 *
+	 * @return The text, trimmed.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Object				html		= HtmlSource.resolve( context, arguments.get( KeyDictionary.html ), arguments.getAsString( KeyDictionary.file ) );
+		IStruct				options		= arguments.getAsStruct( KeyDictionary.options );
+		HtmlTextExtractor	extractor	= new HtmlTextExtractor(
+		    ModuleSettings.getBoolean( options, KeyDictionary.lineBreaks, false ),
+		    ModuleSettings.getBoolean( options, KeyDictionary.skipScripts, true ),
+		    ( int ) ModuleSettings.getLong( options, KeyDictionary.maxLength, 0 )
+		);
+
+		if ( html instanceof Element element ) {
+			return extractor.extract( element );
+		}
+		if ( html instanceof String string ) {
+			// Its length sizes the text buffer
+			return extractor.extract( string );
+		}
+		return extractor.extract( HtmlSource.reader( html, Charset.forName( arguments.getAsString( KeyDictionary.charset ) ) ) );
+	}
+
+}
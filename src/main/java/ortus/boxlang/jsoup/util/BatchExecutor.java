@@ -0,0 +1,206 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import ortus.boxlang.runtime.dynamic.casters.ArrayCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.Query;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * Runs the same task over a batch of items on virtual threads, for the <code>*All</code> batch BIFs.
+ * <p>
+ * A fixed number of workers, the parallelism, pull the next item index from a shared counter until the batch is
+ * exhausted, so the results land in their original order without any sorting. Depending on the error mode, the first
+ * failure either stops the batch and is rethrown, or every failure is collected next to the results.
+ */
+public final class BatchExecutor {
+
+	/**
+	 * Stop the batch on the first failure and rethrow it
+	 */
+	public static final String	FAIL	= "fail";
+
+	/**
+	 * Run the whole batch and report the failures per item
+	 */
+	public static final String	COLLECT	= "collect";
+
+	private BatchExecutor() {
+	}
+
+	/**
+	 * Get the items of a batch out of a BoxLang array or a query column.
+	 *
+	 * @param items  An array, or a query.
+	 * @param column The column holding the items when <code>items</code> is a query.
+	 *
+	 * @return The items.
+	 *
+	 * @throws BoxRuntimeException If a query is given without a valid column.
+	 */
+	public static Array items( Object items, String column ) {
+		if ( items instanceof Query query ) {
+			if ( column == null || column.isBlank() ) {
+				throw new BoxRuntimeException( "The [column] argument is required when the items are a query" );
+			}
+			Key name = Key.of( column );
+			if ( !query.hasColumn( name ) ) {
+				throw new BoxRuntimeException( "The query has no column named [" + column + "]" );
+			}
+			return query.getColumnDataAsArray( name );
+		}
+		return ArrayCaster.cast( items );
+	}
+
+	/**
+	 * Resolve the parallelism of a batch: the requested one, else the <code>batchParallelism</code> module setting,
+	 * else the number of available processors.
+	 *
+	 * @param requested The requested parallelism, 0 to use the default.
+	 *
+	 * @return The parallelism to use, at least 1.
+	 */
+	public static int parallelism( int requested ) {
+		if ( requested > 0 ) {
+			return requested;
+		}
+		int configured = ( int ) ModuleSettings.getLong( ModuleSettings.get(), KeyDictionary.batchParallelism, 0 );
+		return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Run a task over every item of a batch.
+	 *
+	 * @param items       The items to process.
+	 * @param task        The task producing the result of one item. It must be thread-safe.
+	 * @param parallelism The number of items processed at the same time.
+	 * @param errors      Either {@link #FAIL} or {@link #COLLECT}.
+	 *
+	 * @return In fail mode, the array of results in the original order. In collect mode, a struct with the
+	 *         <code>results</code> array, holding null for the failed items, and an <code>errors</code> array of
+	 *         <code>{ index, message, type }</code> structs, the index being 1-based.
+	 *
+	 * @throws BoxRuntimeException In fail mode, the first failure.
+	 */
+	public static Object run( List<Object> items, Function<Object, Object> task, int parallelism, String errors ) {
+		Batch	batch	= new Batch( items, task, COLLECT.equalsIgnoreCase( errors ) );
+		int		workers	= Math.max( 1, Math.min( parallelism, items.size() ) );
+
+		if ( workers == 1 ) {
+			batch.work();
+		} else {
+			runOnVirtualThreads( batch, workers );
+		}
+		return batch.result();
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static void runOnVirtualThreads( Batch batch, int workers ) {
+		try ( ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor() ) {
+			List<Future<?>> futures = new ArrayList<>( workers );
+			for ( int i = 0; i < workers; i++ ) {
+				futures.add( executor.submit( batch::work ) );
+			}
+			for ( Future<?> future : futures ) {
+				future.get();
+			}
+		} catch ( ExecutionException e ) {
+			// Item failures are recorded by the batch itself, only errors escape a worker
+			throw e.getCause() instanceof Error error ? error : new BoxRuntimeException( "The HTML batch failed", e.getCause() );
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new BoxRuntimeException( "The HTML batch was interrupted", e );
+		}
+	}
+
+	/**
+	 * The shared state of a running batch. Every worker runs {@link #work()} until no item is left.
+	 */
+	private static final class Batch {
+
+		private final List<Object>				items;
+		private final Function<Object, Object>	task;
+		private final boolean					collect;
+		private final Object[]					results;
+		private final RuntimeException[]		failures;
+		private final AtomicInteger				next	= new AtomicInteger();
+
+		Batch( List<Object> items, Function<Object, Object> task, boolean collect ) {
+			this.items		= items;
+			this.task		= task;
+			this.collect	= collect;
+			this.results	= new Object[ items.size() ];
+			this.failures	= new RuntimeException[ items.size() ];
+		}
+
+		void work() {
+			int size = this.results.length;
+			for ( int i = this.next.getAndIncrement(); i < size; i = this.next.getAndIncrement() ) {
+				try {
+					this.results[ i ] = this.task.apply( this.items.get( i ) );
+				} catch ( RuntimeException e ) {
+					this.failures[ i ] = e;
+					if ( !this.collect ) {
+						// Make every worker run out of items
+						this.next.set( size );
+						return;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Assembles the batch result once all the workers are done, rethrowing the first failure in fail mode.
+		 */
+		Object result() {
+			Array	resultArray	= new Array();
+			Array	errorArray	= new Array();
+			for ( int i = 0; i < this.results.length; i++ ) {
+				RuntimeException failure = this.failures[ i ];
+				if ( failure != null ) {
+					if ( !this.collect ) {
+						throw failure;
+					}
+					errorArray.add( Struct.of(
+					    KeyDictionary.index, i + 1,
+					    KeyDictionary.message, String.valueOf( failure.getMessage() ),
+					    KeyDictionary.type, failure instanceof BoxRuntimeException boxException ? boxException.getType() : failure.getClass().getName()
+					) );
+				}
+				resultArray.add( this.results[ i ] );
+			}
+			return this.collect ? Struct.of( KeyDictionary.results, resultArray, KeyDictionary.errors, errorArray ) : resultArray;
+		}
+
+	}
+
+}
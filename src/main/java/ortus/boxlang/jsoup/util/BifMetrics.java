@@ -0,0 +1,321 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import ortus.boxlang.runtime.BoxRuntime;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Module-wide metrics of the parsing and cleaning BIFs: call and error counts, latency histograms, input and output
+ * sizes, and the bytes stripped by each safelist.
+ * <p>
+ * Metrics are off by default and enabled through the <code>metrics</code> module setting. When disabled, a measured call
+ * only checks a final flag and runs the work as-is: no clock is read and nothing is counted. When enabled, every counter
+ * is a {@link LongAdder} and the latencies go to a {@link LatencyHistogram}, so concurrent requests never contend on a
+ * shared counter. With <code>events</code> on as well, every call is also announced to the <code>onHtmlParse</code> or
+ * <code>onHtmlClean</code> interception point, for interceptors that ship the numbers elsewhere.
+ * <p>
+ * Sizes of string inputs and outputs are counted in characters, which are bytes for ASCII markup, so measuring them never
+ * encodes the strings. Sizes of byte arrays and files are their byte counts, and those of streams are unknown and counted
+ * as 0.
+ */
+public final class BifMetrics {
+
+	private static volatile BifMetrics		instance;
+
+	private final boolean					enabled;
+	private final boolean					events;
+
+	/**
+	 * The metrics of each BIF, created on its first measured call
+	 */
+	private final Map<Key, Operation>		operations	= new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param enabled Whether anything is measured at all.
+	 * @param events  Whether every measured call is announced to the interception points as well.
+	 */
+	public BifMetrics( boolean enabled, boolean events ) {
+		this.enabled	= enabled;
+		this.events		= enabled && events;
+	}
+
+	/**
+	 * Get the metrics, configuring them from the module settings on first use.
+	 *
+	 * @return The shared metrics.
+	 */
+	public static BifMetrics getInstance() {
+		BifMetrics metrics = instance;
+		if ( metrics == null ) {
+			synchronized ( BifMetrics.class ) {
+				metrics = instance;
+				if ( metrics == null ) {
+					metrics		= fromSettings();
+					instance	= metrics;
+				}
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * Replace the metrics with empty ones configured from the current module settings.
+	 *
+	 * @return The new metrics.
+	 */
+	public static synchronized BifMetrics reload() {
+		instance = fromSettings();
+		return instance;
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public boolean isAnnouncing() {
+		return this.events;
+	}
+
+	/**
+	 * Run a parse and measure it.
+	 *
+	 * @param bif    The name of the BIF parsing.
+	 * @param source The source being parsed, to measure its size.
+	 * @param parser The parse to run.
+	 *
+	 * @return The parsed document.
+	 */
+	public BoxDocument measureParse( Key bif, Object source, Supplier<BoxDocument> parser ) {
+		if ( !this.enabled ) {
+			return parser.get();
+		}
+
+		long		start		= System.nanoTime();
+		BoxDocument	document	= measure( bif, start, parser );
+		long		duration	= System.nanoTime() - start;
+		long		inputBytes	= sizeOf( source );
+
+		Operation	operation	= operation( bif );
+		operation.latency.record( duration );
+		operation.inputBytes.add( inputBytes );
+
+		if ( this.events ) {
+			announce( KeyDictionary.onHtmlParse, Struct.of(
+			    KeyDictionary.bif, bif.getName(),
+			    KeyDictionary.durationNanos, duration,
+			    KeyDictionary.inputBytes, inputBytes
+			) );
+		}
+		return document;
+	}
+
+	/**
+	 * Run a clean and measure it.
+	 *
+	 * @param bif      The name of the BIF cleaning.
+	 * @param safelist The name of the safelist the HTML is cleaned with.
+	 * @param source   The source being cleaned, to measure its size.
+	 * @param cleaner  The clean to run.
+	 *
+	 * @return The cleaned HTML.
+	 */
+	public String measureClean( Key bif, String safelist, Object source, Supplier<String> cleaner ) {
+		if ( !this.enabled ) {
+			return cleaner.get();
+		}
+
+		long		start			= System.nanoTime();
+		String		output			= measure( bif, start, cleaner );
+		long		duration		= System.nanoTime() - start;
+		long		inputBytes		= sizeOf( source );
+		long		outputBytes		= output.length();
+		long		strippedBytes	= Math.max( 0, inputBytes - outputBytes );
+
+		Operation	operation		= operation( bif );
+		operation.latency.record( duration );
+		operation.inputBytes.add( inputBytes );
+		operation.outputBytes.add( outputBytes );
+		operation.safelists.computeIfAbsent( safelist.toLowerCase(), name -> new SafelistUsage() ).record( inputBytes, strippedBytes );
+
+		if ( this.events ) {
+			announce( KeyDictionary.onHtmlClean, Struct.of(
+			    KeyDictionary.bif, bif.getName(),
+			    KeyDictionary.durationNanos, duration,
+			    KeyDictionary.safeList, safelist,
+			    KeyDictionary.inputBytes, inputBytes,
+			    KeyDictionary.outputBytes, outputBytes,
+			    KeyDictionary.strippedBytes, strippedBytes
+			) );
+		}
+		return output;
+	}
+
+	/**
+	 * Forget everything measured so far.
+	 */
+	public void reset() {
+		this.operations.clear();
+	}
+
+	/**
+	 * Get a snapshot of the metrics.
+	 *
+	 * @return A struct with the <code>enabled</code> and <code>events</code> flags, and the <code>bifs</code> measured so far, each
+	 *         with its <code>calls</code>, <code>errors</code>, <code>latency</code> histogram, <code>inputBytes</code>,
+	 *         <code>outputBytes</code> and per-safelist <code>safelists</code> usage.
+	 */
+	public IStruct stats() {
+		IStruct bifs = new Struct( IStruct.TYPES.LINKED );
+		this.operations.entrySet()
+		    .stream()
+		    .sorted( Map.Entry.comparingByKey( ( a, b ) -> a.getName().compareTo( b.getName() ) ) )
+		    .forEach( entry -> bifs.put( entry.getKey(), entry.getValue().stats() ) );
+
+		return Struct.of(
+		    KeyDictionary.enabled, this.enabled,
+		    KeyDictionary.events, this.events,
+		    KeyDictionary.bifs, bifs
+		);
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static BifMetrics fromSettings() {
+		IStruct settings = ModuleSettings.getStruct( KeyDictionary.metrics );
+		return new BifMetrics(
+		    ModuleSettings.getBoolean( settings, KeyDictionary.enabled, false ),
+		    ModuleSettings.getBoolean( settings, KeyDictionary.events, false )
+		);
+	}
+
+	private Operation operation( Key bif ) {
+		return this.operations.computeIfAbsent( bif, key -> new Operation() );
+	}
+
+	/**
+	 * Count the call and run it, counting and timing it as an error if it fails
+	 */
+	private <T> T measure( Key bif, long start, Supplier<T> work ) {
+		Operation operation = operation( bif );
+		operation.calls.increment();
+		try {
+			return work.get();
+		} catch ( RuntimeException e ) {
+			operation.errors.increment();
+			operation.latency.record( System.nanoTime() - start );
+			throw e;
+		}
+	}
+
+	private static void announce( Key state, IStruct data ) {
+		BoxRuntime.getInstance().getInterceptorService().announce( state, data );
+	}
+
+	/**
+	 * The size of a source, without reading it
+	 */
+	private static long sizeOf( Object source ) {
+		if ( source instanceof String html ) {
+			return html.length();
+		}
+		if ( source instanceof byte[] bytes ) {
+			return bytes.length;
+		}
+		if ( source instanceof File file ) {
+			return file.length();
+		}
+		if ( source instanceof Path path ) {
+			try {
+				return Files.size( path );
+			} catch ( IOException e ) {
+				return 0;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * The metrics of a single BIF
+	 */
+	private static final class Operation {
+
+		private final LongAdder							calls		= new LongAdder();
+		private final LongAdder							errors		= new LongAdder();
+		private final LatencyHistogram					latency		= new LatencyHistogram();
+		private final LongAdder							inputBytes	= new LongAdder();
+		private final LongAdder							outputBytes	= new LongAdder();
+		private final Map<String, SafelistUsage>		safelists	= new ConcurrentHashMap<>();
+
+		private IStruct stats() {
+			IStruct usage = new Struct( IStruct.TYPES.LINKED );
+			this.safelists.entrySet()
+			    .stream()
+			    .sorted( Map.Entry.comparingByKey() )
+			    .forEach( entry -> usage.put( Key.of( entry.getKey() ), entry.getValue().stats() ) );
+
+			return Struct.of(
+			    KeyDictionary.calls, this.calls.sum(),
+			    KeyDictionary.errors, this.errors.sum(),
+			    KeyDictionary.latency, this.latency.stats(),
+			    KeyDictionary.inputBytes, this.inputBytes.sum(),
+			    KeyDictionary.outputBytes, this.outputBytes.sum(),
+			    KeyDictionary.safelists, usage
+			);
+		}
+	}
+
+	/**
+	 * How much a safelist was used, and how much markup it stripped
+	 */
+	private static final class SafelistUsage {
+
+		private final LongAdder	calls			= new LongAdder();
+		private final LongAdder	inputBytes		= new LongAdder();
+		private final LongAdder	strippedBytes	= new LongAdder();
+
+		private void record( long input, long stripped ) {
+			this.calls.increment();
+			this.inputBytes.add( input );
+			this.strippedBytes.add( stripped );
+		}
+
+		private IStruct stats() {
+			return Struct.of(
+			    KeyDictionary.calls, this.calls.sum(),
+			    KeyDictionary.inputBytes, this.inputBytes.sum(),
+			    KeyDictionary.strippedBytes, this.strippedBytes.sum()
+			);
+		}
+	}
+
+}
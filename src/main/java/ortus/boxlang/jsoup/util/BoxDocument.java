@@ -17,18 +17,29 @@
  */
 package ortus.boxlang.jsoup.util;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Collection;
+import java.util.function.Supplier;
 
+import org.jsoup.Jsoup;
+import org.jsoup.SerializationException;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
 import org.jsoup.nodes.Node;
-import org.jsoup.nodes.TextNode;
+import org.jsoup.select.Elements;
 
+import ortus.boxlang.runtime.types.IStruct;
 import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
-import ortus.boxlang.runtime.types.util.JSONUtil;
 
 /**
  * BoxDocument is a custom document class that extends Jsoup's Document.
@@ -38,9 +49,19 @@ import ortus.boxlang.runtime.types.util.JSONUtil;
 public class BoxDocument extends Document {
 
 	/**
-	 * An empty BoxDocument instance.
+	 * A shared, frozen, empty BoxDocument instance. Use {@link #copy()} to get an editable one.
 	 */
-	public static final BoxDocument EMPTY_DOCUMENT = new BoxDocument( "" );
+	public static final BoxDocument					EMPTY_DOCUMENT	= new BoxDocument( "" ).freeze();
+
+	/**
+	 * The XML serialization running on each thread, see {@link #outputSettings()}
+	 */
+	private static final ThreadLocal<Serialization>	SERIALIZATION	= new ThreadLocal<>();
+
+	/**
+	 * Whether the document rejects changes, see {@link #freeze()}
+	 */
+	private boolean									frozen;
 
 	/**
 	 * Constructs a new BoxDocument with the specified base URI.
@@ -57,8 +78,45 @@ public class BoxDocument extends Document {
 	 * ----------------------------------------------------------------
 	 */
 
+	/**
+	 * Parses an HTML string straight into a BoxDocument.
+	 * The nodes built by the Jsoup parser are adopted as-is, so the DOM is only built once.
+	 *
+	 * @param html The HTML string to parse.
+	 *
+	 * @return A new BoxDocument holding the parsed content.
+	 */
+	public static BoxDocument parse( String html ) {
+		return adopt( Jsoup.parse( html ) );
+	}
+
+	/**
+	 * Creates a BoxDocument by moving the child nodes of an existing Jsoup Document into it.
+	 * Unlike {@link #fromDocument(Document)} no nodes are copied: the very same node instances
+	 * are re-parented into the new BoxDocument and the source document is left empty.
+	 * Use this when the source document is a throw-away, like the result of a fresh parse.
+	 *
+	 * @param document The Jsoup Document to take the nodes from.
+	 *
+	 * @return A new BoxDocument holding the original nodes.
+	 */
+	public static BoxDocument adopt( Document document ) {
+		BoxDocument boxDoc = new BoxDocument( document.baseUri() );
+
+		// Move all child nodes (including DOCTYPE, comments, etc.), the snapshot is needed as re-parenting mutates the source list
+		boxDoc.appendChildren( new ArrayList<>( document.childNodes() ) );
+
+		// Copy document settings and properties
+		boxDoc.outputSettings( document.outputSettings().clone() );
+		boxDoc.charset( document.charset() );
+		boxDoc.quirksMode( document.quirksMode() );
+
+		return boxDoc;
+	}
+
 	/**
 	 * Creates a BoxDocument from an existing Jsoup Document.
+	 * The source document is deep-cloned and left untouched, see {@link #adopt(Document)} for a copy-free alternative.
 	 *
 	 * @param document The existing Jsoup Document to convert.
 	 *
@@ -79,12 +137,313 @@ public class BoxDocument extends Document {
 		return boxDoc;
 	}
 
+	/**
+	 * Rebuilds a document from the bytes of {@link #toBytes()}, without parsing any HTML. The document comes back
+	 * exactly as it was encoded, with its base URI and output settings, but never frozen.
+	 *
+	 * @param bytes The encoded document.
+	 *
+	 * @return A new BoxDocument holding the decoded content.
+	 *
+	 * @throws BoxRuntimeException if the bytes are not an encoded document, or were encoded by an unsupported version.
+	 */
+	public static BoxDocument fromBytes( byte[] bytes ) {
+		return BoxDocumentCodec.decode( bytes );
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Frozen Documents
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Freeze the document so it can be shared: adding, replacing or removing its children, changing its text, title,
+	 * charset or attributes all throw from now on. Creating the html, head or body elements of an empty document is a
+	 * change as well, so a frozen empty document stays empty.
+	 * <p>
+	 * Only the document itself is guarded, the nodes already in it are plain Jsoup nodes. Share a frozen document only
+	 * when it is empty or never handed out, like the master document of a {@link BoxDocumentTemplate}, and edit
+	 * {@link #copy() copies} of it.
+	 *
+	 * @return This document, frozen.
+	 */
+	public BoxDocument freeze() {
+		this.frozen = true;
+		return this;
+	}
+
+	/**
+	 * Whether the document is frozen, see {@link #freeze()}.
+	 *
+	 * @return True if the document rejects changes.
+	 */
+	public boolean isFrozen() {
+		return this.frozen;
+	}
+
+	/**
+	 * Get an editable deep copy of the document, frozen or not. Copying a parsed document is much cheaper than parsing
+	 * its HTML again, and a frozen document can be copied by many threads at once.
+	 *
+	 * @return A new, unfrozen document with copies of all the nodes.
+	 */
+	public BoxDocument copy() {
+		return clone();
+	}
+
+	/**
+	 * Deep copy the document. The copy is never frozen.
+	 *
+	 * @return A new, unfrozen document with copies of all the nodes.
+	 */
+	@Override
+	public BoxDocument clone() {
+		BoxDocument clone = ( BoxDocument ) super.clone();
+		clone.frozen = false;
+		return clone;
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Frozen Guards
+	 * ----------------------------------------------------------------
+	 * Every method changing the document itself fails once it is frozen.
+	 * Jsoup funnels most changes through the protected child methods,
+	 * the public ones are guarded as well to fail before any side effect.
+	 */
+
+	@Override
+	protected void addChildren( Node... children ) {
+		checkNotFrozen();
+		super.addChildren( children );
+	}
+
+	@Override
+	protected void addChildren( int index, Node... children ) {
+		checkNotFrozen();
+		super.addChildren( index, children );
+	}
+
+	@Override
+	protected void replaceChild( Node out, Node in ) {
+		checkNotFrozen();
+		super.replaceChild( out, in );
+	}
+
+	@Override
+	protected void removeChild( Node out ) {
+		checkNotFrozen();
+		super.removeChild( out );
+	}
+
+	@Override
+	public Element appendChild( Node child ) {
+		checkNotFrozen();
+		return super.appendChild( child );
+	}
+
+	@Override
+	public Element appendChildren( Collection<? extends Node> children ) {
+		checkNotFrozen();
+		return super.appendChildren( children );
+	}
+
+	@Override
+	public Element prependChild( Node child ) {
+		checkNotFrozen();
+		return super.prependChild( child );
+	}
+
+	@Override
+	public Element prependChildren( Collection<? extends Node> children ) {
+		checkNotFrozen();
+		return super.prependChildren( children );
+	}
+
+	@Override
+	public Element insertChildren( int index, Collection<? extends Node> children ) {
+		checkNotFrozen();
+		return super.insertChildren( index, children );
+	}
+
+	@Override
+	public Element insertChildren( int index, Node... children ) {
+		checkNotFrozen();
+		return super.insertChildren( index, children );
+	}
+
+	@Override
+	public Element appendElement( String tagName ) {
+		checkNotFrozen();
+		return super.appendElement( tagName );
+	}
+
+	@Override
+	public Element prependElement( String tagName ) {
+		checkNotFrozen();
+		return super.prependElement( tagName );
+	}
+
+	@Override
+	public Element appendText( String text ) {
+		checkNotFrozen();
+		return super.appendText( text );
+	}
+
+	@Override
+	public Element prependText( String text ) {
+		checkNotFrozen();
+		return super.prependText( text );
+	}
+
+	@Override
+	public Element append( String html ) {
+		checkNotFrozen();
+		return super.append( html );
+	}
+
+	@Override
+	public Element prepend( String html ) {
+		checkNotFrozen();
+		return super.prepend( html );
+	}
+
+	@Override
+	public Element html( String html ) {
+		checkNotFrozen();
+		return super.html( html );
+	}
+
+	@Override
+	public Element text( String text ) {
+		checkNotFrozen();
+		return super.text( text );
+	}
+
+	@Override
+	public Element empty() {
+		checkNotFrozen();
+		return super.empty();
+	}
+
+	@Override
+	public void title( String title ) {
+		checkNotFrozen();
+		super.title( title );
+	}
+
+	@Override
+	public void charset( Charset charset ) {
+		checkNotFrozen();
+		super.charset( charset );
+	}
+
+	@Override
+	public Element attr( String attributeKey, String attributeValue ) {
+		checkNotFrozen();
+		return super.attr( attributeKey, attributeValue );
+	}
+
+	@Override
+	public Element attr( String attributeKey, boolean attributeValue ) {
+		checkNotFrozen();
+		return super.attr( attributeKey, attributeValue );
+	}
+
+	@Override
+	public Element removeAttr( String attributeKey ) {
+		checkNotFrozen();
+		return super.removeAttr( attributeKey );
+	}
+
+	@Override
+	public Element clearAttributes() {
+		checkNotFrozen();
+		return super.clearAttributes();
+	}
+
+	@Override
+	public Element addClass( String className ) {
+		checkNotFrozen();
+		return super.addClass( className );
+	}
+
+	@Override
+	public Element removeClass( String className ) {
+		checkNotFrozen();
+		return super.removeClass( className );
+	}
+
+	@Override
+	public Element toggleClass( String className ) {
+		checkNotFrozen();
+		return super.toggleClass( className );
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Selector Methods
+	 * ----------------------------------------------------------------
+	 * Same as the Jsoup ones, but the compiled selectors are shared
+	 * through the module's {@link SelectorCache}.
+	 */
+
+	/**
+	 * Find the elements matching a CSS selector, using the shared compiled selector cache.
+	 *
+	 * @param cssQuery The CSS selector.
+	 *
+	 * @return The matching elements, in document order.
+	 */
+	@Override
+	public Elements select( String cssQuery ) {
+		return select( SelectorCache.getInstance().get( cssQuery ) );
+	}
+
+	/**
+	 * Find the first element matching a CSS selector, using the shared compiled selector cache.
+	 *
+	 * @param cssQuery The CSS selector.
+	 *
+	 * @return The first matching element, or null if there is none.
+	 */
+	@Override
+	public Element selectFirst( String cssQuery ) {
+		return selectFirst( SelectorCache.getInstance().get( cssQuery ) );
+	}
+
+	/**
+	 * Check if the document matches a CSS selector, using the shared compiled selector cache.
+	 *
+	 * @param cssQuery The CSS selector.
+	 *
+	 * @return True if the document matches.
+	 */
+	@Override
+	public boolean is( String cssQuery ) {
+		return is( SelectorCache.getInstance().get( cssQuery ) );
+	}
+
 	/**
 	 * ----------------------------------------------------------------
 	 * Enhanced Methods
 	 * ----------------------------------------------------------------
 	 */
 
+	/**
+	 * Get the output settings of the document. While this document is serialized to XML on the current thread, the
+	 * per-call XML settings are returned instead: Jsoup reads the settings of the owner document for every node it
+	 * writes, so this is how each serialization gets its own settings without changing the document's.
+	 *
+	 * @return The output settings in effect on the current thread.
+	 */
+	@Override
+	public OutputSettings outputSettings() {
+		Serialization serialization = SERIALIZATION.get();
+		return serialization != null && serialization.document() == this ? serialization.settings() : super.outputSettings();
+	}
+
 	/**
 	 * Returns an XML representation of the document.
 	 *
@@ -95,19 +454,76 @@ public class BoxDocument extends Document {
 	}
 
 	/**
-	 * Returns an XML representation of the document.
+	 * Returns an XML representation of the document: well-formed XHTML, with void elements closed, every attribute
+	 * given a value and only the XML entities used for escaping.
+	 * <p>
+	 * The document and its output settings are left untouched, so a shared document can be serialized by many threads
+	 * at once, with different settings each.
 	 *
 	 * @param prettyPrint  If true, the XML will be formatted with indentation for readability.
 	 *                     If false, the XML will be compact.
 	 * @param indentFactor The number of spaces to use for indentation.
 	 *
 	 * @return An XML string representation of the document.
+	 *
+	 * @throws BoxRuntimeException if the document exceeds the configured depth or size limits.
 	 */
 	public String toXML( Boolean prettyPrint, int indentFactor ) {
-		if ( prettyPrint ) {
-			this.outputSettings().prettyPrint( true ).indentAmount( indentFactor );
+		return serializeXML( prettyPrint, indentFactor, this::outerHtml );
+	}
+
+	/**
+	 * Writes the XML representation of the document to the given target, like a <code>Writer</code> or a <code>StringBuilder</code>,
+	 * without building it as a string first. See {@link #toXML(Boolean, int)} for the format.
+	 *
+	 * @param out          The target to write the XML to.
+	 * @param prettyPrint  If true, the XML will be formatted with indentation for readability.
+	 * @param indentFactor The number of spaces to use for indentation.
+	 *
+	 * @throws BoxRuntimeException if the target fails to accept the XML or the document exceeds the configured depth or size limits.
+	 */
+	public void toXML( Appendable out, Boolean prettyPrint, int indentFactor ) {
+		serializeXML( prettyPrint, indentFactor, () -> this.html( out ) );
+	}
+
+	/**
+	 * Writes the XML representation of the document to the given stream, like an HTTP response stream, encoded with
+	 * the charset of the document. Characters the charset cannot encode are written as entities.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param out          The stream to write the XML to.
+	 * @param prettyPrint  If true, the XML will be formatted with indentation for readability.
+	 * @param indentFactor The number of spaces to use for indentation.
+	 *
+	 * @throws BoxRuntimeException if writing fails or the document exceeds the configured depth or size limits.
+	 */
+	public void toXML( OutputStream out, Boolean prettyPrint, int indentFactor ) {
+		Writer writer = new BufferedWriter( new OutputStreamWriter( out, this.charset() ) );
+		toXML( writer, prettyPrint, indentFactor );
+		try {
+			writer.flush();
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Failed to convert BoxDocument to XML", e );
+		}
+	}
+
+	/**
+	 * Writes the XML representation of the document to a file, encoded with the charset of the document.
+	 * The file is created or overwritten. Relative paths are resolved against the working directory, use
+	 * <code>expandPath()</code> for paths relative to the application.
+	 *
+	 * @param path         The path of the file to write.
+	 * @param prettyPrint  If true, the XML will be formatted with indentation for readability.
+	 * @param indentFactor The number of spaces to use for indentation.
+	 *
+	 * @throws BoxRuntimeException if the file cannot be written or the document exceeds the configured depth or size limits.
+	 */
+	public void toXMLFile( String path, Boolean prettyPrint, int indentFactor ) {
+		try ( Writer writer = Files.newBufferedWriter( Path.of( path ), this.charset() ) ) {
+			toXML( writer, prettyPrint, indentFactor );
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Unable to write the XML file [" + path + "]", e );
 		}
-		return this.outerHtml();
 	}
 
 	/**
@@ -119,23 +535,83 @@ public class BoxDocument extends Document {
 
 	/**
 	 * Returns a JSON representation of the document.
+	 * The JSON is streamed while walking the DOM, no intermediate structures are built.
 	 *
 	 * @param prettyPrint If true, the JSON will be formatted with indentation for readability.
 	 *                    If false, the JSON will be compact.
 	 *
 	 * @return A JSON string representation of the document.
 	 *
-	 * @throws RuntimeException if the conversion to JSON fails.
+	 * @throws BoxRuntimeException if the conversion to JSON fails.
 	 */
 	public String toJSON( Boolean prettyPrint ) {
+		StringBuilder json = new StringBuilder();
+		toJSON( json, prettyPrint );
+		return json.toString();
+	}
+
+	/**
+	 * Writes the JSON representation of the document to the given target, like a <code>Writer</code> or a <code>StringBuilder</code>.
+	 *
+	 * @param out         The target to write the JSON to.
+	 * @param prettyPrint If true, the JSON will be formatted with indentation for readability.
+	 *
+	 * @throws BoxRuntimeException if the conversion to JSON fails or the document exceeds the configured depth or size limits.
+	 */
+	public void toJSON( Appendable out, Boolean prettyPrint ) {
 		try {
-			Map<String, Object> tree = elementToMap( this );
-			return JSONUtil.getJSONBuilder().asString( tree );
-		} catch ( Exception e ) {
+			DocumentJSONWriter.write( this, out, prettyPrint, TraversalLimits.fromSettings() );
+		} catch ( IOException e ) {
 			throw new BoxRuntimeException( "Failed to convert BoxDocument to JSON", e );
 		}
 	}
 
+	/**
+	 * Writes the UTF-8 encoded JSON representation of the document to the given stream, like an HTTP response stream.
+	 * The stream is flushed but not closed.
+	 *
+	 * @param out         The stream to write the JSON to.
+	 * @param prettyPrint If true, the JSON will be formatted with indentation for readability.
+	 *
+	 * @throws BoxRuntimeException if the conversion to JSON fails.
+	 */
+	public void toJSON( OutputStream out, Boolean prettyPrint ) {
+		Writer writer = new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8 ) );
+		toJSON( writer, prettyPrint );
+		try {
+			writer.flush();
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Failed to convert BoxDocument to JSON", e );
+		}
+	}
+
+	/**
+	 * Returns a read-only struct view of the document, with the same shape as {@link #toJSON()}: the document and every
+	 * element are structs with a <code>tag</code>, an optional <code>attributes</code> struct and an optional
+	 * <code>children</code> array, and non-blank text nodes are <code>{ text : "..." }</code> structs.
+	 * <p>
+	 * Nothing is serialized and only the parts that are read are built, so this is much cheaper than
+	 * <code>deserializeJSON( doc.toJSON() )</code>. The views do not follow later changes to the document reliably, take
+	 * them once it is no longer changed. See {@link ElementStructView}.
+	 *
+	 * @return The struct view of the document.
+	 */
+	public IStruct toStruct() {
+		return ElementStructView.of( this );
+	}
+
+	/**
+	 * Returns the document in a compact binary format, to cache it or send it to another node, and load it back with
+	 * {@link #fromBytes(byte[])} much faster than parsing its HTML again. See {@link BoxDocumentCodec} for the format.
+	 *
+	 * @return The encoded document.
+	 *
+	 * @throws BoxRuntimeException if the document exceeds the configured depth or size limits.
+	 */
+	public byte[] toBytes() {
+		return BoxDocumentCodec.encode( this, TraversalLimits.fromSettings() );
+	}
+
 	/**
 	 * ----------------------------------------------------------------
 	 * Private Methods
@@ -143,44 +619,44 @@ public class BoxDocument extends Document {
 	 */
 
 	/**
-	 * Converts a Jsoup Element to a Map representation.
-	 * This method recursively processes the element and its children,
-	 * converting it into a structured Map format suitable for JSON serialization.
-	 *
-	 * @param element The Jsoup Element to convert.
-	 *
-	 * @return A Map representation of the Element.
+	 * Runs a serialization of the document with its own XML output settings, copied from the document's ones.
 	 */
-	private Map<String, Object> elementToMap( Element element ) {
-		Map<String, Object> result = new LinkedHashMap<>();
-		result.put( "tag", element.tagName() );
+	private <T> T serializeXML( Boolean prettyPrint, int indentFactor, Supplier<T> serializer ) {
+		TraversalLimits.fromSettings().check( this );
 
-		// Add attributes
-		if ( !element.attributes().isEmpty() ) {
-			Map<String, String> attrs = new LinkedHashMap<>();
-			element.attributes().forEach( attr -> attrs.put( attr.getKey(), attr.getValue() ) );
-			result.put( "attributes", attrs );
+		OutputSettings settings = super.outputSettings().clone()
+		    .syntax( OutputSettings.Syntax.xml )
+		    .escapeMode( Entities.EscapeMode.xhtml )
+		    .prettyPrint( prettyPrint );
+		if ( prettyPrint ) {
+			settings.indentAmount( indentFactor );
 		}
 
-		// Add children
-		List<Object> children = new ArrayList<>();
-		for ( Node child : element.childNodes() ) {
-			if ( child instanceof Element childEl ) {
-				children.add( elementToMap( childEl ) );
-			} else if ( child instanceof TextNode textNode ) {
-				String text = textNode.text().trim();
-				if ( !text.isEmpty() ) {
-					Map<String, String> textNodeMap = new LinkedHashMap<>();
-					textNodeMap.put( "text", text );
-					children.add( textNodeMap );
-				}
+		Serialization previous = SERIALIZATION.get();
+		SERIALIZATION.set( new Serialization( this, settings ) );
+		try {
+			return serializer.get();
+		} catch ( SerializationException e ) {
+			throw new BoxRuntimeException( "Failed to convert BoxDocument to XML", e );
+		} finally {
+			if ( previous == null ) {
+				SERIALIZATION.remove();
+			} else {
+				SERIALIZATION.set( previous );
 			}
 		}
-		if ( !children.isEmpty() ) {
-			result.put( "children", children );
+	}
+
+	private void checkNotFrozen() {
+		if ( this.frozen ) {
+			throw new BoxRuntimeException( "This document is frozen and cannot be changed, use copy() to get an editable document" );
 		}
+	}
 
-		return result;
+	/**
+	 * The per-call output settings of a document being serialized
+	 */
+	private record Serialization( BoxDocument document, OutputSettings settings ) {
 	}
 
 }
@@ -0,0 +1,526 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.CDataNode;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Document.OutputSettings;
+import org.jsoup.nodes.DocumentType;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
+import org.jsoup.nodes.FormElement;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.nodes.XmlDeclaration;
+import org.jsoup.parser.ParseSettings;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.Tag;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * A compact binary format for {@link BoxDocument}s, to cache parsed documents or send them to other nodes and load
+ * them back much faster than parsing their HTML again.
+ * <p>
+ * The bytes start with a magic number and a format version, then the document settings, then every node in document
+ * order, each element followed by its children. All numbers are unsigned varints. Tag, namespace and attribute names
+ * are written once and then referenced by their index in a name table, and short values (attribute values, whitespace
+ * runs, ...) go through a string pool the same way. Both tables are built while writing and rebuilt while reading, so
+ * they are never stored on their own. Strings are UTF-8.
+ * <p>
+ * Reading creates the nodes directly, without any tokenizing or tree building, and gives back the exact same tree:
+ * node types, tag names and namespaces, attributes in order (valueless ones included), text, data, comments, doctypes
+ * and XML declarations, and the output settings of the document.
+ */
+public final class BoxDocumentCodec {
+
+	/**
+	 * The magic number and version the bytes start with
+	 */
+	private static final byte[]	MAGIC		= { 'B', 'X', 'J', 'D' };
+	private static final int	VERSION		= 1;
+
+	/**
+	 * Node types
+	 */
+	private static final int	ELEMENT		= 1;
+	private static final int	TEXT		= 2;
+	private static final int	DATA		= 3;
+	private static final int	COMMENT		= 4;
+	private static final int	CDATA		= 5;
+	private static final int	DOCTYPE		= 6;
+	private static final int	DECLARATION	= 7;
+
+	/**
+	 * Element flags, stored above the node type
+	 */
+	private static final int	TYPE_BITS	= 3;
+	private static final int	SELF_CLOSED	= 1 << TYPE_BITS;
+	private static final int	NAMESPACE	= 2 << TYPE_BITS;
+
+	/**
+	 * Values up to this length go through the string pool, longer ones are rarely repeated
+	 */
+	private static final int	MAX_POOLED	= 64;
+
+	private BoxDocumentCodec() {
+	}
+
+	/**
+	 * Encode a document.
+	 *
+	 * @param document The document to encode.
+	 * @param limits   The limits the document must be within.
+	 *
+	 * @return The encoded document.
+	 *
+	 * @throws BoxRuntimeException If the document holds a node type the format does not support.
+	 * @throws HtmlLimitException  If the document exceeds the limits.
+	 */
+	public static byte[] encode( Document document, TraversalLimits limits ) {
+		Encoder			encoder		= new Encoder();
+		OutputSettings	settings	= document.outputSettings();
+
+		encoder.raw( MAGIC );
+		encoder.varint( VERSION );
+		encoder.string( document.location() );
+		encoder.string( settings.charset().name() );
+		encoder.varint( settings.syntax().ordinal() );
+		encoder.varint( settings.escapeMode().ordinal() );
+		encoder.varint( settings.indentAmount() );
+		encoder.varint( settings.maxPaddingWidth() + 1 );
+		encoder.varint( ( settings.prettyPrint() ? 1 : 0 ) | ( settings.outline() ? 2 : 0 ) | ( document.updateMetaCharsetElement() ? 4 : 0 ) );
+		encoder.varint( document.quirksMode().ordinal() );
+		encoder.varint( document.childNodeSize() );
+		for ( Node child : document.childNodes() ) {
+			NodeTraversor.traverse( limits.guard( encoder ), child );
+		}
+		return encoder.toBytes();
+	}
+
+	/**
+	 * Decode a document encoded with {@link #encode(Document, TraversalLimits)}.
+	 *
+	 * @param bytes The encoded document.
+	 *
+	 * @return A new, editable document.
+	 *
+	 * @throws BoxRuntimeException If the bytes are not an encoded document, or were encoded by an unsupported version.
+	 */
+	public static BoxDocument decode( byte[] bytes ) {
+		if ( bytes == null || bytes.length < MAGIC.length || !Arrays.equals( bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length ) ) {
+			throw new BoxRuntimeException( "The bytes are not an encoded BoxDocument" );
+		}
+		try {
+			return new Decoder( bytes, MAGIC.length ).document();
+		} catch ( IndexOutOfBoundsException | IllegalArgumentException e ) {
+			throw new BoxRuntimeException( "The encoded BoxDocument is truncated or corrupt", e );
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Writes the nodes as the tree is walked, into a growing byte array
+	 */
+	private static final class Encoder implements NodeVisitor {
+
+		private final Map<String, Integer>	names	= new HashMap<>();
+		private final Map<String, Integer>	values	= new HashMap<>();
+
+		private byte[]						buffer	= new byte[ 4096 ];
+		private int							length	= 0;
+
+		@Override
+		public void head( Node node, int depth ) {
+			if ( node instanceof Element element ) {
+				element( element );
+			} else if ( node instanceof CDataNode cdata ) {
+				varint( CDATA );
+				value( cdata.getWholeText() );
+			} else if ( node instanceof TextNode text ) {
+				varint( TEXT );
+				value( text.getWholeText() );
+			} else if ( node instanceof DataNode data ) {
+				varint( DATA );
+				value( data.getWholeData() );
+			} else if ( node instanceof Comment comment ) {
+				varint( COMMENT );
+				value( comment.getData() );
+			} else if ( node instanceof DocumentType doctype ) {
+				varint( DOCTYPE );
+				attributes( doctype.attributes() );
+			} else if ( node instanceof XmlDeclaration declaration ) {
+				varint( DECLARATION );
+				name( declaration.name() );
+				// Processing instructions are written <!...!>, other declarations <?...?>
+				varint( declaration.outerHtml().startsWith( "<!" ) ? 1 : 0 );
+				attributes( declaration.attributes() );
+			} else {
+				throw new BoxRuntimeException( "Cannot encode the node type [" + node.getClass().getName() + "]" );
+			}
+		}
+
+		@Override
+		public void tail( Node node, int depth ) {
+		}
+
+		private void element( Element element ) {
+			Tag		tag			= element.tag();
+			// Only void elements are self-closing by default, anything else was self-closed in the source
+			int		flags		= tag.isSelfClosing() && !tag.isEmpty() ? SELF_CLOSED : 0;
+			// The namespace is only written when it differs from the parent's one, like the svg root
+			boolean	namespace	= !tag.namespace().equals( element.parent().tag().namespace() );
+			varint( ELEMENT | flags | ( namespace ? NAMESPACE : 0 ) );
+			name( tag.getName() );
+			if ( namespace ) {
+				name( tag.namespace() );
+			}
+			attributes( element.attributes() );
+			varint( element.childNodeSize() );
+		}
+
+		private void attributes( Attributes attributes ) {
+			// The size includes the internal attributes Jsoup keeps, which are not iterated
+			int count = 0;
+			for ( Attribute attribute : attributes ) {
+				count++;
+			}
+			varint( count );
+			for ( Attribute attribute : attributes ) {
+				name( attribute.getKey() );
+				if ( attribute.hasDeclaredValue() ) {
+					value( attribute.getValue() );
+				} else {
+					varint( 0 );
+				}
+			}
+		}
+
+		/**
+		 * Writes a name: its index + 1 in the name table, or 0 and the name the first time
+		 */
+		private void name( String name ) {
+			Integer index = this.names.get( name );
+			if ( index != null ) {
+				varint( index + 1 );
+				return;
+			}
+			this.names.put( name, this.names.size() );
+			varint( 0 );
+			string( name );
+		}
+
+		/**
+		 * Writes a value: 1 and the value the first time, pooled if short, or its index + 2 in the pool. 0 is left for
+		 * attributes without a value.
+		 */
+		private void value( String value ) {
+			if ( value.length() <= MAX_POOLED ) {
+				Integer index = this.values.get( value );
+				if ( index != null ) {
+					varint( index + 2 );
+					return;
+				}
+				this.values.put( value, this.values.size() );
+			}
+			varint( 1 );
+			string( value );
+		}
+
+		private void string( String value ) {
+			byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+			varint( bytes.length );
+			raw( bytes );
+		}
+
+		private void varint( int value ) {
+			ensure( 5 );
+			while ( ( value & ~0x7F ) != 0 ) {
+				this.buffer[ this.length++ ] = ( byte ) ( ( value & 0x7F ) | 0x80 );
+				value >>>= 7;
+			}
+			this.buffer[ this.length++ ] = ( byte ) value;
+		}
+
+		private void raw( byte[] bytes ) {
+			ensure( bytes.length );
+			System.arraycopy( bytes, 0, this.buffer, this.length, bytes.length );
+			this.length += bytes.length;
+		}
+
+		private void ensure( int count ) {
+			if ( this.length + count > this.buffer.length ) {
+				this.buffer = Arrays.copyOf( this.buffer, Math.max( this.buffer.length * 2, this.length + count ) );
+			}
+		}
+
+		private byte[] toBytes() {
+			return Arrays.copyOf( this.buffer, this.length );
+		}
+
+	}
+
+	/**
+	 * Builds the nodes back from the bytes, without recursion
+	 */
+	private static final class Decoder {
+
+		private final byte[]			bytes;
+		private int						position;
+
+		private final List<String>		names		= new ArrayList<>();
+		private final List<String>		values		= new ArrayList<>();
+
+		/**
+		 * The tags read so far, by namespace and name
+		 */
+		private final Map<String, Tag>	tags		= new HashMap<>();
+
+		/**
+		 * The open elements and the number of children each still has to read
+		 */
+		private Element[]				parents		= new Element[ 32 ];
+		private int[]					remaining	= new int[ 32 ];
+		private int						depth		= 0;
+
+		private Decoder( byte[] bytes, int position ) {
+			this.bytes		= bytes;
+			this.position	= position;
+		}
+
+		private BoxDocument document() {
+			int version = varint();
+			if ( version != VERSION ) {
+				throw new BoxRuntimeException( "Unsupported encoded BoxDocument version [" + version + "], expected [" + VERSION + "]" );
+			}
+			BoxDocument		document	= new BoxDocument( string() );
+			OutputSettings	settings	= document.outputSettings();
+			settings.charset( string() );
+			settings.syntax( OutputSettings.Syntax.values()[ varint() ] );
+			settings.escapeMode( Entities.EscapeMode.values()[ varint() ] );
+			settings.indentAmount( varint() );
+			settings.maxPaddingWidth( varint() - 1 );
+			int flags = varint();
+			settings.prettyPrint( ( flags & 1 ) != 0 );
+			settings.outline( ( flags & 2 ) != 0 );
+			document.updateMetaCharsetElement( ( flags & 4 ) != 0 );
+			document.quirksMode( Document.QuirksMode.values()[ varint() ] );
+
+			push( document, varint() );
+			while ( this.depth > 0 ) {
+				int top = this.depth - 1;
+				if ( this.remaining[ top ] == 0 ) {
+					this.parents[ top ] = null;
+					this.depth--;
+					continue;
+				}
+				this.remaining[ top ]--;
+				node( this.parents[ top ] );
+			}
+			if ( this.position != this.bytes.length ) {
+				throw new IllegalArgumentException( "Trailing bytes" );
+			}
+			return document;
+		}
+
+		/**
+		 * Reads a node into its parent. Elements are pushed, their children come next.
+		 */
+		private void node( Element parent ) {
+			int	header	= varint();
+			int	type	= header & ( ( 1 << TYPE_BITS ) - 1 );
+			if ( type != ELEMENT && type != header ) {
+				throw new IllegalArgumentException( "Unknown node header " + header );
+			}
+			switch ( type ) {
+				case ELEMENT -> {
+					String	name		= name();
+					String	namespace	= ( header & NAMESPACE ) != 0 ? name() : parent.tag().namespace();
+					Tag		tag			= tag( name, namespace, ( header & SELF_CLOSED ) != 0 );
+					// Forms are built as form elements by the HTML parser
+					Element	element		= isForm( tag ) ? new FormElement( tag, null, attributes() ) : new Element( tag, null, attributes() );
+					parent.appendChild( element );
+					push( element, varint() );
+				}
+				case TEXT -> parent.appendChild( new TextNode( text() ) );
+				case DATA -> parent.appendChild( new DataNode( text() ) );
+				case COMMENT -> parent.appendChild( new Comment( text() ) );
+				case CDATA -> parent.appendChild( new CDataNode( text() ) );
+				case DOCTYPE -> {
+					DocumentType doctype = new DocumentType( "", "", "" );
+					doctype.attributes().addAll( attributes() );
+					parent.appendChild( doctype );
+				}
+				case DECLARATION -> {
+					XmlDeclaration declaration = new XmlDeclaration( name(), varint() == 1 );
+					declaration.attributes().addAll( attributes() );
+					parent.appendChild( declaration );
+				}
+				default -> throw new IllegalArgumentException( "Unknown node type " + type );
+			}
+		}
+
+		private Attributes attributes() {
+			int			count		= varint();
+			Attributes	attributes	= new Attributes();
+			for ( int i = 0; i < count; i++ ) {
+				String key = name();
+				attributes.add( key, value() );
+			}
+			return attributes;
+		}
+
+		/**
+		 * The tag of an element. Tags self-closed in the source, like <code>&lt;custom /&gt;</code>, only come from the
+		 * parser, so they are taken from a tiny parse of such an element, once per decode.
+		 */
+		private Tag tag( String name, String namespace, boolean selfClosed ) {
+			String key = ( selfClosed ? "/" : "" ) + namespace + ' ' + name;
+			Tag tag = this.tags.get( key );
+			if ( tag == null ) {
+				tag = Tag.valueOf( name, namespace, ParseSettings.preserveCase );
+				if ( selfClosed && !tag.isSelfClosing() ) {
+					tag = selfClosedTag( tag );
+				}
+				this.tags.put( key, tag );
+			}
+			return tag;
+		}
+
+		private void push( Element element, int children ) {
+			if ( this.depth == this.parents.length ) {
+				this.parents	= Arrays.copyOf( this.parents, this.depth * 2 );
+				this.remaining	= Arrays.copyOf( this.remaining, this.depth * 2 );
+			}
+			this.parents[ this.depth ]		= element;
+			this.remaining[ this.depth ]	= children;
+			this.depth++;
+		}
+
+		private String name() {
+			int index = varint();
+			if ( index > 0 ) {
+				return this.names.get( index - 1 );
+			}
+			String name = string();
+			this.names.add( name );
+			return name;
+		}
+
+		/**
+		 * Reads a value, null for attributes without a value
+		 */
+		private String value() {
+			int index = varint();
+			if ( index == 0 ) {
+				return null;
+			}
+			if ( index > 1 ) {
+				return this.values.get( index - 2 );
+			}
+			String value = string();
+			if ( value.length() <= MAX_POOLED ) {
+				this.values.add( value );
+			}
+			return value;
+		}
+
+		/**
+		 * Reads the content of a text, data or comment node, which always has one
+		 */
+		private String text() {
+			String text = value();
+			if ( text == null ) {
+				throw new IllegalArgumentException( "Missing node content" );
+			}
+			return text;
+		}
+
+		private String string() {
+			int length = varint();
+			if ( length < 0 || length > this.bytes.length - this.position ) {
+				throw new IllegalArgumentException( "String out of bounds" );
+			}
+			String value = new String( this.bytes, this.position, length, StandardCharsets.UTF_8 );
+			this.position += length;
+			return value;
+		}
+
+		private int varint() {
+			int	value	= 0;
+			int	shift	= 0;
+			while ( true ) {
+				byte b = this.bytes[ this.position++ ];
+				value |= ( b & 0x7F ) << shift;
+				if ( b >= 0 ) {
+					return value;
+				}
+				shift += 7;
+				if ( shift > 28 ) {
+					throw new IllegalArgumentException( "Varint too long" );
+				}
+			}
+		}
+
+		private static boolean isForm( Tag tag ) {
+			return tag.getName().equals( "form" ) && tag.namespace().equals( Parser.NamespaceHtml );
+		}
+
+		/**
+		 * The tag the parser gives an element it read as <code>&lt;name /&gt;</code>, or the default tag if the name
+		 * cannot be parsed back
+		 */
+		private static Tag selfClosedTag( Tag tag ) {
+			String		name	= tag.getName();
+			String		html	= "<" + name + " />";
+			Document	parsed;
+			if ( Parser.NamespaceXml.equals( tag.namespace() ) ) {
+				parsed = Parser.xmlParser().parseInput( html, "" );
+			} else if ( Parser.NamespaceSvg.equals( tag.namespace() ) ) {
+				parsed = Parser.parseBodyFragment( "<svg>" + html + "</svg>", "" );
+			} else if ( Parser.NamespaceMathml.equals( tag.namespace() ) ) {
+				parsed = Parser.parseBodyFragment( "<math>" + html + "</math>", "" );
+			} else {
+				parsed = Parser.parseBodyFragment( html, "" );
+			}
+			for ( Element element : parsed.getAllElements() ) {
+				if ( element.tagName().equals( name ) && element.tag().namespace().equals( tag.namespace() ) && element.tag().isSelfClosing() ) {
+					return element.tag();
+				}
+			}
+			return tag;
+		}
+
+	}
+
+}
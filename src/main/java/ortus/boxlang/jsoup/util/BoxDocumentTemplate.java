@@ -0,0 +1,83 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+/**
+ * A parsed HTML template handing out fresh, editable documents without parsing the HTML again.
+ * <p>
+ * The HTML is parsed once into a frozen master document that is never handed out. Every {@link #instance()} is a deep
+ * copy of it: copying nodes skips the tokenizer and the tree builder altogether, which is where most of the parsing
+ * time goes. Jsoup nodes know their parent, so a node cannot be shared by two documents and the copies cannot share
+ * structure with the master, but they never affect it nor each other. A template is immutable and can be shared by all
+ * threads, for example in the application scope.
+ */
+public final class BoxDocumentTemplate {
+
+	/**
+	 * The parsed template, frozen and never handed out
+	 */
+	private final BoxDocument master;
+
+	private BoxDocumentTemplate( BoxDocument master ) {
+		this.master = master;
+	}
+
+	/**
+	 * Parse an HTML template.
+	 *
+	 * @param html The HTML of the template.
+	 *
+	 * @return The template.
+	 */
+	public static BoxDocumentTemplate compile( String html ) {
+		// Nobody else holds the freshly parsed document, so it becomes the master as-is
+		return new BoxDocumentTemplate( BoxDocument.parse( html ).freeze() );
+	}
+
+	/**
+	 * Use an existing document as a template. The document is copied, so later changes to it do not affect the template.
+	 *
+	 * @param document The document to use as a template.
+	 *
+	 * @return The template.
+	 */
+	public static BoxDocumentTemplate from( BoxDocument document ) {
+		return new BoxDocumentTemplate( document.copy().freeze() );
+	}
+
+	/**
+	 * Get a new, editable document holding a copy of the template.
+	 *
+	 * @return A new BoxDocument, independent from the template and from any other instance.
+	 */
+	public BoxDocument instance() {
+		return this.master.copy();
+	}
+
+	/**
+	 * Get the HTML of the template, as an instance would serialize it before any change.
+	 *
+	 * @return The HTML of the template.
+	 */
+	public String html() {
+		return this.master.outerHtml();
+	}
+
+	@Override
+	public String toString() {
+		return html();
+	}
+
+}
@@ -0,0 +1,267 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.safety.Safelist;
+
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A module-wide, optional cache of cleaned HTML, bounded by the memory its entries hold rather than by their count.
+ * <p>
+ * The same snippets (signatures, footers, templated comments) tend to be cleaned again on every render. When enabled
+ * through the <code>cleanCache</code> module setting, the cleaned output is kept per input, safelist and base URI, the
+ * least recently used entries being evicted once the total size goes over <code>maxBytes</code>. Inputs whose entry
+ * would be bigger than <code>maxEntryBytes</code> are never cached, so a few huge documents cannot flush the cache.
+ * <p>
+ * Entries are keyed by the shared safelist instance, which already tells the safelist name and whether relative links are
+ * preserved apart, and by the full input: a hash collision can never return the output of another input.
+ */
+public final class CleanCache {
+
+	/**
+	 * The default total size of the cached entries, in bytes
+	 */
+	public static final long			DEFAULT_MAX_BYTES		= 16L * 1024 * 1024;
+
+	/**
+	 * The default size of the biggest entry cached, in bytes
+	 */
+	public static final long			DEFAULT_MAX_ENTRY_BYTES	= 64L * 1024;
+
+	/**
+	 * The estimated footprint of an entry besides its strings: the key, the map node and the string headers
+	 */
+	private static final long			ENTRY_OVERHEAD			= 128;
+
+	private static volatile CleanCache	instance;
+
+	private final boolean				enabled;
+	private final long					maxBytes;
+	private final long					maxEntryBytes;
+
+	/**
+	 * The cleaned outputs in access order, guarded by its own monitor along with {@link #bytes}
+	 */
+	private final Map<Entry, String>	outputs					= new LinkedHashMap<>( 16, 0.75f, true );
+	private long						bytes;
+
+	private final LongAdder				hits					= new LongAdder();
+	private final LongAdder				misses					= new LongAdder();
+	private final LongAdder				evictions				= new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param enabled       Whether anything is cached at all.
+	 * @param maxBytes      The maximum total size of the cached entries, in bytes.
+	 * @param maxEntryBytes The maximum size of a single entry, in bytes.
+	 */
+	public CleanCache( boolean enabled, long maxBytes, long maxEntryBytes ) {
+		this.maxBytes		= Math.max( 0, maxBytes );
+		this.maxEntryBytes	= Math.min( Math.max( 0, maxEntryBytes ), this.maxBytes );
+		this.enabled		= enabled && this.maxBytes > 0;
+	}
+
+	/**
+	 * Get the cache, configuring it from the module settings on first use.
+	 *
+	 * @return The shared cache.
+	 */
+	public static CleanCache getInstance() {
+		CleanCache cache = instance;
+		if ( cache == null ) {
+			synchronized ( CleanCache.class ) {
+				cache = instance;
+				if ( cache == null ) {
+					cache		= fromSettings();
+					instance	= cache;
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Replace the cache with an empty one configured from the current module settings.
+	 *
+	 * @return The new cache.
+	 */
+	public static synchronized CleanCache reload() {
+		instance = fromSettings();
+		return instance;
+	}
+
+	/**
+	 * Get the cleaned output of an input.
+	 *
+	 * @param html     The HTML that was cleaned.
+	 * @param safelist The safelist it was cleaned with.
+	 * @param baseUri  The base URI it was cleaned with.
+	 *
+	 * @return The cleaned output, or null on a miss or when the cache is disabled.
+	 */
+	public String get( String html, Safelist safelist, String baseUri ) {
+		if ( !this.enabled ) {
+			return null;
+		}
+		String output;
+		synchronized ( this.outputs ) {
+			output = this.outputs.get( new Entry( safelist, baseUri, html ) );
+		}
+		if ( output == null ) {
+			this.misses.increment();
+		} else {
+			this.hits.increment();
+		}
+		return output;
+	}
+
+	/**
+	 * Store the cleaned output of an input, evicting the least recently used entries to make room for it.
+	 * Nothing is stored when the cache is disabled or the entry is bigger than <code>maxEntryBytes</code>.
+	 *
+	 * @param html     The HTML that was cleaned.
+	 * @param safelist The safelist it was cleaned with.
+	 * @param baseUri  The base URI it was cleaned with.
+	 * @param output   The cleaned output.
+	 */
+	public void put( String html, Safelist safelist, String baseUri, String output ) {
+		long weight = weigh( html, output );
+		if ( !this.enabled || weight > this.maxEntryBytes ) {
+			return;
+		}
+		synchronized ( this.outputs ) {
+			// A concurrent miss on the same input may have stored it already
+			if ( this.outputs.putIfAbsent( new Entry( safelist, baseUri, html ), output ) != null ) {
+				return;
+			}
+			this.bytes += weight;
+			Iterator<Map.Entry<Entry, String>> eldest = this.outputs.entrySet().iterator();
+			while ( this.bytes > this.maxBytes ) {
+				Map.Entry<Entry, String> entry = eldest.next();
+				this.bytes -= weigh( entry.getKey().html(), entry.getValue() );
+				eldest.remove();
+				this.evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Drop all the cached entries, the counters are kept.
+	 */
+	public void clear() {
+		synchronized ( this.outputs ) {
+			this.outputs.clear();
+			this.bytes = 0;
+		}
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public int size() {
+		synchronized ( this.outputs ) {
+			return this.outputs.size();
+		}
+	}
+
+	public long getBytes() {
+		synchronized ( this.outputs ) {
+			return this.bytes;
+		}
+	}
+
+	public long getMaxBytes() {
+		return this.maxBytes;
+	}
+
+	public long getMaxEntryBytes() {
+		return this.maxEntryBytes;
+	}
+
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	/**
+	 * Get a snapshot of the cache statistics.
+	 *
+	 * @return A struct with the <code>enabled</code> flag, the <code>size</code>, <code>bytes</code>, <code>maxBytes</code>,
+	 *         <code>maxEntryBytes</code>, <code>hits</code>, <code>misses</code> and <code>evictions</code> of the cache.
+	 */
+	public IStruct stats() {
+		int		size;
+		long	usedBytes;
+		synchronized ( this.outputs ) {
+			size		= this.outputs.size();
+			usedBytes	= this.bytes;
+		}
+		return Struct.of(
+		    KeyDictionary.enabled, this.enabled,
+		    KeyDictionary.size, size,
+		    KeyDictionary.bytes, usedBytes,
+		    KeyDictionary.maxBytes, this.maxBytes,
+		    KeyDictionary.maxEntryBytes, this.maxEntryBytes,
+		    KeyDictionary.hits, getHits(),
+		    KeyDictionary.misses, getMisses(),
+		    KeyDictionary.evictions, getEvictions()
+		);
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static CleanCache fromSettings() {
+		IStruct settings = ModuleSettings.getStruct( KeyDictionary.cleanCache );
+		return new CleanCache(
+		    ModuleSettings.getBoolean( settings, KeyDictionary.enabled, false ),
+		    ModuleSettings.getLong( settings, KeyDictionary.maxBytes, DEFAULT_MAX_BYTES ),
+		    ModuleSettings.getLong( settings, KeyDictionary.maxEntryBytes, DEFAULT_MAX_ENTRY_BYTES )
+		);
+	}
+
+	/**
+	 * The estimated memory held by an entry: both strings as UTF-16, plus the fixed overhead
+	 */
+	private static long weigh( String html, String output ) {
+		return 2L * ( html.length() + output.length() ) + ENTRY_OVERHEAD;
+	}
+
+	/**
+	 * The cache key. Jsoup safelists are compared by identity, and the string hash of the input is computed once per string.
+	 */
+	private record Entry( Safelist safelist, String baseUri, String html ) {
+	}
+
+}
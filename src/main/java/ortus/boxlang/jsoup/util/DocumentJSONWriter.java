@@ -0,0 +1,240 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+/**
+ * Streams the JSON representation of a Jsoup node tree straight into an {@link Appendable}.
+ * <p>
+ * No intermediate structures are built: JSON tokens are written while the tree is walked, without recursion, so the
+ * nesting depth of the document is only bounded by the configured {@link TraversalLimits}. Every element becomes
+ * an object with a <code>tag</code>, an optional <code>attributes</code> object and an optional <code>children</code> array.
+ * Non-blank text nodes become <code>{ "text" : "..." }</code> objects, any other node type is skipped.
+ */
+public class DocumentJSONWriter implements NodeVisitor {
+
+	private static final String	INDENT			= "  ";
+
+	private final Appendable		out;
+	private final boolean			prettyPrint;
+
+	/**
+	 * Whether the <code>children</code> array of the open element at each depth has been started
+	 */
+	private boolean[]				childrenOpen	= new boolean[ 32 ];
+
+	/**
+	 * The current JSON nesting level, used for pretty printing
+	 */
+	private int						level			= 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param out         The target to write to.
+	 * @param prettyPrint If true, the JSON is indented for readability.
+	 */
+	public DocumentJSONWriter( Appendable out, boolean prettyPrint ) {
+		this.out			= out;
+		this.prettyPrint	= prettyPrint;
+	}
+
+	/**
+	 * Write the JSON representation of a node tree.
+	 *
+	 * @param root        The element to start from.
+	 * @param out         The target to write to.
+	 * @param prettyPrint If true, the JSON is indented for readability.
+	 * @param limits      The depth and size limits to enforce while walking the tree.
+	 *
+	 * @throws IOException If the target fails to accept the output.
+	 */
+	public static void write( Element root, Appendable out, boolean prettyPrint, TraversalLimits limits ) throws IOException {
+		try {
+			NodeTraversor.traverse( limits.guard( new DocumentJSONWriter( out, prettyPrint ) ), root );
+		} catch ( UncheckedIOException e ) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Visitor Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	@Override
+	public void head( Node node, int depth ) {
+		try {
+			if ( node instanceof Element element ) {
+				if ( depth > 0 ) {
+					beginChild( depth - 1 );
+				}
+				openObject();
+				field( "tag", true );
+				string( element.tagName() );
+				writeAttributes( element );
+				if ( depth >= this.childrenOpen.length ) {
+					this.childrenOpen = Arrays.copyOf( this.childrenOpen, this.childrenOpen.length * 2 );
+				}
+				this.childrenOpen[ depth ] = false;
+			} else if ( node instanceof TextNode textNode && depth > 0 ) {
+				String text = textNode.text().trim();
+				if ( !text.isEmpty() ) {
+					beginChild( depth - 1 );
+					openObject();
+					field( "text", true );
+					string( text );
+					closeObject();
+				}
+			}
+		} catch ( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	@Override
+	public void tail( Node node, int depth ) {
+		if ( ! ( node instanceof Element ) ) {
+			return;
+		}
+		try {
+			if ( this.childrenOpen[ depth ] ) {
+				this.level--;
+				newline();
+				this.out.append( ']' );
+				this.childrenOpen[ depth ] = false;
+			}
+			closeObject();
+		} catch ( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private void writeAttributes( Element element ) throws IOException {
+		if ( element.attributes().isEmpty() ) {
+			return;
+		}
+		field( "attributes", false );
+		this.out.append( '{' );
+		this.level++;
+		boolean first = true;
+		for ( Attribute attribute : element.attributes() ) {
+			if ( !first ) {
+				this.out.append( ',' );
+			}
+			newline();
+			string( attribute.getKey() );
+			colon();
+			string( attribute.getValue() );
+			first = false;
+		}
+		this.level--;
+		newline();
+		this.out.append( '}' );
+	}
+
+	/**
+	 * Starts the next entry of the parent's children array, opening the array on its first entry.
+	 */
+	private void beginChild( int parentDepth ) throws IOException {
+		if ( this.childrenOpen[ parentDepth ] ) {
+			this.out.append( ',' );
+		} else {
+			field( "children", false );
+			this.out.append( '[' );
+			this.level++;
+			this.childrenOpen[ parentDepth ] = true;
+		}
+		newline();
+	}
+
+	private void openObject() throws IOException {
+		this.out.append( '{' );
+		this.level++;
+	}
+
+	private void closeObject() throws IOException {
+		this.level--;
+		newline();
+		this.out.append( '}' );
+	}
+
+	private void field( String name, boolean first ) throws IOException {
+		if ( !first ) {
+			this.out.append( ',' );
+		}
+		newline();
+		string( name );
+		colon();
+	}
+
+	private void colon() throws IOException {
+		this.out.append( this.prettyPrint ? ": " : ":" );
+	}
+
+	private void newline() throws IOException {
+		if ( this.prettyPrint ) {
+			this.out.append( '\n' );
+			for ( int i = 0; i < this.level; i++ ) {
+				this.out.append( INDENT );
+			}
+		}
+	}
+
+	/**
+	 * Writes a quoted and escaped JSON string.
+	 */
+	private void string( String value ) throws IOException {
+		this.out.append( '"' );
+		int	length	= value.length();
+		int	start	= 0;
+		for ( int i = 0; i < length; i++ ) {
+			char	c		= value.charAt( i );
+			String	escaped	= switch ( c ) {
+								case '"' -> "\\\"";
+								case '\\' -> "\\\\";
+								case '\n' -> "\\n";
+								case '\r' -> "\\r";
+								case '\t' -> "\\t";
+								case '\b' -> "\\b";
+								case '\f' -> "\\f";
+								default -> c < 0x20 ? String.format( "\\u%04X", ( int ) c ) : null;
+							};
+			if ( escaped != null ) {
+				this.out.append( value, start, i ).append( escaped );
+				start = i + 1;
+			}
+		}
+		this.out.append( value, start, length ).append( '"' );
+	}
+
+}
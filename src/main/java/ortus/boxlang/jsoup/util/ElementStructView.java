@@ -0,0 +1,140 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.immutable.ImmutableArray;
+import ortus.boxlang.runtime.types.immutable.ImmutableStruct;
+
+/**
+ * Read-only BoxLang views of a Jsoup node tree, with the same shape as {@link DocumentJSONWriter}: every element is a
+ * struct with a <code>tag</code>, an optional <code>attributes</code> struct and an optional <code>children</code> array,
+ * and non-blank text nodes are <code>{ text : "..." }</code> structs. Any other node type is skipped.
+ * <p>
+ * The views are built on demand: the struct of an element only holds its own tag and attributes, and its
+ * <code>children</code> array builds the struct of each child the first time that child is read. Navigating into a
+ * few elements of a large document only pays for those elements, and nothing is ever serialized.
+ * <p>
+ * The child nodes of an element are listed when its struct is built, later changes to the tree may or may not show
+ * in the views. Take views of documents that are no longer changed, like a {@link BoxDocument#freeze() frozen} copy.
+ */
+public final class ElementStructView {
+
+	private ElementStructView() {
+	}
+
+	/**
+	 * Get the read-only struct view of an element and its descendants.
+	 *
+	 * @param element The element to view.
+	 *
+	 * @return A struct with the <code>tag</code>, <code>attributes</code> and <code>children</code> of the element.
+	 */
+	public static IStruct of( Element element ) {
+		Map<Key, Object> entries = new LinkedHashMap<>( 4 );
+		entries.put( KeyDictionary.tag, element.tagName() );
+
+		if ( !element.attributes().isEmpty() ) {
+			Map<Key, Object> attributes = new LinkedHashMap<>( element.attributesSize() * 2 );
+			for ( Attribute attribute : element.attributes() ) {
+				attributes.put( Key.of( attribute.getKey() ), attribute.getValue() );
+			}
+			entries.put( KeyDictionary.attributes, new ImmutableStruct( IStruct.TYPES.LINKED, attributes ) );
+		}
+
+		List<Node> children = viewedChildren( element );
+		if ( !children.isEmpty() ) {
+			entries.put( KeyDictionary.children, new ImmutableArray( new Children( children ) ) );
+		}
+
+		return new ImmutableStruct( IStruct.TYPES.LINKED, entries );
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * The child elements and non-blank text nodes of an element, the ones with a view
+	 */
+	private static List<Node> viewedChildren( Element element ) {
+		int			size		= element.childNodeSize();
+		List<Node>	children	= new ArrayList<>( size );
+		for ( int i = 0; i < size; i++ ) {
+			Node child = element.childNode( i );
+			if ( child instanceof Element || ( child instanceof TextNode textNode && !textNode.text().trim().isEmpty() ) ) {
+				children.add( child );
+			}
+		}
+		return children;
+	}
+
+	private static IStruct viewOf( Node node ) {
+		if ( node instanceof Element element ) {
+			return of( element );
+		}
+		Map<Key, Object> entries = new LinkedHashMap<>( 2 );
+		entries.put( KeyDictionary.text, ( ( TextNode ) node ).text().trim() );
+		return new ImmutableStruct( IStruct.TYPES.LINKED, entries );
+	}
+
+	/**
+	 * The children of an element, whose views are built the first time they are read and kept from then on.
+	 * Concurrent readers may build the same view twice, but all of them get the one kept.
+	 */
+	private static final class Children extends AbstractList<Object> implements RandomAccess {
+
+		private final List<Node>						nodes;
+		private final AtomicReferenceArray<IStruct>	views;
+
+		private Children( List<Node> nodes ) {
+			this.nodes	= nodes;
+			this.views	= new AtomicReferenceArray<>( nodes.size() );
+		}
+
+		@Override
+		public Object get( int index ) {
+			IStruct view = this.views.get( index );
+			if ( view == null ) {
+				this.views.compareAndSet( index, null, viewOf( this.nodes.get( index ) ) );
+				view = this.views.get( index );
+			}
+			return view;
+		}
+
+		@Override
+		public int size() {
+			return this.nodes.size();
+		}
+
+	}
+
+}
@@ -0,0 +1,371 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * The HTML cleaning logic shared by all the cleaning BIFs, so single and batch calls behave exactly the same.
+ * <p>
+ * The output is always identical to <code>Jsoup.clean()</code>, but most inputs take a cheaper path:
+ * <ul>
+ * <li>Plain text that the serializer would write back as-is is returned right away, without parsing.</li>
+ * <li>Otherwise the fragment is parsed once and checked against the safelist. When nothing would be removed or added,
+ * the parsed fragment is serialized directly, skipping the copy into a clean document.</li>
+ * <li>Only when something is unsafe does the Jsoup {@link Cleaner} run, over the fragment already parsed.</li>
+ * </ul>
+ */
+public final class HtmlCleaner {
+
+	/**
+	 * Whether each safelist enforces attributes on each tag, see {@link #hasEnforcedAttributes(Safelist, String)}
+	 */
+	private static final Map<Safelist, Map<String, Boolean>>	ENFORCED_ATTRIBUTES		= new WeakHashMap<>();
+
+	/**
+	 * The base URI relative links are resolved against when they are preserved without one, the same as Jsoup's
+	 */
+	private static final String								PLACEHOLDER_BASE_URI	= "https://dummy.example/";
+
+	private HtmlCleaner() {
+	}
+
+	/**
+	 * Clean an HTML fragment with a registered safelist.
+	 *
+	 * @param html                  The HTML fragment to clean.
+	 * @param safelistName          The name of a registered safelist, see {@link SafelistRegistry}.
+	 * @param preserveRelativeLinks Whether relative links are kept as-is or resolved to absolute URLs.
+	 * @param baseUri               The base URI to resolve relative links against.
+	 * @param useCache              Whether to go through the {@link CleanCache}, when it is enabled.
+	 *
+	 * @return The cleaned HTML, or an empty string if the input is null or empty.
+	 */
+	public static String clean( String html, String safelistName, boolean preserveRelativeLinks, String baseUri, boolean useCache ) {
+		return clean( html, safelistName, preserveRelativeLinks, baseUri, useCache, ParseLimits.getDefault() );
+	}
+
+	/**
+	 * Clean an HTML fragment with a registered safelist, parsing it within the given limits.
+	 *
+	 * @param html                  The HTML fragment to clean.
+	 * @param safelistName          The name of a registered safelist, see {@link SafelistRegistry}.
+	 * @param preserveRelativeLinks Whether relative links are kept as-is or resolved to absolute URLs.
+	 * @param baseUri               The base URI to resolve relative links against.
+	 * @param useCache              Whether to go through the {@link CleanCache}, when it is enabled.
+	 * @param limits                The limits to parse the fragment within.
+	 *
+	 * @return The cleaned HTML, or an empty string if the input is null or empty.
+	 *
+	 * @throws HtmlLimitException If the fragment goes over a limit.
+	 */
+	public static String clean( String html, String safelistName, boolean preserveRelativeLinks, String baseUri, boolean useCache,
+	    ParseLimits limits ) {
+		if ( html == null || html.isEmpty() ) {
+			return "";
+		}
+		return clean( html, SafelistRegistry.getInstance().get( safelistName, preserveRelativeLinks ), baseUri, useCache, limits );
+	}
+
+	/**
+	 * Clean an HTML fragment with a resolved safelist, going through the {@link CleanCache} when it is enabled.
+	 *
+	 * @param html     The HTML fragment to clean.
+	 * @param safelist The safelist to apply.
+	 * @param baseUri  The base URI to resolve relative links against.
+	 * @param useCache Whether to go through the cache, when it is enabled.
+	 *
+	 * @return The cleaned HTML, or an empty string if the input is null or empty.
+	 */
+	public static String clean( String html, Safelist safelist, String baseUri, boolean useCache ) {
+		return clean( html, safelist, baseUri, useCache, ParseLimits.getDefault() );
+	}
+
+	/**
+	 * Clean an HTML fragment with a resolved safelist within the given limits, going through the {@link CleanCache} when
+	 * it is enabled. Limits overridden for the call bypass the cache, whose entries were checked against the configured ones.
+	 *
+	 * @param html     The HTML fragment to clean.
+	 * @param safelist The safelist to apply.
+	 * @param baseUri  The base URI to resolve relative links against.
+	 * @param useCache Whether to go through the cache, when it is enabled.
+	 * @param limits   The limits to parse the fragment within.
+	 *
+	 * @return The cleaned HTML, or an empty string if the input is null or empty.
+	 *
+	 * @throws HtmlLimitException If the fragment goes over a limit.
+	 */
+	public static String clean( String html, Safelist safelist, String baseUri, boolean useCache, ParseLimits limits ) {
+		if ( html == null || html.isEmpty() ) {
+			return "";
+		}
+		CleanCache cache = CleanCache.getInstance();
+		if ( !useCache || !cache.isEnabled() || !limits.hasSameLimits( ParseLimits.getDefault() ) ) {
+			return clean( html, safelist, baseUri, limits );
+		}
+		limits.checkInputSize( html.length() );
+		// Plain text is returned as-is, caching it would only cost memory
+		if ( isPlainText( html ) ) {
+			return html;
+		}
+
+		String cleaned = cache.get( html, safelist, baseUri );
+		if ( cleaned == null ) {
+			cleaned = clean( html, safelist, baseUri, limits );
+			cache.put( html, safelist, baseUri, cleaned );
+		}
+		return cleaned;
+	}
+
+	/**
+	 * Clean an HTML fragment with a resolved safelist, without any caching.
+	 *
+	 * @param html     The HTML fragment to clean.
+	 * @param safelist The safelist to apply.
+	 * @param baseUri  The base URI to resolve relative links against.
+	 *
+	 * @return The cleaned HTML, or an empty string if the input is null or empty.
+	 */
+	public static String clean( String html, Safelist safelist, String baseUri ) {
+		return clean( html, safelist, baseUri, ParseLimits.getDefault() );
+	}
+
+	/**
+	 * Clean an HTML fragment with a resolved safelist within the given limits, without any caching.
+	 *
+	 * @param html     The HTML fragment to clean.
+	 * @param safelist The safelist to apply.
+	 * @param baseUri  The base URI to resolve relative links against.
+	 * @param limits   The limits to parse the fragment within.
+	 *
+	 * @return The cleaned HTML, or an empty string if the input is null or empty.
+	 *
+	 * @throws HtmlLimitException If the fragment goes over a limit.
+	 */
+	public static String clean( String html, Safelist safelist, String baseUri, ParseLimits limits ) {
+		if ( html == null || html.isEmpty() ) {
+			return "";
+		}
+		limits.checkInputSize( html.length() );
+		if ( isPlainText( html ) ) {
+			return html;
+		}
+		return clean( limits.parseBodyFragment( html, parseBaseUri( safelist, baseUri ) ), safelist );
+	}
+
+	/**
+	 * Clean the body of a parsed document, like an HTML file or stream parsed with {@link HtmlSource#parse(Object, String, String)}.
+	 * The document must have been parsed with the base URI returned by {@link #parseBaseUri(Safelist, String)}.
+	 *
+	 * @param dirty    The parsed document, it may be changed.
+	 * @param safelist The safelist to apply.
+	 *
+	 * @return The cleaned HTML of the body.
+	 */
+	public static String clean( Document dirty, Safelist safelist ) {
+		if ( isAlreadySafe( dirty.body(), safelist ) ) {
+			return dirty.body().html();
+		}
+		return SafelistRegistry.cleaner( safelist ).clean( dirty ).body().html();
+	}
+
+	/**
+	 * The base URI to parse dirty HTML with. When relative links are preserved without a base URI, they are resolved
+	 * against a placeholder so they pass the protocol checks of the safelist, like <code>Jsoup.clean()</code> does.
+	 * Preserved links are never rewritten, so the placeholder does not leak into the output.
+	 *
+	 * @param safelist The safelist to apply.
+	 * @param baseUri  The base URI given by the caller.
+	 *
+	 * @return The base URI to parse with.
+	 */
+	public static String parseBaseUri( Safelist safelist, String baseUri ) {
+		return baseUri.isEmpty() && safelist.preserveRelativeLinks() ? PLACEHOLDER_BASE_URI : baseUri;
+	}
+
+	/**
+	 * Whether a string would come out of the cleaner exactly as it went in, whatever the safelist: no markup, nothing
+	 * the serializer escapes and no whitespace it would trim or collapse.
+	 *
+	 * @param html The string to check.
+	 *
+	 * @return True if the string can be returned as-is.
+	 */
+	public static boolean isPlainText( String html ) {
+		int length = html.length();
+		if ( html.charAt( 0 ) == ' ' || html.charAt( length - 1 ) == ' ' ) {
+			return false;
+		}
+		char previous = 0;
+		for ( int i = 0; i < length; i++ ) {
+			char c = html.charAt( i );
+			switch ( c ) {
+				case '<', '>', '&', '\u00A0', '\u007F', '\uFEFF' :
+					return false;
+				case ' ' :
+					if ( previous == ' ' ) {
+						return false;
+					}
+					break;
+				default :
+					if ( c < 0x20 ) {
+						return false;
+					}
+					if ( Character.isHighSurrogate( c ) ) {
+						if ( i + 1 >= length || !Character.isLowSurrogate( html.charAt( i + 1 ) ) ) {
+							return false;
+						}
+						i++;
+					} else if ( Character.isLowSurrogate( c ) ) {
+						return false;
+					}
+			}
+			previous = c;
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the cleaner would copy an element's tag and attributes exactly as they are, so its start tag can be written
+	 * from the element itself. Children are not checked.
+	 *
+	 * @param element  The element to check.
+	 * @param safelist The safelist to apply.
+	 *
+	 * @return True if the element is a safe, known HTML element with only safe attributes, none of them rewritten, and no
+	 *         enforced ones.
+	 */
+	static boolean copiesUnchanged( Element element, Safelist safelist ) {
+		return isSafe( element, safelist, null );
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Checks that the cleaner would copy a parsed fragment unchanged, applying the attribute values the safelist
+	 * rewrites (relative links made absolute) only once the whole fragment is known to be safe.
+	 */
+	private static boolean isAlreadySafe( Element body, Safelist safelist ) {
+		SafetyCheck check = new SafetyCheck( safelist );
+		if ( NodeTraversor.filter( check, body ) == NodeFilter.FilterResult.STOP ) {
+			return false;
+		}
+		check.rewrites.forEach( rewrite -> rewrite.element().attr( rewrite.key(), rewrite.value() ) );
+		return true;
+	}
+
+	/**
+	 * Whether the cleaner keeps an element with its attributes, collecting the attribute values the safelist rewrites.
+	 * Without a list to collect them in, a rewritten value makes the element unsafe.
+	 */
+	private static boolean isSafe( Element element, Safelist safelist, List<Rewrite> rewrites ) {
+		String tagName = element.normalName();
+		if ( !element.tag().isKnown()
+		    || !Parser.NamespaceHtml.equals( element.tag().namespace() )
+		    || !safelist.isSafeTag( tagName )
+		    || hasEnforcedAttributes( safelist, tagName ) ) {
+			return false;
+		}
+		for ( Attribute attribute : element.attributes() ) {
+			// Checked on a detached copy, as the safelist may rewrite the value
+			Attribute copy = new Attribute( attribute.getKey(), attribute.getValue() );
+			if ( !safelist.isSafeAttribute( tagName, element, copy ) ) {
+				return false;
+			}
+			if ( !copy.getValue().equals( attribute.getValue() ) ) {
+				if ( rewrites == null ) {
+					return false;
+				}
+				rewrites.add( new Rewrite( element, copy.getKey(), copy.getValue() ) );
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the safelist adds enforced attributes to a tag. Jsoup does not expose them, so the answer comes from
+	 * cleaning an empty element once per safelist and tag.
+	 */
+	private static boolean hasEnforcedAttributes( Safelist safelist, String tagName ) {
+		Map<String, Boolean> tags;
+		synchronized ( ENFORCED_ATTRIBUTES ) {
+			tags = ENFORCED_ATTRIBUTES.computeIfAbsent( safelist, key -> new ConcurrentHashMap<>() );
+		}
+		return tags.computeIfAbsent( tagName, name -> {
+			Document probe = Document.createShell( "" );
+			probe.body().appendElement( name );
+			Element cleaned = SafelistRegistry.cleaner( safelist ).clean( probe ).body().firstElementChild();
+			return cleaned != null && cleaned.attributesSize() > 0;
+		} );
+	}
+
+	/**
+	 * An attribute value to set once the fragment is known to be safe
+	 */
+	private record Rewrite( Element element, String key, String value ) {
+	}
+
+	/**
+	 * Stops at the first node the cleaner would drop or change: anything but text and safe, known HTML elements with
+	 * safe attributes and no enforced ones.
+	 */
+	private static final class SafetyCheck implements NodeFilter {
+
+		private final Safelist		safelist;
+		private final List<Rewrite>	rewrites	= new ArrayList<>();
+
+		SafetyCheck( Safelist safelist ) {
+			this.safelist = safelist;
+		}
+
+		@Override
+		public FilterResult head( Node node, int depth ) {
+			// Exact classes only: CDATA sections and forms are subclasses the cleaner turns into plain nodes
+			if ( depth == 0 || node.getClass() == TextNode.class ) {
+				return FilterResult.CONTINUE;
+			}
+			if ( node.getClass() != Element.class ) {
+				return FilterResult.STOP;
+			}
+			return isSafe( ( Element ) node, this.safelist, this.rewrites ) ? FilterResult.CONTINUE : FilterResult.STOP;
+		}
+
+		@Override
+		public FilterResult tail( Node node, int depth ) {
+			return FilterResult.CONTINUE;
+		}
+
+	}
+
+}
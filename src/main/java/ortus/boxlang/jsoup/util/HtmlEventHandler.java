@@ -0,0 +1,83 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+
+/**
+ * Receives the SAX-style events produced by {@link HtmlEventStreamer}, in document order.
+ * Every method returns <code>true</code> to keep streaming or <code>false</code> to stop the parse right away.
+ */
+public interface HtmlEventHandler {
+
+	/**
+	 * An element was opened. Only its tag and attributes are reliable, its children are not streamed yet.
+	 *
+	 * @param element The element.
+	 *
+	 * @return False to stop streaming.
+	 */
+	default boolean startTag( Element element ) {
+		return true;
+	}
+
+	/**
+	 * An element was closed.
+	 *
+	 * @param element The element.
+	 *
+	 * @return False to stop streaming.
+	 */
+	default boolean endTag( Element element ) {
+		return true;
+	}
+
+	/**
+	 * A run of text, whitespace included, was read.
+	 *
+	 * @param text The text node.
+	 *
+	 * @return False to stop streaming.
+	 */
+	default boolean text( TextNode text ) {
+		return true;
+	}
+
+	/**
+	 * The raw contents of a <code>script</code> or <code>style</code> element were read.
+	 *
+	 * @param data The data node.
+	 *
+	 * @return False to stop streaming.
+	 */
+	default boolean data( DataNode data ) {
+		return true;
+	}
+
+	/**
+	 * A comment was read.
+	 *
+	 * @param comment The comment node.
+	 *
+	 * @return False to stop streaming.
+	 */
+	default boolean comment( Comment comment ) {
+		return true;
+	}
+
+}
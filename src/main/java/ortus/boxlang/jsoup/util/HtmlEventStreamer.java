@@ -0,0 +1,215 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+/**
+ * Turns Jsoup's {@link StreamParser} into a SAX-style stream of start-tag, end-tag, text, data and comment events.
+ * <p>
+ * The stream parser hands out elements once they are complete. At that point every open ancestor is started (if it
+ * was not yet), the text before the element is flushed, and the element is emitted and then removed from the DOM.
+ * Everything already emitted is dropped as parsing goes, so memory is bounded by the nesting depth of the document,
+ * not its size.
+ */
+public final class HtmlEventStreamer {
+
+	private final HtmlEventHandler	handler;
+
+	/**
+	 * The elements that were started but not ended yet, outermost first
+	 */
+	private final List<Element>		open	= new ArrayList<>();
+
+	private HtmlEventStreamer( HtmlEventHandler handler ) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Stream the events of an HTML document to a handler.
+	 *
+	 * @param input   The HTML to read. It is read incrementally and closed once done.
+	 * @param baseUri The base URI of the document, used to resolve relative links.
+	 * @param handler The handler receiving the events.
+	 *
+	 * @return True if the whole document was streamed, false if the handler stopped it early.
+	 */
+	public static boolean stream( Reader input, String baseUri, HtmlEventHandler handler ) {
+		return stream( input, baseUri, handler, ParseLimits.UNLIMITED );
+	}
+
+	/**
+	 * Stream the events of an HTML document to a handler within parse limits. Elements are checked against the limits
+	 * as they complete, before their events are emitted.
+	 *
+	 * @param input   The HTML to read. It is read incrementally and closed once done.
+	 * @param baseUri The base URI of the document, used to resolve relative links.
+	 * @param handler The handler receiving the events.
+	 * @param limits  The limits to parse within.
+	 *
+	 * @return True if the whole document was streamed, false if the handler stopped it early.
+	 *
+	 * @throws HtmlLimitException If a limit is exceeded.
+	 */
+	public static boolean stream( Reader input, String baseUri, HtmlEventHandler handler, ParseLimits limits ) {
+		HtmlEventStreamer	emitter	= new HtmlEventStreamer( handler );
+		ParseLimits.Guard	guard	= limits.isUnlimited() ? null : limits.guard();
+		try ( StreamParser streamer = new StreamParser( guard == null ? Parser.htmlParser() : guard.parser() ) ) {
+			streamer.parse( guard == null ? input : guard.wrap( input ), baseUri );
+			Iterator<Element> elements = streamer.stream().iterator();
+			while ( elements.hasNext() ) {
+				Element element = elements.next();
+				if ( guard != null ) {
+					guard.completed( element );
+				}
+				if ( !emitter.completed( element ) ) {
+					streamer.stop();
+					return false;
+				}
+			}
+			// Trailing nodes outside of the root element, like comments after </html>
+			return emitter.flush( streamer.document(), null );
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Handles an element the parser has completed: emits it with anything still pending before it, then drops it.
+	 * The stream ends with the document itself, which only has its trailing nodes left to emit.
+	 */
+	private boolean completed( Element element ) {
+		if ( element instanceof Document document ) {
+			return flush( document, null );
+		}
+		if ( !startAncestors( element ) ) {
+			return false;
+		}
+		if ( top() != element && !start( element ) ) {
+			return false;
+		}
+		if ( !flush( element, null ) ) {
+			return false;
+		}
+		this.open.remove( this.open.size() - 1 );
+		boolean keepGoing = this.handler.endTag( element );
+		element.remove();
+		return keepGoing;
+	}
+
+	/**
+	 * Makes sure all the ancestors of the element are started, ending any started element that is not one of them.
+	 */
+	private boolean startAncestors( Element element ) {
+		Element top = top();
+		if ( top != null && ( top == element || top == element.parent() ) ) {
+			return true;
+		}
+
+		// The chain from the outermost ancestor down to the element itself
+		List<Element> chain = new ArrayList<>();
+		for ( Element node = element; node != null && ! ( node instanceof Document ); node = node.parent() ) {
+			chain.add( 0, node );
+		}
+
+		// Keep what is already started, end whatever the parser moved elsewhere (mis-nested markup)
+		int common = 0;
+		while ( common < chain.size() && common < this.open.size() && this.open.get( common ) == chain.get( common ) ) {
+			common++;
+		}
+		while ( this.open.size() > common ) {
+			if ( !this.handler.endTag( this.open.remove( this.open.size() - 1 ) ) ) {
+				return false;
+			}
+		}
+
+		// Start the missing ancestors, the element itself is left to the caller
+		for ( int i = common; i < chain.size() - 1; i++ ) {
+			if ( !start( chain.get( i ) ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Emits the nodes pending before the element in its parent, then the element's start tag.
+	 */
+	private boolean start( Element element ) {
+		if ( element.parent() != null && !flush( element.parent(), element ) ) {
+			return false;
+		}
+		this.open.add( element );
+		return this.handler.startTag( element );
+	}
+
+	/**
+	 * Emits and removes the non-element children of a node, up to the given child (or all of them if null).
+	 * Child elements are left alone, they are emitted when the parser completes them.
+	 */
+	private boolean flush( Node parent, Node upTo ) {
+		int index = 0;
+		while ( index < parent.childNodeSize() ) {
+			Node child = parent.childNode( index );
+			if ( child == upTo ) {
+				break;
+			}
+			if ( child instanceof Element ) {
+				index++;
+				continue;
+			}
+			if ( !emit( child ) ) {
+				return false;
+			}
+			child.remove();
+		}
+		return true;
+	}
+
+	private boolean emit( Node node ) {
+		if ( node instanceof TextNode text ) {
+			return this.handler.text( text );
+		}
+		if ( node instanceof DataNode data ) {
+			return this.handler.data( data );
+		}
+		if ( node instanceof Comment comment ) {
+			return this.handler.comment( comment );
+		}
+		// Doctypes and XML declarations carry no content
+		return true;
+	}
+
+	private Element top() {
+		return this.open.isEmpty() ? null : this.open.get( this.open.size() - 1 );
+	}
+
+}
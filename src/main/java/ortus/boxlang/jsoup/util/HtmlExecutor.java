@@ -0,0 +1,293 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import ortus.boxlang.runtime.async.BoxFuture;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * The module-wide executor the <code>*Async</code> BIFs run their parses and cleans on, so they never block the
+ * request thread.
+ * <p>
+ * By default every task runs on its own virtual thread, <code>maxConcurrent</code> capping how many run at the same
+ * time. Without virtual threads, tasks run on a fixed pool of <code>maxConcurrent</code> platform threads instead. Tasks
+ * waiting for their turn are queued, and the queued and active counts are reported by {@link #stats()} for capacity
+ * planning. Both are configured through the <code>async</code> module setting.
+ * <p>
+ * Cancelling a returned future interrupts the thread running its task, which the parse notices through
+ * {@link ParseLimits#interruptible() interruptible limits}. A task cancelled while still queued never runs.
+ * <p>
+ * Closing an executor stops it taking tasks, and waits for those already submitted to end.
+ */
+public final class HtmlExecutor implements AutoCloseable {
+
+	private static volatile HtmlExecutor	instance;
+
+	private final boolean					virtualThreads;
+	private final int						maxConcurrent;
+	private final ExecutorService			executor;
+
+	/**
+	 * Caps the tasks running on virtual threads, null when unbounded or on platform threads
+	 */
+	private final Semaphore					permits;
+
+	private final AtomicInteger				queued		= new AtomicInteger();
+	private final AtomicInteger				active		= new AtomicInteger();
+	private final LongAdder					completed	= new LongAdder();
+	private final LongAdder					failed		= new LongAdder();
+	private final LongAdder					cancelled	= new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param virtualThreads Whether each task runs on its own virtual thread, rather than on a pool of platform threads.
+	 * @param maxConcurrent  The maximum number of tasks running at the same time. 0 means unbounded on virtual threads, and as many as
+	 *                       the available processors on platform threads.
+	 */
+	public HtmlExecutor( boolean virtualThreads, int maxConcurrent ) {
+		this.virtualThreads = virtualThreads;
+		if ( virtualThreads ) {
+			this.maxConcurrent	= Math.max( 0, maxConcurrent );
+			this.permits		= this.maxConcurrent > 0 ? new Semaphore( this.maxConcurrent ) : null;
+			this.executor		= Executors.newThreadPerTaskExecutor( Thread.ofVirtual().name( "bx-jsoup-async-", 0 ).factory() );
+		} else {
+			this.maxConcurrent	= maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+			this.permits		= null;
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(
+			    this.maxConcurrent,
+			    this.maxConcurrent,
+			    60,
+			    TimeUnit.SECONDS,
+			    new LinkedBlockingQueue<>(),
+			    Thread.ofPlatform().name( "bx-jsoup-async-", 0 ).daemon().factory()
+			);
+			pool.allowCoreThreadTimeOut( true );
+			this.executor = pool;
+		}
+	}
+
+	/**
+	 * Get the executor, configuring it from the module settings on first use.
+	 *
+	 * @return The shared executor.
+	 */
+	public static HtmlExecutor getInstance() {
+		HtmlExecutor executor = instance;
+		if ( executor == null ) {
+			synchronized ( HtmlExecutor.class ) {
+				executor = instance;
+				if ( executor == null ) {
+					executor	= fromSettings();
+					instance	= executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Replace the executor with one configured from the current module settings. The tasks of the previous executor
+	 * still run to their end.
+	 *
+	 * @return The new executor.
+	 */
+	public static synchronized HtmlExecutor reload() {
+		HtmlExecutor previous = instance;
+		instance = fromSettings();
+		if ( previous != null ) {
+			previous.shutdown();
+		}
+		return instance;
+	}
+
+	/**
+	 * Stop the shared executor, when the module unloads. Running and queued tasks still complete.
+	 */
+	public static synchronized void shutdownInstance() {
+		if ( instance != null ) {
+			instance.shutdown();
+			instance = null;
+		}
+	}
+
+	/**
+	 * Run a task in the background.
+	 *
+	 * @param task The task to run. It must be thread-safe, and may be interrupted when the future is cancelled.
+	 *
+	 * @return A future completed with the result of the task, or its failure. Cancelling it interrupts the task.
+	 */
+	public <T> BoxFuture<T> submit( Supplier<T> task ) {
+		Task<T> future = new Task<>( task );
+		this.queued.incrementAndGet();
+		try {
+			future.running = this.executor.submit( future::run );
+		} catch ( RuntimeException e ) {
+			// Rejected, the executor is shut down
+			this.queued.decrementAndGet();
+			this.failed.increment();
+			future.completeExceptionally( e );
+		}
+		return future;
+	}
+
+	/**
+	 * Stop taking tasks, and wait for the running and queued ones to end.
+	 */
+	@Override
+	public void close() {
+		this.executor.close();
+	}
+
+	public boolean isVirtualThreads() {
+		return this.virtualThreads;
+	}
+
+	public int getMaxConcurrent() {
+		return this.maxConcurrent;
+	}
+
+	public int getQueued() {
+		return this.queued.get();
+	}
+
+	public int getActive() {
+		return this.active.get();
+	}
+
+	/**
+	 * Get a snapshot of the executor statistics.
+	 *
+	 * @return A struct with the <code>virtualThreads</code> flag, the <code>maxConcurrent</code> tasks (0 for unbounded), the tasks
+	 *         <code>queued</code> and <code>active</code> right now, and the tasks <code>completed</code>, <code>failed</code> and
+	 *         <code>cancelled</code> so far.
+	 */
+	public IStruct stats() {
+		return Struct.of(
+		    KeyDictionary.virtualThreads, this.virtualThreads,
+		    KeyDictionary.maxConcurrent, this.maxConcurrent,
+		    KeyDictionary.queued, getQueued(),
+		    KeyDictionary.active, getActive(),
+		    KeyDictionary.completed, this.completed.sum(),
+		    KeyDictionary.failed, this.failed.sum(),
+		    KeyDictionary.cancelled, this.cancelled.sum()
+		);
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private void shutdown() {
+		this.executor.shutdown();
+	}
+
+	private static HtmlExecutor fromSettings() {
+		IStruct settings = ModuleSettings.getStruct( KeyDictionary.async );
+		return new HtmlExecutor(
+		    ModuleSettings.getBoolean( settings, KeyDictionary.virtualThreads, true ),
+		    ( int ) ModuleSettings.getLong( settings, KeyDictionary.maxConcurrent, 0 )
+		);
+	}
+
+	/**
+	 * A background task and the future of its result. Whoever starts it first, the executor or a cancellation, wins.
+	 */
+	private final class Task<T> extends BoxFuture<T> {
+
+		private final Supplier<T>	task;
+		private final AtomicBoolean	started	= new AtomicBoolean();
+		private volatile Future<?>	running;
+
+		private Task( Supplier<T> task ) {
+			this.task = task;
+		}
+
+		private void run() {
+			if ( !this.started.compareAndSet( false, true ) ) {
+				// Cancelled while queued
+				return;
+			}
+			boolean	waiting		= true;
+			boolean	acquired	= false;
+			try {
+				if ( permits != null ) {
+					permits.acquire();
+					acquired = true;
+				}
+				queued.decrementAndGet();
+				waiting = false;
+				active.incrementAndGet();
+				try {
+					T result = this.task.get();
+					if ( complete( result ) ) {
+						completed.increment();
+					}
+				} finally {
+					active.decrementAndGet();
+				}
+			} catch ( InterruptedException | CancellationException e ) {
+				// Cancelled while waiting for a permit or while running
+				completeExceptionally( e instanceof CancellationException ? e : new CancellationException( "The HTML task was cancelled" ) );
+			} catch ( RuntimeException | Error e ) {
+				if ( completeExceptionally( e ) ) {
+					failed.increment();
+				}
+			} finally {
+				if ( waiting ) {
+					queued.decrementAndGet();
+				}
+				if ( acquired ) {
+					permits.release();
+				}
+			}
+		}
+
+		@Override
+		public boolean cancel( boolean mayInterruptIfRunning ) {
+			boolean cancelledNow = super.cancel( mayInterruptIfRunning );
+			if ( cancelledNow ) {
+				cancelled.increment();
+				if ( this.started.compareAndSet( false, true ) ) {
+					// Never ran, it leaves the queue right away
+					queued.decrementAndGet();
+				} else if ( this.running != null ) {
+					// Interrupts the thread running the task, the parse checks it as it goes
+					this.running.cancel( true );
+				}
+			}
+			return cancelledNow;
+		}
+
+	}
+
+}
@@ -0,0 +1,52 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * Thrown when an HTML input or document goes over one of the module limits, see {@link ParseLimits} and
+ * {@link TraversalLimits}. BoxLang code can catch it by its type, <code>HtmlLimitException</code>.
+ */
+public class HtmlLimitException extends BoxRuntimeException {
+
+	private static final long	serialVersionUID	= 1L;
+
+	/**
+	 * The type BoxLang code catches these exceptions by
+	 */
+	public static final String	TYPE				= "HtmlLimitException";
+
+	/**
+	 * The name of the limit that was exceeded, like <code>maxNodes</code>
+	 */
+	private final String		limit;
+
+	/**
+	 * Constructor
+	 *
+	 * @param limit   The name of the limit that was exceeded.
+	 * @param message The message describing what was exceeded.
+	 */
+	public HtmlLimitException( String limit, String message ) {
+		super( message, "The exceeded limit is [" + limit + "]", TYPE, null, null );
+		this.limit = limit;
+	}
+
+	public String getLimit() {
+		return this.limit;
+	}
+
+}
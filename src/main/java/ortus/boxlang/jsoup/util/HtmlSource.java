@@ -0,0 +1,222 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+import ortus.boxlang.runtime.util.FileSystemUtil;
+
+/**
+ * Resolves the different kinds of HTML sources the BIFs accept into something Jsoup can read incrementally.
+ * <p>
+ * Byte based sources are always decoded by Jsoup as it parses, so large files and HTTP bodies are never turned into a
+ * full-size Java string first.
+ */
+public final class HtmlSource {
+
+	private HtmlSource() {
+	}
+
+	/**
+	 * Open a reader over a resolved HTML source, see {@link #resolve(IBoxContext, Object, String)}. Strings are always
+	 * read as the HTML itself, never as a file path.
+	 *
+	 * @param source  The HTML source: a string, a <code>byte[]</code>, a stream, a reader, a file or a path.
+	 * @param charset The charset of byte based sources.
+	 *
+	 * @return A reader over the HTML.
+	 */
+	public static Reader reader( Object source, Charset charset ) {
+		if ( source instanceof Reader reader ) {
+			return reader;
+		}
+		if ( source instanceof InputStream stream ) {
+			return new InputStreamReader( stream, charset );
+		}
+		if ( source instanceof byte[] bytes ) {
+			return new InputStreamReader( new ByteArrayInputStream( bytes ), charset );
+		}
+		if ( source instanceof File file ) {
+			return fileReader( file.toPath(), charset );
+		}
+		if ( source instanceof Path path ) {
+			return fileReader( path, charset );
+		}
+
+		return new StringReader( StringCaster.cast( source ) );
+	}
+
+	/**
+	 * Resolve the source of a BIF taking either an <code>html</code> or a <code>file</code> argument. Strings given as
+	 * <code>html</code> are always the HTML itself, only the <code>file</code> argument is ever read from disk.
+	 *
+	 * @param context The context used to expand relative file paths.
+	 * @param html    The value of the <code>html</code> argument: a string, a <code>byte[]</code>, a stream, a reader, a file or a path.
+	 * @param file    The value of the <code>file</code> argument, a file path, or null or empty if not given.
+	 *
+	 * @return The source to parse.
+	 *
+	 * @throws BoxRuntimeException If neither argument is given, or the file does not exist.
+	 */
+	public static Object resolve( IBoxContext context, Object html, String file ) {
+		if ( file != null && !file.isEmpty() ) {
+			Path path = existingFile( context, file );
+			if ( path == null ) {
+				throw new BoxRuntimeException( "The HTML file [" + file + "] does not exist" );
+			}
+			return path;
+		}
+		if ( html == null ) {
+			throw new BoxRuntimeException( "Either the HTML or the [file] argument is required" );
+		}
+		return html;
+	}
+
+	/**
+	 * Whether a source is read from bytes or characters rather than given as a string.
+	 *
+	 * @param source The HTML source.
+	 *
+	 * @return True for <code>byte[]</code>, streams, readers, files and paths.
+	 */
+	public static boolean isStreamed( Object source ) {
+		return source instanceof byte[] || source instanceof InputStream || source instanceof Reader || source instanceof File || source instanceof Path;
+	}
+
+	/**
+	 * Parse an HTML source into a Jsoup document, decoding byte based sources as they are parsed.
+	 * <p>
+	 * Without a charset, the charset of byte based sources is detected from their byte order mark, then from their
+	 * <code>&lt;meta charset&gt;</code> or <code>http-equiv</code> declaration, falling back to UTF-8. A byte order mark
+	 * always wins over the given charset. Files are read through an NIO channel and streams are read to their end.
+	 *
+	 * The <code>parseLimits</code> configured in the module settings apply.
+	 *
+	 * @param source      The HTML source, see {@link #isStreamed(Object)}. Anything else is cast to a string of HTML.
+	 * @param charsetName The charset of byte based sources, or null or empty to detect it.
+	 * @param baseUri     The base URI of the document, used to resolve relative links.
+	 *
+	 * @return The parsed document.
+	 *
+	 * @throws BoxRuntimeException If the source cannot be read.
+	 * @throws HtmlLimitException  If the source goes over a limit.
+	 */
+	public static Document parse( Object source, String charsetName, String baseUri ) {
+		return parse( source, charsetName, baseUri, ParseLimits.getDefault() );
+	}
+
+	/**
+	 * Parse an HTML source into a Jsoup document within the given limits, decoding byte based sources as they are parsed.
+	 * The size of byte arrays and files is checked before reading them.
+	 *
+	 * @param source      The HTML source, see {@link #isStreamed(Object)}. Anything else is cast to a string of HTML.
+	 * @param charsetName The charset of byte based sources, or null or empty to detect it.
+	 * @param baseUri     The base URI of the document, used to resolve relative links.
+	 * @param limits      The limits to parse within.
+	 *
+	 * @return The parsed document.
+	 *
+	 * @throws BoxRuntimeException If the source cannot be read.
+	 * @throws HtmlLimitException  If the source goes over a limit.
+	 */
+	public static Document parse( Object source, String charsetName, String baseUri, ParseLimits limits ) {
+		String charset = charsetName == null || charsetName.isBlank() ? null : charsetName;
+		try {
+			if ( source instanceof byte[] bytes ) {
+				limits.checkInputSize( bytes.length );
+				return limits.parse( new ByteArrayInputStream( bytes ), charset, baseUri );
+			}
+			if ( source instanceof InputStream stream ) {
+				return limits.parse( stream, charset, baseUri );
+			}
+			if ( source instanceof File file ) {
+				return parse( file.toPath(), charset, baseUri, limits );
+			}
+			if ( source instanceof Path path ) {
+				if ( limits.isUnlimited() ) {
+					return Jsoup.parse( path, charset, baseUri );
+				}
+				limits.checkInputSize( Files.size( path ) );
+				try ( InputStream stream = Files.newInputStream( path ) ) {
+					return limits.parse( stream, charset, baseUri );
+				}
+			}
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Unable to read the HTML source", e );
+		}
+		if ( source instanceof Reader reader ) {
+			return limits.parse( reader, baseUri );
+		}
+		return limits.parse( StringCaster.cast( source ), baseUri );
+	}
+
+	/**
+	 * Open a reader over a file through a file channel. Malformed input is replaced rather than failing the parse.
+	 *
+	 * @param path    The file to read.
+	 * @param charset The charset of the file.
+	 *
+	 * @return A reader over the file.
+	 */
+	public static Reader fileReader( Path path, Charset charset ) {
+		try {
+			return Channels.newReader(
+			    FileChannel.open( path, StandardOpenOption.READ ),
+			    charset.newDecoder().onMalformedInput( CodingErrorAction.REPLACE ).onUnmappableCharacter( CodingErrorAction.REPLACE ),
+			    -1
+			);
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Unable to read the HTML file [" + path + "]", e );
+		}
+	}
+
+	/**
+	 * Resolve a file argument to an existing file.
+	 *
+	 * @param context The context used to expand relative file paths.
+	 * @param value   The file path.
+	 *
+	 * @return The absolute path of the file, or null if it is not an existing file.
+	 */
+	private static Path existingFile( IBoxContext context, String value ) {
+		try {
+			Path path = FileSystemUtil.expandPath( context, value.trim() ).absolutePath();
+			return Files.isRegularFile( path ) ? path : null;
+		} catch ( RuntimeException e ) {
+			// Not a valid path on this file system
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,504 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jsoup.nodes.CDataNode;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.parser.Tag;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * Extracts the text of HTML with the same whitespace rules as Jsoup's {@link Element#text()}: runs of whitespace
+ * collapse to a single space, block elements and <code>br</code> separate their text from the text around them, and
+ * <code>pre</code>, <code>textarea</code> and <code>title</code> keep their whitespace as-is.
+ * <p>
+ * HTML sources are parsed by Jsoup's {@link StreamParser}, so the tree is the one a full parse builds, implied and
+ * misplaced tags included. Each element is turned into text as soon as it is complete and dropped, so only the open
+ * elements are kept in memory. Table content is the exception: the parser can still move content before an open table,
+ * so a table is turned into text once it is complete as a whole.
+ * <p>
+ * Options can put block elements and <code>br</code> on their own lines instead of separating them with a space, keep
+ * the content of <code>script</code> and <code>style</code> elements, and stop reading once enough text was extracted.
+ */
+public final class HtmlTextExtractor {
+
+	private final boolean	lineBreaks;
+	private final boolean	skipScripts;
+	private final int		maxLength;
+
+	/**
+	 * Constructor
+	 *
+	 * @param lineBreaks  Whether block elements and <code>br</code> start new lines, rather than being separated by a space.
+	 * @param skipScripts Whether the content of <code>script</code> and <code>style</code> elements is left out, like Jsoup does.
+	 * @param maxLength   The maximum length of the text, reading stops once it is reached. 0 for unlimited.
+	 */
+	public HtmlTextExtractor( boolean lineBreaks, boolean skipScripts, int maxLength ) {
+		this.lineBreaks		= lineBreaks;
+		this.skipScripts	= skipScripts;
+		this.maxLength		= Math.max( 0, maxLength );
+	}
+
+	/**
+	 * Extract the text of an HTML string.
+	 *
+	 * @param html The HTML.
+	 *
+	 * @return The text, trimmed.
+	 */
+	public String extract( String html ) {
+		// The text is shorter than its HTML, usually much shorter
+		return stream( new StringReader( html ), html.length() / 2 );
+	}
+
+	/**
+	 * Extract the text of HTML read from a reader. The reader is read up to the end, or until the maximum length is reached,
+	 * and closed.
+	 *
+	 * @param input The HTML to read.
+	 *
+	 * @return The text, trimmed.
+	 */
+	public String extract( Reader input ) {
+		try ( Reader reader = input ) {
+			return stream( reader, 8192 );
+		} catch ( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	/**
+	 * Extract the text of a parsed element. With the default options, this is the same as {@link Element#text()}.
+	 *
+	 * @param element The element.
+	 *
+	 * @return The text, trimmed.
+	 */
+	public String extract( Element element ) {
+		Text text = new Text( 256 );
+		text.tree( element );
+		return text.result();
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private String stream( Reader input, int capacity ) {
+		Text		text		= new Text( capacity );
+		Streamed	streamed	= new Streamed( text );
+		try ( StreamParser streamer = new StreamParser( Parser.htmlParser() ) ) {
+			streamer.parse( input, "" );
+			Iterator<Element> elements = streamer.stream().iterator();
+			while ( elements.hasNext() ) {
+				Element element = elements.next();
+				if ( element instanceof Document ) {
+					// The stream ends with the document itself, only its trailing nodes are left
+					break;
+				}
+				if ( !streamed.completed( element ) ) {
+					streamer.stop();
+					return text.result();
+				}
+			}
+			streamed.finish( streamer.document() );
+		}
+		return text.result();
+	}
+
+	/**
+	 * Same as Jsoup: whitespace is kept in elements that preserve it, and up to five levels below them
+	 */
+	private static boolean preserveWhitespace( Node node ) {
+		int i = 0;
+		for ( Node current = node; current instanceof Element element && i < 6; current = current.parentNode(), i++ ) {
+			if ( element.tag().preserveWhitespace() ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isWhitespace( char c ) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+	}
+
+	/**
+	 * Whether an element is inside a table still being parsed
+	 */
+	private static boolean isInsideTable( Element element ) {
+		for ( Element parent = element.parent(); parent != null; parent = parent.parent() ) {
+			if ( parent.normalName().equals( "table" ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The text being extracted, following the rules of {@link Element#text()}: a block element or <code>br</code> is
+	 * preceded by a separator, and a block element is followed by one when its next sibling is text or an inline element.
+	 * The next sibling is only known once the next node comes, so the trailing separator waits for it.
+	 */
+	private final class Text {
+
+		private final char	separator;
+		private char[]		accum;
+		private int			length;
+		private boolean		pendingSeparator;
+
+		private Text( int capacity ) {
+			this.separator	= lineBreaks ? '\n' : ' ';
+			this.accum		= new char[ Math.max( 16, maxLength > 0 ? Math.min( capacity, maxLength + 16 ) : capacity ) ];
+		}
+
+		/**
+		 * Appends the text of a node and everything below it, in document order
+		 */
+		private void tree( Node root ) {
+			NodeTraversor.filter( new NodeFilter() {
+
+				@Override
+				public FilterResult head( Node node, int depth ) {
+					if ( node instanceof Element element ) {
+						start( element.tag() );
+					} else {
+						node( node );
+					}
+					return isFull() ? FilterResult.STOP : FilterResult.CONTINUE;
+				}
+
+				@Override
+				public FilterResult tail( Node node, int depth ) {
+					if ( node instanceof Element element ) {
+						end( element.tag() );
+					}
+					return FilterResult.CONTINUE;
+				}
+			}, root );
+		}
+
+		/**
+		 * Appends the text of any node that is not an element
+		 */
+		private void node( Node node ) {
+			if ( node instanceof TextNode textNode ) {
+				// CData nodes are text nodes too, always kept as-is
+				text( textNode.getWholeText(), textNode instanceof CDataNode || preserveWhitespace( node.parentNode() ) );
+			} else if ( node instanceof DataNode dataNode ) {
+				if ( !skipScripts ) {
+					text( dataNode.getWholeData(), false );
+				}
+			} else {
+				other();
+			}
+		}
+
+		private void start( Tag tag ) {
+			if ( this.pendingSeparator && !tag.formatAsBlock() ) {
+				separate();
+			}
+			this.pendingSeparator = false;
+			if ( tag.isBlock() || "br".equals( tag.normalName() ) ) {
+				separate();
+			}
+		}
+
+		private void end( Tag tag ) {
+			// A pending separator here means the ended child was the last one
+			this.pendingSeparator = tag.isBlock();
+		}
+
+		/**
+		 * Appends text, its whitespace normalized unless preserved
+		 */
+		private void text( String text, boolean preserve ) {
+			if ( text.isEmpty() ) {
+				return;
+			}
+			if ( this.pendingSeparator ) {
+				separate();
+				this.pendingSeparator = false;
+			}
+			if ( preserve ) {
+				append( text, 0, text.length() );
+			} else {
+				appendNormalised( text );
+			}
+		}
+
+		/**
+		 * Normalizes whitespace like <code>StringUtil.appendNormalisedWhitespace()</code>: whitespace runs become a single
+		 * space, dropped after a separator, and soft hyphens and zero width spaces are left out.
+		 */
+		private void appendNormalised( String text ) {
+			boolean	lastWasWhite	= endsWithSeparator();
+			int		end				= text.length();
+			int		run				= 0;
+			for ( int i = 0; i < end; i++ ) {
+				char c = text.charAt( i );
+				if ( c > ' ' ) {
+					if ( c != 160 && c != 173 && c != 8203 ) {
+						lastWasWhite = false;
+						continue;
+					}
+				} else if ( c == ' ' && !lastWasWhite ) {
+					// Kept as-is, the run of characters copied goes on
+					lastWasWhite = true;
+					continue;
+				} else if ( !isWhitespace( c ) ) {
+					lastWasWhite = false;
+					continue;
+				}
+				if ( i > run ) {
+					append( text, run, i );
+				}
+				run = i + 1;
+				if ( c != 173 && c != 8203 && !lastWasWhite ) {
+					append( ' ' );
+					lastWasWhite = true;
+				}
+			}
+			if ( end > run ) {
+				append( text, run, end );
+			}
+		}
+
+		/**
+		 * Any other node: comments, doctypes. They are never text, but they are a next sibling all the same.
+		 */
+		private void other() {
+			this.pendingSeparator = false;
+		}
+
+		private void separate() {
+			if ( this.length == 0 ) {
+				return;
+			}
+			if ( lineBreaks && this.accum[ this.length - 1 ] == ' ' ) {
+				// The line break replaces the space the text ended with
+				this.accum[ this.length - 1 ] = '\n';
+			} else if ( !endsWithSeparator() ) {
+				append( this.separator );
+			}
+		}
+
+		/**
+		 * Whether the text ends with a space, or a line break when blocks start new lines
+		 */
+		private boolean endsWithSeparator() {
+			if ( this.length == 0 ) {
+				return false;
+			}
+			char last = this.accum[ this.length - 1 ];
+			return last == ' ' || ( lineBreaks && last == '\n' );
+		}
+
+		/**
+		 * Whether more than the maximum length is extracted, leading whitespace aside: the text is then known up to its cut
+		 */
+		private boolean isFull() {
+			return maxLength > 0 && this.length - leadingWhitespace() > maxLength;
+		}
+
+		/**
+		 * The text trimmed like Jsoup does, then cut to the maximum length without splitting a surrogate pair
+		 */
+		private String result() {
+			int	start	= leadingWhitespace();
+			int	end		= this.length;
+			if ( maxLength > 0 && end - start > maxLength ) {
+				end = start + maxLength;
+				if ( Character.isHighSurrogate( this.accum[ end - 1 ] ) ) {
+					end--;
+				}
+			}
+			while ( end > start && this.accum[ end - 1 ] <= ' ' ) {
+				end--;
+			}
+			return new String( this.accum, start, end - start );
+		}
+
+		private int leadingWhitespace() {
+			int start = 0;
+			while ( start < this.length && this.accum[ start ] <= ' ' ) {
+				start++;
+			}
+			return start;
+		}
+
+		private void append( char c ) {
+			if ( this.length == this.accum.length ) {
+				this.accum = Arrays.copyOf( this.accum, this.length * 2 );
+			}
+			this.accum[ this.length++ ] = c;
+		}
+
+		private void append( String text, int start, int end ) {
+			int count = end - start;
+			if ( this.length + count > this.accum.length ) {
+				this.accum = Arrays.copyOf( this.accum, Math.max( this.length * 2, this.length + count ) );
+			}
+			text.getChars( start, end, this.accum, this.length );
+			this.length += count;
+		}
+	}
+
+	/**
+	 * Feeds the elements completed by the stream parser to the text in document order, then drops them. The elements
+	 * started but not ended yet are tracked, to start the ancestors of a completed element and end the ones the parser
+	 * moved elsewhere.
+	 */
+	private static final class Streamed {
+
+		private final Text			text;
+
+		/**
+		 * The elements that were started but not ended yet, outermost first
+		 */
+		private final List<Element>	open	= new ArrayList<>();
+
+		private Streamed( Text text ) {
+			this.text = text;
+		}
+
+		/**
+		 * Handles an element the parser has completed, unless it is inside a table: the table is handled as a whole.
+		 *
+		 * @return False once the text is full.
+		 */
+		private boolean completed( Element element ) {
+			if ( isInsideTable( element ) ) {
+				return true;
+			}
+			startAncestors( element );
+			if ( top() != element ) {
+				start( element );
+			}
+			// Its text and any element left in it, which is only ever the content of a table
+			for ( Node child : element.childNodes() ) {
+				if ( child instanceof Element ) {
+					this.text.tree( child );
+				} else {
+					this.text.node( child );
+				}
+			}
+			this.open.remove( this.open.size() - 1 );
+			this.text.end( element.tag() );
+			if ( element.normalName().equals( "head" ) ) {
+				// The parser goes back into the head for head content written after it
+				element.empty();
+			} else {
+				element.remove();
+			}
+			return !this.text.isFull();
+		}
+
+		/**
+		 * Ends the elements still open and appends the trailing nodes of the document, like comments after
+		 * <code>&lt;/html&gt;</code>.
+		 */
+		private void finish( Document document ) {
+			while ( !this.open.isEmpty() ) {
+				this.text.end( this.open.remove( this.open.size() - 1 ).tag() );
+			}
+			flush( document, null );
+		}
+
+		/**
+		 * Makes sure all the ancestors of the element are started, ending any started element that is not one of them.
+		 */
+		private void startAncestors( Element element ) {
+			Element top = top();
+			if ( top != null && ( top == element || top == element.parent() ) ) {
+				return;
+			}
+
+			// The chain from the outermost ancestor down to the element itself
+			List<Element> chain = new ArrayList<>();
+			for ( Element node = element; node != null && ! ( node instanceof Document ); node = node.parent() ) {
+				chain.add( 0, node );
+			}
+
+			// Keep what is already started, end whatever the parser moved elsewhere (mis-nested markup)
+			int common = 0;
+			while ( common < chain.size() && common < this.open.size() && this.open.get( common ) == chain.get( common ) ) {
+				common++;
+			}
+			while ( this.open.size() > common ) {
+				this.text.end( this.open.remove( this.open.size() - 1 ).tag() );
+			}
+
+			// Start the missing ancestors, the element itself is left to the caller
+			for ( int i = common; i < chain.size() - 1; i++ ) {
+				start( chain.get( i ) );
+			}
+		}
+
+		/**
+		 * Appends the nodes pending before the element in its parent, then starts the element.
+		 */
+		private void start( Element element ) {
+			if ( element.parent() != null ) {
+				flush( element.parent(), element );
+			}
+			this.open.add( element );
+			this.text.start( element.tag() );
+		}
+
+		/**
+		 * Appends and removes the nodes of a parent that are not elements, up to the given child (or all of them if null).
+		 * Child elements are left alone, they are appended when the parser completes them.
+		 */
+		private void flush( Node parent, Node upTo ) {
+			int index = 0;
+			while ( index < parent.childNodeSize() ) {
+				Node child = parent.childNode( index );
+				if ( child == upTo ) {
+					break;
+				}
+				if ( child instanceof Element ) {
+					index++;
+					continue;
+				}
+				this.text.node( child );
+				child.remove();
+			}
+		}
+
+		private Element top() {
+			return this.open.isEmpty() ? null : this.open.get( this.open.size() - 1 );
+		}
+	}
+
+}
@@ -29,5 +29,114 @@ public class KeyDictionary {
 	public static final Key	safeList				= Key.of( "safeList" );
 	public static final Key	preserveRelativeLinks	= Key.of( "preserveRelativeLinks" );
 	public static final Key	baseUri					= Key.of( "baseUri" );
+	public static final Key	source					= Key.of( "source" );
+	public static final Key	handlers				= Key.of( "handlers" );
+	public static final Key	charset					= Key.of( "charset" );
+	public static final Key	onStartTag				= Key.of( "onStartTag" );
+	public static final Key	onEndTag				= Key.of( "onEndTag" );
+	public static final Key	onText					= Key.of( "onText" );
+	public static final Key	onComment				= Key.of( "onComment" );
+	public static final Key	selector				= Key.of( "selector" );
+	public static final Key	limit					= Key.of( "limit" );
+	public static final Key	items					= Key.of( "items" );
+	public static final Key	column					= Key.of( "column" );
+	public static final Key	parallelism				= Key.of( "parallelism" );
+	public static final Key	errors					= Key.of( "errors" );
+	public static final Key	results					= Key.of( "results" );
+	public static final Key	index					= Key.of( "index" );
+	public static final Key	message					= Key.of( "message" );
+	public static final Key	type					= Key.of( "type" );
+	public static final Key	cache					= Key.of( "cache" );
+	public static final Key	file					= Key.of( "file" );
+	public static final Key	htmlClean				= Key.of( "htmlClean" );
+	public static final Key	htmlCleanAll			= Key.of( "htmlCleanAll" );
+	public static final Key	htmlParseAll			= Key.of( "htmlParseAll" );
+	public static final Key	htmlParseAsync			= Key.of( "htmlParseAsync" );
+	public static final Key	htmlCleanAsync			= Key.of( "htmlCleanAsync" );
+	public static final Key	reset					= Key.of( "reset" );
+	public static final Key	options					= Key.of( "options" );
+	public static final Key	header					= Key.of( "header" );
+	public static final Key	columns					= Key.of( "columns" );
+	public static final Key	inferTypes				= Key.of( "inferTypes" );
+	public static final Key	maxRows					= Key.of( "maxRows" );
+	public static final Key	lineBreaks				= Key.of( "lineBreaks" );
+	public static final Key	skipScripts				= Key.of( "skipScripts" );
+	public static final Key	maxLength				= Key.of( "maxLength" );
+	public static final Key	output					= Key.of( "output" );
+	public static final Key	url						= Key.of( "url" );
+	public static final Key	attribute				= Key.of( "attribute" );
+	public static final Key	types					= Key.of( "types" );
+	public static final Key	dedupe					= Key.of( "dedupe" );
+	public static final Key	stripFragments			= Key.of( "stripFragments" );
+	public static final Key	maxLinks				= Key.of( "maxLinks" );
+	public static final Key	bytes					= Key.of( "bytes" );
+
+	// Document views
+	public static final Key	tag						= Key.of( "tag" );
+	public static final Key	text					= Key.of( "text" );
+	public static final Key	children				= Key.of( "children" );
+
+	// Interception points
+	public static final Key	onHtmlParse				= Key.of( "onHtmlParse" );
+	public static final Key	onHtmlClean				= Key.of( "onHtmlClean" );
+	public static final Key	bif						= Key.of( "bif" );
+	public static final Key	durationNanos			= Key.of( "durationNanos" );
+
+	// Settings
+	public static final Key	safelists				= Key.of( "safelists" );
+	public static final Key	base					= Key.of( "base" );
+	public static final Key	tags					= Key.of( "tags" );
+	public static final Key	removeTags				= Key.of( "removeTags" );
+	public static final Key	attributes				= Key.of( "attributes" );
+	public static final Key	protocols				= Key.of( "protocols" );
+	public static final Key	enforcedAttributes		= Key.of( "enforcedAttributes" );
+	public static final Key	limits					= Key.of( "limits" );
+	public static final Key	maxDepth				= Key.of( "maxDepth" );
+	public static final Key	maxNodes				= Key.of( "maxNodes" );
+	public static final Key	selectorCacheSize		= Key.of( "selectorCacheSize" );
+	public static final Key	batchParallelism		= Key.of( "batchParallelism" );
+	public static final Key	cleanCache				= Key.of( "cleanCache" );
+	public static final Key	enabled					= Key.of( "enabled" );
+	public static final Key	maxBytes				= Key.of( "maxBytes" );
+	public static final Key	maxEntryBytes			= Key.of( "maxEntryBytes" );
+	public static final Key	metrics					= Key.of( "metrics" );
+	public static final Key	events					= Key.of( "events" );
+	public static final Key	parseLimits				= Key.of( "parseLimits" );
+	public static final Key	maxInputBytes			= Key.of( "maxInputBytes" );
+	public static final Key	maxAttributes			= Key.of( "maxAttributes" );
+	public static final Key	maxErrors				= Key.of( "maxErrors" );
+	public static final Key	timeout					= Key.of( "timeout" );
+	public static final Key	async					= Key.of( "async" );
+	public static final Key	virtualThreads			= Key.of( "virtualThreads" );
+	public static final Key	maxConcurrent			= Key.of( "maxConcurrent" );
+
+	// Statistics
+	public static final Key	selectors				= Key.of( "selectors" );
+	public static final Key	size					= Key.of( "size" );
+	public static final Key	maxSize					= Key.of( "maxSize" );
+	public static final Key	hits					= Key.of( "hits" );
+	public static final Key	misses					= Key.of( "misses" );
+	public static final Key	clean					= Key.of( "clean" );
+	public static final Key	queued					= Key.of( "queued" );
+	public static final Key	active					= Key.of( "active" );
+	public static final Key	completed				= Key.of( "completed" );
+	public static final Key	failed					= Key.of( "failed" );
+	public static final Key	cancelled				= Key.of( "cancelled" );
+	public static final Key	bytes					= Key.of( "bytes" );
+	public static final Key	evictions				= Key.of( "evictions" );
+	public static final Key	bifs					= Key.of( "bifs" );
+	public static final Key	calls					= Key.of( "calls" );
+	public static final Key	latency					= Key.of( "latency" );
+	public static final Key	inputBytes				= Key.of( "inputBytes" );
+	public static final Key	outputBytes				= Key.of( "outputBytes" );
+	public static final Key	strippedBytes			= Key.of( "strippedBytes" );
+	public static final Key	count					= Key.of( "count" );
+	public static final Key	min						= Key.of( "min" );
+	public static final Key	mean					= Key.of( "mean" );
+	public static final Key	max						= Key.of( "max" );
+	public static final Key	p50						= Key.of( "p50" );
+	public static final Key	p90						= Key.of( "p90" );
+	public static final Key	p99						= Key.of( "p99" );
+	public static final Key	p999					= Key.of( "p999" );
 
 }
@@ -0,0 +1,169 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A lock-free, fixed-size histogram of durations in nanoseconds, in the spirit of HdrHistogram.
+ * <p>
+ * Values are counted in log-linear buckets: every power of two is split into {@value #SUB_BUCKETS} equal buckets, so
+ * any value is reported within 12.5% of its real value, from nanoseconds up to centuries, in a few hundred counters.
+ * Recording a value is a couple of bit operations and a {@link LongAdder} increment, so concurrent recorders do not
+ * contend.
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * The number of buckets every power of two is split into
+	 */
+	private static final int		SUB_BUCKETS		= 8;
+
+	/**
+	 * The number of bits needed to index the buckets of a power of two
+	 */
+	private static final int		SUB_BUCKET_BITS	= 3;
+
+	/**
+	 * Values below {@link #SUB_BUCKETS} get a bucket each, then every power of two up to 2^62 gets {@link #SUB_BUCKETS}
+	 */
+	private static final int		BUCKETS			= ( Long.SIZE - 2 ) * SUB_BUCKETS;
+
+	private final LongAdder[]		counts			= new LongAdder[ BUCKETS ];
+	private final LongAdder			total			= new LongAdder();
+	private final LongAdder			sum				= new LongAdder();
+	private final LongAccumulator	min				= new LongAccumulator( Math::min, Long.MAX_VALUE );
+	private final LongAccumulator	max				= new LongAccumulator( Math::max, 0 );
+
+	/**
+	 * Constructor
+	 */
+	public LatencyHistogram() {
+		for ( int i = 0; i < BUCKETS; i++ ) {
+			this.counts[ i ] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Record a duration.
+	 *
+	 * @param nanos The duration in nanoseconds, negative values are recorded as 0.
+	 */
+	public void record( long nanos ) {
+		long value = Math.max( 0, nanos );
+		this.counts[ bucketOf( value ) ].increment();
+		this.total.increment();
+		this.sum.add( value );
+		this.min.accumulate( value );
+		this.max.accumulate( value );
+	}
+
+	public long getCount() {
+		return this.total.sum();
+	}
+
+	/**
+	 * Get the value below which the given percentage of the recorded values fall.
+	 *
+	 * @param percentile The percentile, from 0 to 100.
+	 *
+	 * @return The highest value of the bucket holding the percentile, capped by the maximum, or 0 if nothing was recorded.
+	 */
+	public long getPercentile( double percentile ) {
+		long[]	snapshot	= new long[ BUCKETS ];
+		long	count		= 0;
+		for ( int i = 0; i < BUCKETS; i++ ) {
+			snapshot[ i ]	= this.counts[ i ].sum();
+			count			+= snapshot[ i ];
+		}
+		if ( count == 0 ) {
+			return 0;
+		}
+
+		long	rank		= Math.max( 1, ( long ) Math.ceil( percentile / 100 * count ) );
+		long	cumulated	= 0;
+		for ( int i = 0; i < BUCKETS; i++ ) {
+			cumulated += snapshot[ i ];
+			if ( cumulated >= rank ) {
+				return Math.min( highestValueOf( i ), this.max.get() );
+			}
+		}
+		return this.max.get();
+	}
+
+	/**
+	 * Forget all the recorded values.
+	 */
+	public void reset() {
+		for ( LongAdder count : this.counts ) {
+			count.reset();
+		}
+		this.total.reset();
+		this.sum.reset();
+		this.min.reset();
+		this.max.reset();
+	}
+
+	/**
+	 * Get a snapshot of the histogram.
+	 *
+	 * @return A struct with the <code>count</code> of values, and their <code>min</code>, <code>mean</code>, <code>p50</code>,
+	 *         <code>p90</code>, <code>p99</code>, <code>p999</code> and <code>max</code> in nanoseconds.
+	 */
+	public IStruct stats() {
+		long count = getCount();
+		return Struct.of(
+		    KeyDictionary.count, count,
+		    KeyDictionary.min, count == 0 ? 0 : this.min.get(),
+		    KeyDictionary.mean, count == 0 ? 0 : this.sum.sum() / count,
+		    KeyDictionary.p50, getPercentile( 50 ),
+		    KeyDictionary.p90, getPercentile( 90 ),
+		    KeyDictionary.p99, getPercentile( 99 ),
+		    KeyDictionary.p999, getPercentile( 99.9 ),
+		    KeyDictionary.max, this.max.get()
+		);
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static int bucketOf( long value ) {
+		if ( value < SUB_BUCKETS ) {
+			return ( int ) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros( value );
+		// The bits right below the leading one pick the bucket within the power of two
+		int subBucket = ( int ) ( value >>> ( exponent - SUB_BUCKET_BITS ) ) & ( SUB_BUCKETS - 1 );
+		return ( exponent - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long highestValueOf( int bucket ) {
+		if ( bucket < SUB_BUCKETS ) {
+			return bucket;
+		}
+		int		exponent	= bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int		shift		= exponent - SUB_BUCKET_BITS;
+		long	lowest		= ( long ) ( SUB_BUCKETS + bucket % SUB_BUCKETS ) << shift;
+		return lowest + ( 1L << shift ) - 1;
+	}
+
+}
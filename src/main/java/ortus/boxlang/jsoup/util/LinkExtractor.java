@@ -0,0 +1,366 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Gathers the URLs of the links and assets of an HTML document in a single pass, resolved to absolute URLs.
+ * <p>
+ * Every element is looked up once in a table of the URL-bearing attributes of its tag, like <code>a[href]</code>,
+ * <code>img[src]</code>, <code>img[srcset]</code> or <code>form[action]</code>, each mapped to a link type. The values
+ * are resolved exactly like <code>Element.absUrl()</code> does, against a base URL parsed once rather than for every
+ * attribute, and repeated URLs are dropped through an open-addressed table of indexes into the results, without any
+ * per-entry objects.
+ * <p>
+ * Parsed documents and elements are read in place. Any other source is read through the {@link HtmlEventStreamer}, so
+ * the document is never built: only the path to the current element is kept.
+ */
+public final class LinkExtractor implements HtmlEventHandler {
+
+	/**
+	 * The link types, in the order they are documented
+	 */
+	public static final List<String>					TYPES			= List.of(
+	    "link", "resource", "image", "script", "frame", "media", "object", "form", "cite", "base"
+	);
+
+	/**
+	 * The URL-bearing attributes of each tag
+	 */
+	private static final Map<String, UrlAttribute[]>	ATTRIBUTES		= Map.ofEntries(
+	    Map.entry( "a", attributes( "href", "link" ) ),
+	    Map.entry( "area", attributes( "href", "link" ) ),
+	    Map.entry( "link", attributes( "href", "resource" ) ),
+	    Map.entry( "base", attributes( "href", "base" ) ),
+	    Map.entry( "img", attributes( "src", "image", "srcset", "image" ) ),
+	    Map.entry( "input", attributes( "src", "image", "formaction", "form" ) ),
+	    Map.entry( "script", attributes( "src", "script" ) ),
+	    Map.entry( "iframe", attributes( "src", "frame" ) ),
+	    Map.entry( "frame", attributes( "src", "frame" ) ),
+	    Map.entry( "audio", attributes( "src", "media" ) ),
+	    Map.entry( "video", attributes( "src", "media", "poster", "image" ) ),
+	    Map.entry( "source", attributes( "src", "media", "srcset", "image" ) ),
+	    Map.entry( "track", attributes( "src", "media" ) ),
+	    Map.entry( "embed", attributes( "src", "object" ) ),
+	    Map.entry( "object", attributes( "data", "object" ) ),
+	    Map.entry( "form", attributes( "action", "form" ) ),
+	    Map.entry( "button", attributes( "formaction", "form" ) ),
+	    Map.entry( "blockquote", attributes( "cite", "cite" ) ),
+	    Map.entry( "q", attributes( "cite", "cite" ) ),
+	    Map.entry( "del", attributes( "cite", "cite" ) ),
+	    Map.entry( "ins", attributes( "cite", "cite" ) )
+	);
+
+	/**
+	 * URL schemes Java has no handler for, like <code>tel:</code>, are kept as-is, the same as Jsoup
+	 */
+	private static final Pattern						VALID_SCHEME	= Pattern.compile( "^[a-zA-Z][a-zA-Z0-9+-.]*:" );
+
+	private final String								baseUri;
+	private final Set<String>							types;
+	private final boolean								dedupe;
+	private final boolean								stripFragments;
+	private final int									maxLinks;
+
+	private final Array									links			= new Array();
+
+	/**
+	 * The distinct URLs found, and an open-addressed table of their index + 1, 0 for free slots
+	 */
+	private String[]									urls			= new String[ 32 ];
+	private int											seenCount		= 0;
+	private int[]										seen			= new int[ 64 ];
+
+	/**
+	 * The last base URI seen, and its parsed URL, null if it is not a valid URL
+	 */
+	private String										base;
+	private URL											baseUrl;
+
+	/**
+	 * Constructor
+	 *
+	 * @param baseUri        The base URI to resolve relative URLs against, or empty to use the base URI of the elements.
+	 * @param types          The link types to gather, see {@link #TYPES}. Empty for all of them.
+	 * @param dedupe         Whether a URL is only returned the first time it is found.
+	 * @param stripFragments Whether the <code>#fragment</code> of the URLs is removed.
+	 * @param maxLinks       The maximum number of links to gather, 0 for all of them.
+	 */
+	public LinkExtractor( String baseUri, Set<String> types, boolean dedupe, boolean stripFragments, int maxLinks ) {
+		this.baseUri		= baseUri;
+		this.types			= types;
+		this.dedupe			= dedupe;
+		this.stripFragments	= stripFragments;
+		this.maxLinks		= Math.max( 0, maxLinks );
+	}
+
+	/**
+	 * Gather the links of a parsed document or element, the element itself included.
+	 *
+	 * @param root The document or element to read.
+	 *
+	 * @return An array of <code>{ url, type, tag, attribute }</code> structs, in document order.
+	 */
+	public Array extract( Element root ) {
+		NodeTraversor.filter( new NodeFilter() {
+
+			@Override
+			public FilterResult head( Node node, int depth ) {
+				return node instanceof Element element && !visit( element ) ? FilterResult.STOP : FilterResult.CONTINUE;
+			}
+
+			@Override
+			public FilterResult tail( Node node, int depth ) {
+				return FilterResult.CONTINUE;
+			}
+		}, root );
+		return this.links;
+	}
+
+	/**
+	 * Gather the links of an HTML document while it is parsed, without building it. Parsing stops once
+	 * <code>maxLinks</code> are found.
+	 *
+	 * @param input The HTML to read. It is read incrementally and closed once done.
+	 *
+	 * @return An array of <code>{ url, type, tag, attribute }</code> structs, in document order.
+	 */
+	public Array extract( Reader input ) {
+		HtmlEventStreamer.stream( input, this.baseUri, this );
+		return this.links;
+	}
+
+	@Override
+	public boolean startTag( Element element ) {
+		return visit( element );
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Gathers the links of an element.
+	 *
+	 * @return False once enough links are gathered.
+	 */
+	private boolean visit( Element element ) {
+		if ( element.attributesSize() == 0 ) {
+			return true;
+		}
+		UrlAttribute[] attributes = ATTRIBUTES.get( element.normalName() );
+		if ( attributes == null ) {
+			return true;
+		}
+		for ( UrlAttribute attribute : attributes ) {
+			if ( !element.hasAttr( attribute.name() ) || ( !this.types.isEmpty() && !this.types.contains( attribute.type() ) ) ) {
+				continue;
+			}
+			String value = element.attr( attribute.name() );
+			if ( attribute.name().equals( "srcset" ) ) {
+				if ( !addSrcset( element, attribute, value ) ) {
+					return false;
+				}
+			} else if ( !add( element, attribute, value ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds each image candidate of a <code>srcset</code>: a URL, then optional descriptors up to the next comma.
+	 */
+	private boolean addSrcset( Element element, UrlAttribute attribute, String srcset ) {
+		int	length	= srcset.length();
+		int	i		= 0;
+		while ( i < length ) {
+			while ( i < length && ( StringUtil.isWhitespace( srcset.charAt( i ) ) || srcset.charAt( i ) == ',' ) ) {
+				i++;
+			}
+			int start = i;
+			while ( i < length && !StringUtil.isWhitespace( srcset.charAt( i ) ) ) {
+				i++;
+			}
+			int end = i;
+			if ( end > start && srcset.charAt( end - 1 ) == ',' ) {
+				// A URL directly followed by a comma has no descriptors
+				while ( end > start && srcset.charAt( end - 1 ) == ',' ) {
+					end--;
+				}
+			} else {
+				while ( i < length && srcset.charAt( i ) != ',' ) {
+					i++;
+				}
+			}
+			if ( end > start && !add( element, attribute, srcset.substring( start, end ) ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Resolves a URL and adds it, unless it cannot be resolved or was already found.
+	 *
+	 * @return False once enough links are gathered.
+	 */
+	private boolean add( Element element, UrlAttribute attribute, String value ) {
+		String url = resolve( this.baseUri.isEmpty() ? element.baseUri() : this.baseUri, value );
+		if ( this.stripFragments ) {
+			int hash = url.indexOf( '#' );
+			if ( hash >= 0 ) {
+				url = url.substring( 0, hash );
+			}
+		}
+		if ( url.isEmpty() ) {
+			return true;
+		}
+
+		int slot = 0;
+		if ( this.dedupe ) {
+			slot = slotOf( url );
+			if ( this.seen[ slot ] != 0 ) {
+				return true;
+			}
+		}
+		this.links.add( Struct.of(
+		    KeyDictionary.url, url,
+		    KeyDictionary.type, attribute.type(),
+		    KeyDictionary.tag, element.normalName(),
+		    KeyDictionary.attribute, attribute.name()
+		) );
+		if ( this.dedupe ) {
+			addSeen( slot, url );
+		}
+		return this.maxLinks == 0 || this.links.size() < this.maxLinks;
+	}
+
+	/**
+	 * Resolves a URL against a base URI the same way <code>StringUtil.resolve( base, relative )</code> does, only parsing
+	 * the base URI when it changes. Without a base URL to resolve against, the URL goes through Jsoup as-is.
+	 *
+	 * @return The absolute URL, or an empty string if it cannot be resolved.
+	 */
+	private String resolve( String baseUri, String value ) {
+		if ( !baseUri.equals( this.base ) ) {
+			this.base		= baseUri;
+			this.baseUrl	= parseUrl( stripControlChars( baseUri ) );
+		}
+		if ( this.baseUrl == null ) {
+			return StringUtil.resolve( baseUri, value );
+		}
+		String relative = stripControlChars( value );
+		try {
+			return StringUtil.resolve( this.baseUrl, relative ).toExternalForm();
+		} catch ( MalformedURLException e ) {
+			return VALID_SCHEME.matcher( relative ).find() ? relative : "";
+		}
+	}
+
+	/**
+	 * The slot of a URL in the set of the URLs found, probing linearly from its hash: the slot holding it, or the free
+	 * slot where it belongs.
+	 */
+	private int slotOf( String url ) {
+		int	mask	= this.seen.length - 1;
+		int	slot	= url.hashCode() & mask;
+		while ( this.seen[ slot ] != 0 && !url.equals( this.urls[ this.seen[ slot ] - 1 ] ) ) {
+			slot = ( slot + 1 ) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Adds the URL just added to the links to the set, doubling the set once it is half full
+	 */
+	private void addSeen( int slot, String url ) {
+		if ( this.seenCount == this.urls.length ) {
+			this.urls = Arrays.copyOf( this.urls, this.urls.length * 2 );
+		}
+		this.urls[ this.seenCount++ ]	= url;
+		this.seen[ slot ]				= this.seenCount;
+		if ( this.seenCount > this.seen.length / 2 ) {
+			this.seen = new int[ this.seen.length * 2 ];
+			for ( int i = 0; i < this.seenCount; i++ ) {
+				this.seen[ slotOf( this.urls[ i ] ) ] = i + 1;
+			}
+		}
+	}
+
+	/**
+	 * Parses an absolute URL, or null if it is not one. URLs the URI syntax rejects are left to Jsoup.
+	 */
+	private static URL parseUrl( String url ) {
+		try {
+			return URI.create( url ).toURL();
+		} catch ( MalformedURLException | IllegalArgumentException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * Removes the control characters browsers ignore in URLs
+	 */
+	private static String stripControlChars( String value ) {
+		for ( int i = 0; i < value.length(); i++ ) {
+			if ( value.charAt( i ) < 0x20 ) {
+				StringBuilder stripped = new StringBuilder( value.length() );
+				for ( int j = 0; j < value.length(); j++ ) {
+					if ( value.charAt( j ) >= 0x20 ) {
+						stripped.append( value.charAt( j ) );
+					}
+				}
+				return stripped.toString();
+			}
+		}
+		return value;
+	}
+
+	private static UrlAttribute[] attributes( String... namesAndTypes ) {
+		UrlAttribute[] attributes = new UrlAttribute[ namesAndTypes.length / 2 ];
+		for ( int i = 0; i < attributes.length; i++ ) {
+			attributes[ i ] = new UrlAttribute( namesAndTypes[ i * 2 ], namesAndTypes[ i * 2 + 1 ] );
+		}
+		return attributes;
+	}
+
+	/**
+	 * A URL-bearing attribute and the type of the links it holds
+	 */
+	private record UrlAttribute( String name, String type ) {
+	}
+
+}
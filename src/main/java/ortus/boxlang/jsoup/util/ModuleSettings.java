@@ -0,0 +1,106 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import ortus.boxlang.runtime.BoxRuntime;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.LongCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.services.ModuleService;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Read access to the settings declared in the module's <code>ModuleConfig.bx</code>.
+ * When the module is not registered (for example when the Java classes are used directly)
+ * an empty struct is returned, so every setting falls back to its default.
+ */
+public final class ModuleSettings {
+
+	private ModuleSettings() {
+	}
+
+	/**
+	 * Get the settings struct of the module.
+	 *
+	 * @return The module settings, or an empty struct if the module is not loaded.
+	 */
+	public static IStruct get() {
+		ModuleService moduleService = BoxRuntime.getInstance().getModuleService();
+		if ( moduleService.hasModule( KeyDictionary.moduleName ) ) {
+			return moduleService.getModuleSettings( KeyDictionary.moduleName );
+		}
+		return new Struct();
+	}
+
+	/**
+	 * Get a nested settings struct.
+	 *
+	 * @param key The name of the setting.
+	 *
+	 * @return The struct, or an empty struct if the setting is missing.
+	 */
+	public static IStruct getStruct( Key key ) {
+		return getStruct( get(), key );
+	}
+
+	/**
+	 * Get a nested struct from the given settings struct.
+	 *
+	 * @param settings The struct to read from.
+	 * @param key      The name of the setting.
+	 *
+	 * @return The struct, or an empty struct if the setting is missing.
+	 */
+	public static IStruct getStruct( IStruct settings, Key key ) {
+		Object value = settings.get( key );
+		return value instanceof IStruct struct ? struct : new Struct();
+	}
+
+	/**
+	 * Get a numeric setting from the given settings struct.
+	 *
+	 * @param settings     The struct to read from.
+	 * @param key          The name of the setting.
+	 * @param defaultValue The value to use when the setting is missing or empty.
+	 *
+	 * @return The setting as a long.
+	 */
+	public static long getLong( IStruct settings, Key key, long defaultValue ) {
+		Object value = settings.get( key );
+		if ( value == null || value.toString().isBlank() ) {
+			return defaultValue;
+		}
+		return LongCaster.cast( value );
+	}
+
+	/**
+	 * Get a boolean setting from the given settings struct.
+	 *
+	 * @param settings     The struct to read from.
+	 * @param key          The name of the setting.
+	 * @param defaultValue The value to use when the setting is missing.
+	 *
+	 * @return The setting as a boolean.
+	 */
+	public static boolean getBoolean( IStruct settings, Key key, boolean defaultValue ) {
+		Object value = settings.get( key );
+		if ( value == null ) {
+			return defaultValue;
+		}
+		return BooleanCaster.cast( value );
+	}
+
+}
@@ -0,0 +1,632 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.XmlDeclaration;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * Resource limits enforced while HTML is parsed, so hostile inputs cannot keep a request busy for seconds.
+ * <p>
+ * The limits are the size of the input, the number of nodes, the nesting depth, the number of attributes of an element,
+ * the number of parse errors and a wall-clock timeout. They are configured through the <code>parseLimits</code> module
+ * setting and can be overridden per call, a value of 0 meaning unlimited. Going over any of them aborts the parse with
+ * an {@link HtmlLimitException}.
+ * <p>
+ * Without limits, parsing takes the regular Jsoup path untouched. With limits, the HTML is parsed through a
+ * {@link StreamParser}, which hands out every element as soon as it is complete: each one is checked right there, and
+ * the input is read through a wrapper that counts it and checks the deadline on every buffer Jsoup fills. Every check
+ * is a counter comparison, so the parse runs at full speed until a limit is hit. Byte sources go through the same
+ * streaming parse: their charset is detected like Jsoup does, from a byte order mark, then a
+ * <code>&lt;meta charset&gt;</code>, <code>http-equiv</code> or XML declaration in their first bytes, and their size is
+ * counted in bytes.
+ * <p>
+ * {@link #interruptible() Interruptible} limits also give up as soon as the parsing thread is interrupted, so
+ * cancelling a background parse stops it between two elements or two reads instead of letting it run to the end.
+ */
+public final class ParseLimits {
+
+	/**
+	 * No limits at all
+	 */
+	public static final ParseLimits		UNLIMITED				= new ParseLimits( 0, 0, 0, 0, 0, 0 );
+
+	/**
+	 * How many bytes are looked at to detect the charset of byte sources, the same as Jsoup
+	 */
+	private static final int				CHARSET_PREFIX_BYTES	= 5 * 1024;
+
+	private static final Pattern			CONTENT_TYPE_CHARSET	= Pattern.compile( "(?i)\\bcharset=\\s*(?:[\"'])?([^\\s,;\"']*)" );
+
+	private static volatile ParseLimits	configured;
+
+	private final long					maxInputBytes;
+	private final long					maxNodes;
+	private final int					maxDepth;
+	private final int					maxAttributes;
+	private final int					maxErrors;
+	private final long					timeout;
+	private final boolean				interruptible;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxInputBytes The maximum size of the input, in bytes for byte sources and characters for strings, 0 for unlimited.
+	 * @param maxNodes      The maximum number of nodes in the document, 0 for unlimited.
+	 * @param maxDepth      The maximum nesting depth of the document, 0 for unlimited.
+	 * @param maxAttributes The maximum number of attributes of a single element, 0 for unlimited.
+	 * @param maxErrors     The maximum number of parse errors, 0 for unlimited.
+	 * @param timeout       The maximum duration of the parse in milliseconds, 0 for unlimited.
+	 */
+	public ParseLimits( long maxInputBytes, long maxNodes, int maxDepth, int maxAttributes, int maxErrors, long timeout ) {
+		this( maxInputBytes, maxNodes, maxDepth, maxAttributes, maxErrors, timeout, false );
+	}
+
+	private ParseLimits( long maxInputBytes, long maxNodes, int maxDepth, int maxAttributes, int maxErrors, long timeout, boolean interruptible ) {
+		this.maxInputBytes	= Math.max( 0, maxInputBytes );
+		this.maxNodes		= Math.max( 0, maxNodes );
+		this.maxDepth		= Math.max( 0, maxDepth );
+		this.maxAttributes	= Math.max( 0, maxAttributes );
+		this.maxErrors		= Math.max( 0, maxErrors );
+		this.timeout		= Math.max( 0, timeout );
+		this.interruptible	= interruptible;
+	}
+
+	/**
+	 * Get the limits configured in the <code>parseLimits</code> module setting, read on first use.
+	 *
+	 * @return The configured limits.
+	 */
+	public static ParseLimits getDefault() {
+		ParseLimits limits = configured;
+		if ( limits == null ) {
+			synchronized ( ParseLimits.class ) {
+				limits = configured;
+				if ( limits == null ) {
+					limits		= UNLIMITED.with( ModuleSettings.getStruct( KeyDictionary.parseLimits ) );
+					configured	= limits;
+				}
+			}
+		}
+		return limits;
+	}
+
+	/**
+	 * Read the <code>parseLimits</code> module setting again.
+	 *
+	 * @return The configured limits.
+	 */
+	public static synchronized ParseLimits reload() {
+		configured = UNLIMITED.with( ModuleSettings.getStruct( KeyDictionary.parseLimits ) );
+		return configured;
+	}
+
+	/**
+	 * Get the configured limits with the overrides of a call applied.
+	 *
+	 * @param overrides The <code>limits</code> argument of a BIF, or null.
+	 *
+	 * @return The limits to apply to the call.
+	 */
+	public static ParseLimits forCall( IStruct overrides ) {
+		return getDefault().with( overrides );
+	}
+
+	/**
+	 * Get a copy of these limits with some of them replaced.
+	 *
+	 * @param overrides A struct of limit names to values, 0 meaning unlimited. Missing limits are kept.
+	 *
+	 * @return The new limits, or these limits if there is nothing to override.
+	 */
+	public ParseLimits with( IStruct overrides ) {
+		if ( overrides == null || overrides.isEmpty() ) {
+			return this;
+		}
+		ParseLimits limits = new ParseLimits(
+		    ModuleSettings.getLong( overrides, KeyDictionary.maxInputBytes, this.maxInputBytes ),
+		    ModuleSettings.getLong( overrides, KeyDictionary.maxNodes, this.maxNodes ),
+		    ( int ) ModuleSettings.getLong( overrides, KeyDictionary.maxDepth, this.maxDepth ),
+		    ( int ) ModuleSettings.getLong( overrides, KeyDictionary.maxAttributes, this.maxAttributes ),
+		    ( int ) ModuleSettings.getLong( overrides, KeyDictionary.maxErrors, this.maxErrors ),
+		    ModuleSettings.getLong( overrides, KeyDictionary.timeout, this.timeout ),
+		    this.interruptible
+		);
+		return limits.isUnlimited() ? UNLIMITED : limits;
+	}
+
+	/**
+	 * Get a copy of these limits that also aborts the parse with a {@link CancellationException} once the parsing thread
+	 * is interrupted. The thread is checked with the other limits, on every element completed and every buffer read.
+	 *
+	 * @return The interruptible limits.
+	 */
+	public ParseLimits interruptible() {
+		if ( this.interruptible ) {
+			return this;
+		}
+		return new ParseLimits( this.maxInputBytes, this.maxNodes, this.maxDepth, this.maxAttributes, this.maxErrors, this.timeout, true );
+	}
+
+	/**
+	 * Whether no limit is set at all and the parse cannot be interrupted, in which case parsing takes the regular Jsoup path.
+	 *
+	 * @return True if unlimited.
+	 */
+	public boolean isUnlimited() {
+		return this.maxInputBytes == 0 && this.maxNodes == 0 && this.maxDepth == 0 && this.maxAttributes == 0 && this.maxErrors == 0
+		    && this.timeout == 0 && !this.interruptible;
+	}
+
+	/**
+	 * Whether these limits bound the HTML exactly like others, interruptible or not.
+	 *
+	 * @param other The limits to compare with.
+	 *
+	 * @return True if every limit has the same value.
+	 */
+	public boolean hasSameLimits( ParseLimits other ) {
+		return this.maxInputBytes == other.maxInputBytes && this.maxNodes == other.maxNodes && this.maxDepth == other.maxDepth
+		    && this.maxAttributes == other.maxAttributes && this.maxErrors == other.maxErrors && this.timeout == other.timeout;
+	}
+
+	public long getMaxInputBytes() {
+		return this.maxInputBytes;
+	}
+
+	public long getMaxNodes() {
+		return this.maxNodes;
+	}
+
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	public int getMaxAttributes() {
+		return this.maxAttributes;
+	}
+
+	public int getMaxErrors() {
+		return this.maxErrors;
+	}
+
+	public long getTimeout() {
+		return this.timeout;
+	}
+
+	public boolean isInterruptible() {
+		return this.interruptible;
+	}
+
+	/**
+	 * Check the size of an input known before parsing it, to reject it without reading it.
+	 *
+	 * @param size The size of the input, in bytes or characters.
+	 *
+	 * @throws HtmlLimitException If the input is bigger than <code>maxInputBytes</code>.
+	 */
+	public void checkInputSize( long size ) {
+		if ( this.maxInputBytes > 0 && size > this.maxInputBytes ) {
+			throw exceeded( KeyDictionary.maxInputBytes, "The HTML input is larger than the allowed maximum of " + this.maxInputBytes + " bytes" );
+		}
+	}
+
+	/**
+	 * Parse a full HTML document from a string within the limits.
+	 *
+	 * @param html    The HTML to parse.
+	 * @param baseUri The base URI of the document, used to resolve relative links.
+	 *
+	 * @return The parsed document.
+	 *
+	 * @throws HtmlLimitException If a limit is exceeded.
+	 */
+	public Document parse( String html, String baseUri ) {
+		if ( isUnlimited() ) {
+			return Jsoup.parse( html, baseUri );
+		}
+		checkInputSize( html.length() );
+		return parse( new StringReader( html ), baseUri );
+	}
+
+	/**
+	 * Parse a full HTML document from a reader within the limits.
+	 *
+	 * @param input   The HTML to read.
+	 * @param baseUri The base URI of the document, used to resolve relative links.
+	 *
+	 * @return The parsed document.
+	 *
+	 * @throws HtmlLimitException If a limit is exceeded.
+	 */
+	public Document parse( Reader input, String baseUri ) {
+		if ( isUnlimited() ) {
+			return Parser.htmlParser().parseInput( input, baseUri );
+		}
+		Guard guard = new Guard( newParser(), 0 );
+		return stream( guard, guard.wrap( input ), baseUri );
+	}
+
+	/**
+	 * Parse a full HTML document from bytes within the limits.
+	 *
+	 * @param input       The bytes to read.
+	 * @param charsetName The charset of the bytes, or null or empty to detect it like Jsoup does.
+	 * @param baseUri     The base URI of the document, used to resolve relative links.
+	 *
+	 * @return The parsed document.
+	 *
+	 * @throws IOException        If the input cannot be read.
+	 * @throws HtmlLimitException If a limit is exceeded.
+	 */
+	public Document parse( InputStream input, String charsetName, String baseUri ) throws IOException {
+		String charset = charsetName == null || charsetName.isBlank() ? null : charsetName;
+		if ( isUnlimited() ) {
+			return Jsoup.parse( input, charset, baseUri );
+		}
+
+		// The bytes are counted as they are read, the characters they decode to are not counted again
+		Guard				guard		= new Guard( newParser(), 0 );
+		BufferedInputStream	bytes		= new BufferedInputStream( guard.wrap( input ), CHARSET_PREFIX_BYTES );
+		Charset				decoded		= detectCharset( bytes, charset );
+		Document			document	= stream( guard, new InputStreamReader( bytes, decoded ), baseUri );
+		document.outputSettings().charset( decoded );
+		return document;
+	}
+
+	/**
+	 * Parse an HTML fragment into the body of a new document within the limits, like <code>Jsoup.parseBodyFragment()</code>.
+	 *
+	 * @param html    The HTML fragment to parse.
+	 * @param baseUri The base URI of the document, used to resolve relative links.
+	 *
+	 * @return The document holding the fragment in its body.
+	 *
+	 * @throws HtmlLimitException If a limit is exceeded.
+	 */
+	public Document parseBodyFragment( String html, String baseUri ) {
+		if ( isUnlimited() ) {
+			return Jsoup.parseBodyFragment( html, baseUri );
+		}
+		checkInputSize( html.length() );
+
+		Document	document	= Document.createShell( baseUri );
+		Element		body		= document.body();
+		Parser		parser		= newParser();
+		// The fragment root stands in for the html element, one level above the body the nodes end up in
+		Guard		guard		= new Guard( parser, 1 );
+		List<Node>	nodes;
+		try ( StreamParser streamer = new StreamParser( parser ) ) {
+			streamer.parseFragment( guard.wrap( new StringReader( html ) ), body, baseUri );
+			Iterator<Element> elements = streamer.stream().iterator();
+			while ( elements.hasNext() ) {
+				guard.completed( elements.next() );
+			}
+			nodes = streamer.completeFragment();
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Unable to parse the HTML fragment", e );
+		}
+
+		// Same as Jsoup: detach the nodes from the fragment root first, then move them to the body in order
+		Node[] parsed = nodes.toArray( new Node[ 0 ] );
+		for ( int i = parsed.length - 1; i > 0; i-- ) {
+			parsed[ i ].remove();
+		}
+		for ( Node node : parsed ) {
+			body.appendChild( node );
+		}
+		return document;
+	}
+
+	/**
+	 * Start guarding a parse run outside of this class, like a streaming parse that drops the nodes it is done with.
+	 * The parse must use the {@link Guard#parser() parser} of the guard, read its input through
+	 * {@link Guard#wrap(Reader)} and hand every completed element to {@link Guard#completed(Element)}.
+	 *
+	 * @return The guard of a single parse.
+	 */
+	public Guard guard() {
+		return new Guard( newParser(), 0 );
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private Parser newParser() {
+		Parser parser = Parser.htmlParser();
+		if ( this.maxErrors > 0 ) {
+			// One more than allowed, to tell going over the limit from reaching it
+			parser.setTrackErrors( this.maxErrors + 1 );
+		}
+		return parser;
+	}
+
+	/**
+	 * Parse a full document, checking every element as the parser completes it
+	 */
+	private static Document stream( Guard guard, Reader input, String baseUri ) {
+		try ( StreamParser streamer = new StreamParser( guard.parser() ) ) {
+			streamer.parse( input, baseUri );
+			Iterator<Element> elements = streamer.stream().iterator();
+			while ( elements.hasNext() ) {
+				guard.completed( elements.next() );
+			}
+			return streamer.document();
+		}
+	}
+
+	/**
+	 * Detect the charset of a byte source the way Jsoup does: a byte order mark wins, then the given charset, then a
+	 * <code>&lt;meta charset&gt;</code>, <code>http-equiv</code> or XML declaration in the first bytes, falling back to
+	 * UTF-8. The stream is left right after a UTF-8 byte order mark, the UTF-16 and UTF-32 decoders skip theirs.
+	 */
+	private static Charset detectCharset( BufferedInputStream input, String charsetName ) throws IOException {
+		input.mark( CHARSET_PREFIX_BYTES );
+		byte[] prefix = input.readNBytes( CHARSET_PREFIX_BYTES );
+		input.reset();
+
+		if ( prefix.length >= 4 && ( ( prefix[ 0 ] == 0 && prefix[ 1 ] == 0 && prefix[ 2 ] == ( byte ) 0xFE && prefix[ 3 ] == ( byte ) 0xFF )
+		    || ( prefix[ 0 ] == ( byte ) 0xFF && prefix[ 1 ] == ( byte ) 0xFE && prefix[ 2 ] == 0 && prefix[ 3 ] == 0 ) ) ) {
+			return Charset.forName( "UTF-32" );
+		}
+		if ( prefix.length >= 2 && ( ( prefix[ 0 ] == ( byte ) 0xFE && prefix[ 1 ] == ( byte ) 0xFF )
+		    || ( prefix[ 0 ] == ( byte ) 0xFF && prefix[ 1 ] == ( byte ) 0xFE ) ) ) {
+			return StandardCharsets.UTF_16;
+		}
+		if ( prefix.length >= 3 && prefix[ 0 ] == ( byte ) 0xEF && prefix[ 1 ] == ( byte ) 0xBB && prefix[ 2 ] == ( byte ) 0xBF ) {
+			input.skipNBytes( 3 );
+			return StandardCharsets.UTF_8;
+		}
+		if ( charsetName != null ) {
+			return Charset.forName( charsetName );
+		}
+
+		Document	head	= Jsoup.parse( new String( prefix, StandardCharsets.UTF_8 ) );
+		String		found	= null;
+		for ( Element meta : head.select( "meta[http-equiv=content-type], meta[charset]" ) ) {
+			if ( meta.hasAttr( "http-equiv" ) ) {
+				Matcher matcher = CONTENT_TYPE_CHARSET.matcher( meta.attr( "content" ) );
+				found = matcher.find() ? matcher.group( 1 ) : null;
+			}
+			if ( found == null && meta.hasAttr( "charset" ) ) {
+				found = meta.attr( "charset" );
+			}
+			if ( found != null ) {
+				break;
+			}
+		}
+		if ( found == null && head.childNodeSize() > 0 ) {
+			Node			first		= head.childNode( 0 );
+			XmlDeclaration	declaration	= first instanceof XmlDeclaration xml ? xml
+			    : first instanceof Comment comment && comment.isXmlDeclaration() ? comment.asXmlDeclaration() : null;
+			if ( declaration != null && declaration.name().equalsIgnoreCase( "xml" ) ) {
+				found = declaration.attr( "encoding" );
+			}
+		}
+		Charset charset = supportedCharset( found );
+		return charset == null ? StandardCharsets.UTF_8 : charset;
+	}
+
+	/**
+	 * A declared charset, if the JVM supports it
+	 */
+	private static Charset supportedCharset( String name ) {
+		if ( name == null || name.isBlank() ) {
+			return null;
+		}
+		String cleaned = name.trim().replaceAll( "[\"']", "" );
+		try {
+			if ( Charset.isSupported( cleaned ) ) {
+				return Charset.forName( cleaned );
+			}
+			cleaned = cleaned.toUpperCase( Locale.ENGLISH );
+			return Charset.isSupported( cleaned ) ? Charset.forName( cleaned ) : null;
+		} catch ( IllegalCharsetNameException e ) {
+			return null;
+		}
+	}
+
+	private static HtmlLimitException exceeded( Key limit, String message ) {
+		return new HtmlLimitException( limit.getName(), message + " (parseLimits." + limit.getName() + ")" );
+	}
+
+	/**
+	 * The state of a single parse: the deadline, and the input and nodes seen so far.
+	 * <p>
+	 * When the parse drops the nodes it is done with, only the elements and the text they still hold when they complete
+	 * are counted against <code>maxNodes</code>.
+	 */
+	public final class Guard {
+
+		private final Parser	parser;
+		private final int		depthOffset;
+		private final long		deadline;
+		private long			inputBytes;
+		private long			nodes;
+
+		private Guard( Parser parser, int depthOffset ) {
+			this.parser			= parser;
+			this.depthOffset	= depthOffset;
+			this.deadline		= timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeout ) : 0;
+		}
+
+		/**
+		 * The parser to parse with, tracking errors when <code>maxErrors</code> is set
+		 *
+		 * @return The parser of this parse.
+		 */
+		public Parser parser() {
+			return this.parser;
+		}
+
+		/**
+		 * Checks an element the parser has completed, with the text nodes it holds
+		 *
+		 * @param element The completed element.
+		 *
+		 * @throws HtmlLimitException If a limit is exceeded.
+		 */
+		public void completed( Element element ) {
+			int	childNodes		= element.childNodeSize();
+			int	childElements	= 0;
+			for ( int i = 0; i < childNodes; i++ ) {
+				if ( element.childNode( i ) instanceof Element ) {
+					childElements++;
+				}
+			}
+			// Child elements are counted when they complete themselves
+			countNodes( 1 + childNodes - childElements );
+			checkAttributes( element );
+
+			// The deepest nodes are always in leaf elements, and climbing stops at the limit
+			if ( maxDepth > 0 && childElements == 0 ) {
+				int depth = this.depthOffset + ( childNodes > 0 ? 1 : 0 );
+				for ( Node node = element; node.parentNode() != null; node = node.parentNode() ) {
+					if ( ++depth > maxDepth ) {
+						throw tooDeep();
+					}
+				}
+			}
+			checkErrors();
+			checkDeadline();
+			checkInterrupted();
+		}
+
+		private void countNodes( long count ) {
+			this.nodes += count;
+			if ( maxNodes > 0 && this.nodes > maxNodes ) {
+				throw exceeded( KeyDictionary.maxNodes, "The HTML document holds more than the allowed maximum of " + maxNodes + " nodes" );
+			}
+		}
+
+		private void checkAttributes( Element element ) {
+			if ( maxAttributes > 0 && element.attributesSize() > maxAttributes ) {
+				throw exceeded(
+				    KeyDictionary.maxAttributes,
+				    "The HTML element <" + element.normalName() + "> holds more than the allowed maximum of " + maxAttributes + " attributes"
+				);
+			}
+		}
+
+		private HtmlLimitException tooDeep() {
+			return exceeded( KeyDictionary.maxDepth, "The HTML document is nested deeper than the allowed maximum of " + maxDepth + " levels" );
+		}
+
+		private void checkErrors() {
+			if ( maxErrors > 0 && this.parser.getErrors().size() > maxErrors ) {
+				throw exceeded( KeyDictionary.maxErrors, "The HTML input has more than the allowed maximum of " + maxErrors + " parse errors" );
+			}
+		}
+
+		private void checkDeadline() {
+			if ( this.deadline != 0 && System.nanoTime() - this.deadline > 0 ) {
+				throw exceeded( KeyDictionary.timeout, "Parsing the HTML took longer than the allowed maximum of " + timeout + " ms" );
+			}
+		}
+
+		private void checkInterrupted() {
+			if ( interruptible && Thread.currentThread().isInterrupted() ) {
+				throw new CancellationException( "The HTML parse was cancelled" );
+			}
+		}
+
+		private void read( long count ) {
+			if ( count > 0 ) {
+				this.inputBytes += count;
+				checkInputSize( this.inputBytes );
+			}
+			checkDeadline();
+			checkInterrupted();
+		}
+
+		/**
+		 * Wraps the input of the parse, to check its size, the deadline and interruptions as it is read
+		 *
+		 * @param input The HTML to read.
+		 *
+		 * @return The guarded input.
+		 */
+		public Reader wrap( Reader input ) {
+			return new FilterReader( input ) {
+
+				@Override
+				public int read() throws IOException {
+					int c = super.read();
+					Guard.this.read( c < 0 ? 0 : 1 );
+					return c;
+				}
+
+				@Override
+				public int read( char[] buffer, int offset, int length ) throws IOException {
+					int count = super.read( buffer, offset, length );
+					Guard.this.read( count );
+					return count;
+				}
+			};
+		}
+
+		private InputStream wrap( InputStream input ) {
+			return new FilterInputStream( input ) {
+
+				@Override
+				public int read() throws IOException {
+					int b = super.read();
+					Guard.this.read( b < 0 ? 0 : 1 );
+					return b;
+				}
+
+				@Override
+				public int read( byte[] buffer, int offset, int length ) throws IOException {
+					int count = super.read( buffer, offset, length );
+					Guard.this.read( count );
+					return count;
+				}
+			};
+		}
+	}
+
+}
@@ -0,0 +1,361 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+import ortus.boxlang.runtime.types.exceptions.BoxValidationException;
+import ortus.boxlang.runtime.validation.Validator;
+
+/**
+ * A module-wide registry of prebuilt, read-only Jsoup {@link Safelist} instances.
+ * <p>
+ * Every safelist is built once, in both its <code>preserveRelativeLinks</code> flavors, and then shared by all
+ * cleaning calls. Besides the Jsoup built-ins, custom named safelists can be declared in the module settings:
+ *
+ * <pre>
+ * settings = {
+ *     safelists = {
+ *         comments = {
+ *             base               = "basic",
+ *             tags               = [ "h1", "h2" ],
+ *             removeTags         = [ "img" ],
+ *             attributes         = { "a" : [ "title" ], ":all" : [ "class" ] },
+ *             protocols          = { "a" : { "href" : [ "https" ] } },
+ *             enforcedAttributes = { "a" : { "rel" : "nofollow" } }
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+public final class SafelistRegistry {
+
+	/**
+	 * The names of the safelists shipped with Jsoup
+	 */
+	public static final List<String>			BUILT_IN	= List.of( "none", "simpletext", "basic", "basicwithimages", "relaxed" );
+
+	private static volatile SafelistRegistry	instance;
+
+	/**
+	 * Registered safelists by lower-cased name, index 0 resolves links to absolute URLs, index 1 preserves relative links
+	 */
+	private final Map<String, Safelist[]>		safelists;
+
+	private SafelistRegistry( Map<String, Safelist[]> safelists ) {
+		this.safelists = Collections.unmodifiableMap( safelists );
+	}
+
+	/**
+	 * Get the registry, building it from the module settings on first use.
+	 *
+	 * @return The shared registry.
+	 */
+	public static SafelistRegistry getInstance() {
+		SafelistRegistry registry = instance;
+		if ( registry == null ) {
+			synchronized ( SafelistRegistry.class ) {
+				registry = instance;
+				if ( registry == null ) {
+					registry	= build( ModuleSettings.getStruct( KeyDictionary.safelists ) );
+					instance	= registry;
+				}
+			}
+		}
+		return registry;
+	}
+
+	/**
+	 * Rebuild the registry from the current module settings, picking up any changed custom safelists.
+	 *
+	 * @return The new registry.
+	 */
+	public static synchronized SafelistRegistry reload() {
+		instance = build( ModuleSettings.getStruct( KeyDictionary.safelists ) );
+		return instance;
+	}
+
+	/**
+	 * Build a registry with the built-in safelists plus the given custom definitions.
+	 *
+	 * @param definitions A struct of safelist name to safelist definition.
+	 *
+	 * @return A new registry.
+	 */
+	public static SafelistRegistry build( IStruct definitions ) {
+		Map<String, Safelist[]> safelists = new LinkedHashMap<>();
+		for ( String name : BUILT_IN ) {
+			safelists.put( name, freeze( builtIn( name ) ) );
+		}
+		for ( Key name : definitions.keySet() ) {
+			Object definition = definitions.get( name );
+			if ( ! ( definition instanceof IStruct struct ) ) {
+				throw new BoxRuntimeException( "The custom HTML Safelist [" + name.getName() + "] must be a struct" );
+			}
+			safelists.put( name.getName().toLowerCase(), freeze( fromDefinition( name.getName(), struct ) ) );
+		}
+		return new SafelistRegistry( safelists );
+	}
+
+	/**
+	 * Check if a safelist is registered.
+	 *
+	 * @param name The name of the safelist, case-insensitive.
+	 *
+	 * @return True if the safelist exists.
+	 */
+	public boolean has( String name ) {
+		return name != null && this.safelists.containsKey( name.toLowerCase() );
+	}
+
+	/**
+	 * Get the names of all the registered safelists.
+	 *
+	 * @return The lower-cased safelist names.
+	 */
+	public Set<String> names() {
+		return this.safelists.keySet();
+	}
+
+	/**
+	 * Resolve a shared safelist. The returned instance is read-only, any attempt to modify it throws.
+	 *
+	 * @param name                  The name of the safelist, case-insensitive.
+	 * @param preserveRelativeLinks Whether relative links are kept as-is or resolved to absolute URLs.
+	 *
+	 * @return The shared safelist.
+	 *
+	 * @throws BoxRuntimeException If the safelist is not registered.
+	 */
+	public Safelist get( String name, boolean preserveRelativeLinks ) {
+		Safelist[] flavors = this.safelists.get( name.toLowerCase() );
+		if ( flavors == null ) {
+			throw new BoxRuntimeException( "Unknown HTML Safelist: " + name );
+		}
+		return flavors[ preserveRelativeLinks ? 1 : 0 ];
+	}
+
+	/**
+	 * Get a Jsoup cleaner for a safelist. Cleaners hold no state of their own, so registered safelists share a single
+	 * cleaner each, created with them. Any other safelist gets a new one.
+	 *
+	 * @param safelist The safelist to clean with.
+	 *
+	 * @return A cleaner for the safelist.
+	 */
+	public static Cleaner cleaner( Safelist safelist ) {
+		return safelist instanceof ImmutableSafelist registered ? registered.cleaner : new Cleaner( safelist );
+	}
+
+	/**
+	 * A BIF argument validator that only accepts the names of the registered safelists.
+	 *
+	 * @return The validator.
+	 */
+	public static Validator validator() {
+		return ( context, caller, record, records ) -> {
+			Object value = records.get( record.name() );
+			if ( value != null && !getInstance().has( StringCaster.cast( value ) ) ) {
+				throw new BoxValidationException(
+				    "Argument [" + record.name().getName() + "] for BIF [" + caller.getName() + "] must be one of the following values: "
+				        + String.join( ", ", getInstance().names() )
+				);
+			}
+		};
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Build a fresh, mutable, Jsoup built-in safelist.
+	 *
+	 * @param name The lower-cased name of the built-in.
+	 *
+	 * @return The safelist, or null if the name is not a built-in.
+	 */
+	private static Safelist builtIn( String name ) {
+		return switch ( name ) {
+			case "none" -> Safelist.none();
+			case "simpletext" -> Safelist.simpleText();
+			case "basic" -> Safelist.basic();
+			case "basicwithimages" -> Safelist.basicWithImages();
+			case "relaxed" -> Safelist.relaxed();
+			default -> null;
+		};
+	}
+
+	/**
+	 * Build a safelist out of a custom definition struct.
+	 *
+	 * @param name       The name of the safelist, used for error messages.
+	 * @param definition The definition struct.
+	 *
+	 * @return The mutable safelist.
+	 */
+	private static Safelist fromDefinition( String name, IStruct definition ) {
+		Safelist safelist = new Safelist();
+
+		if ( definition.containsKey( KeyDictionary.base ) ) {
+			String base = StringCaster.cast( definition.get( KeyDictionary.base ) ).toLowerCase();
+			safelist = builtIn( base );
+			if ( safelist == null ) {
+				throw new BoxRuntimeException(
+				    "The custom HTML Safelist [" + name + "] extends an unknown base [" + base + "], valid bases are: " + String.join( ", ", BUILT_IN )
+				);
+			}
+		}
+
+		if ( definition.containsKey( KeyDictionary.tags ) ) {
+			safelist.addTags( toStrings( definition.get( KeyDictionary.tags ) ) );
+		}
+
+		IStruct attributes = ModuleSettings.getStruct( definition, KeyDictionary.attributes );
+		for ( Key tag : attributes.keySet() ) {
+			safelist.addAttributes( tag.getName(), toStrings( attributes.get( tag ) ) );
+		}
+
+		IStruct protocols = ModuleSettings.getStruct( definition, KeyDictionary.protocols );
+		for ( Key tag : protocols.keySet() ) {
+			IStruct tagProtocols = ModuleSettings.getStruct( protocols, tag );
+			for ( Key attribute : tagProtocols.keySet() ) {
+				safelist.addProtocols( tag.getName(), attribute.getName(), toStrings( tagProtocols.get( attribute ) ) );
+			}
+		}
+
+		IStruct enforced = ModuleSettings.getStruct( definition, KeyDictionary.enforcedAttributes );
+		for ( Key tag : enforced.keySet() ) {
+			IStruct tagEnforced = ModuleSettings.getStruct( enforced, tag );
+			for ( Key attribute : tagEnforced.keySet() ) {
+				safelist.addEnforcedAttribute( tag.getName(), attribute.getName(), StringCaster.cast( tagEnforced.get( attribute ) ) );
+			}
+		}
+
+		if ( definition.containsKey( KeyDictionary.removeTags ) ) {
+			safelist.removeTags( toStrings( definition.get( KeyDictionary.removeTags ) ) );
+		}
+
+		return safelist;
+	}
+
+	/**
+	 * Convert an array or a comma-delimited list into a string array.
+	 */
+	private static String[] toStrings( Object value ) {
+		if ( value instanceof Array array ) {
+			return array.stream().map( StringCaster::cast ).map( String::trim ).toArray( String[]::new );
+		}
+		return StringCaster.cast( value ).trim().split( "\\s*,\\s*" );
+	}
+
+	/**
+	 * Produce both read-only flavors of a safelist: absolute links and preserved relative links.
+	 */
+	private static Safelist[] freeze( Safelist source ) {
+		return new Safelist[] {
+		    freeze( source, false ),
+		    freeze( source, true )
+		};
+	}
+
+	private static Safelist freeze( Safelist source, boolean preserveRelativeLinks ) {
+		return new ImmutableSafelist( new Safelist( source ).preserveRelativeLinks( preserveRelativeLinks ) );
+	}
+
+	/**
+	 * A Safelist that can no longer be modified once constructed, so a single instance can be shared across threads.
+	 */
+	private static final class ImmutableSafelist extends Safelist {
+
+		private final boolean	frozen;
+		private final Cleaner	cleaner;
+
+		ImmutableSafelist( Safelist copy ) {
+			super( copy );
+			this.frozen		= true;
+			this.cleaner	= new Cleaner( this );
+		}
+
+		private Safelist guard( Supplier<Safelist> mutation ) {
+			if ( this.frozen ) {
+				throw new BoxRuntimeException( "Registered HTML Safelists are shared and read-only, modify a copy: new Safelist( safelist )" );
+			}
+			return mutation.get();
+		}
+
+		@Override
+		public Safelist addTags( String... tags ) {
+			return guard( () -> super.addTags( tags ) );
+		}
+
+		@Override
+		public Safelist removeTags( String... tags ) {
+			return guard( () -> super.removeTags( tags ) );
+		}
+
+		@Override
+		public Safelist addAttributes( String tag, String... attributes ) {
+			return guard( () -> super.addAttributes( tag, attributes ) );
+		}
+
+		@Override
+		public Safelist removeAttributes( String tag, String... attributes ) {
+			return guard( () -> super.removeAttributes( tag, attributes ) );
+		}
+
+		@Override
+		public Safelist addEnforcedAttribute( String tag, String attribute, String value ) {
+			return guard( () -> super.addEnforcedAttribute( tag, attribute, value ) );
+		}
+
+		@Override
+		public Safelist removeEnforcedAttribute( String tag, String attribute ) {
+			return guard( () -> super.removeEnforcedAttribute( tag, attribute ) );
+		}
+
+		@Override
+		public Safelist preserveRelativeLinks( boolean preserve ) {
+			return guard( () -> super.preserveRelativeLinks( preserve ) );
+		}
+
+		@Override
+		public Safelist addProtocols( String tag, String attribute, String... protocols ) {
+			return guard( () -> super.addProtocols( tag, attribute, protocols ) );
+		}
+
+		@Override
+		public Safelist removeProtocols( String tag, String attribute, String... removeProtocols ) {
+			return guard( () -> super.removeProtocols( tag, attribute, removeProtocols ) );
+		}
+
+	}
+
+}
@@ -0,0 +1,183 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A module-wide, bounded LRU cache of compiled CSS selectors.
+ * <p>
+ * Parsing a selector string into a Jsoup {@link Evaluator} is done on every <code>select()</code> call by default.
+ * Templates tend to run the same few selectors over and over, so the compiled evaluators are kept and shared by all
+ * threads, the least recently used ones being evicted once the cache is full. Its size is set by the
+ * <code>selectorCacheSize</code> module setting, 0 disabling the cache.
+ */
+public final class SelectorCache {
+
+	/**
+	 * The default number of compiled selectors kept
+	 */
+	public static final int					DEFAULT_SIZE	= 500;
+
+	private static volatile SelectorCache	instance;
+
+	private final int						maxSize;
+
+	/**
+	 * The compiled selectors in access order, guarded by its own monitor
+	 */
+	private final Map<String, Evaluator>	evaluators;
+
+	private final LongAdder					hits			= new LongAdder();
+	private final LongAdder					misses			= new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize The maximum number of compiled selectors to keep, 0 to disable caching.
+	 */
+	public SelectorCache( int maxSize ) {
+		this.maxSize	= Math.max( 0, maxSize );
+		this.evaluators	= new LinkedHashMap<>( 16, 0.75f, true ) {
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<String, Evaluator> eldest ) {
+				return size() > SelectorCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Get the cache, sizing it from the module settings on first use.
+	 *
+	 * @return The shared cache.
+	 */
+	public static SelectorCache getInstance() {
+		SelectorCache cache = instance;
+		if ( cache == null ) {
+			synchronized ( SelectorCache.class ) {
+				cache = instance;
+				if ( cache == null ) {
+					cache		= fromSettings();
+					instance	= cache;
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Replace the cache with an empty one sized from the current module settings.
+	 *
+	 * @return The new cache.
+	 */
+	public static synchronized SelectorCache reload() {
+		instance = fromSettings();
+		return instance;
+	}
+
+	/**
+	 * Get the compiled form of a CSS selector, compiling and caching it on a miss.
+	 *
+	 * @param selector The CSS selector.
+	 *
+	 * @return The compiled selector.
+	 *
+	 * @throws org.jsoup.select.Selector.SelectorParseException If the selector is invalid.
+	 */
+	public Evaluator get( String selector ) {
+		if ( this.maxSize == 0 ) {
+			this.misses.increment();
+			return QueryParser.parse( selector );
+		}
+
+		Evaluator evaluator;
+		synchronized ( this.evaluators ) {
+			evaluator = this.evaluators.get( selector );
+		}
+		if ( evaluator != null ) {
+			this.hits.increment();
+			return evaluator;
+		}
+
+		// Compile outside of the lock, a concurrent miss on the same selector only costs a redundant parse
+		this.misses.increment();
+		evaluator = QueryParser.parse( selector );
+		synchronized ( this.evaluators ) {
+			this.evaluators.putIfAbsent( selector, evaluator );
+		}
+		return evaluator;
+	}
+
+	/**
+	 * Drop all the compiled selectors, the counters are kept.
+	 */
+	public void clear() {
+		synchronized ( this.evaluators ) {
+			this.evaluators.clear();
+		}
+	}
+
+	public int size() {
+		synchronized ( this.evaluators ) {
+			return this.evaluators.size();
+		}
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * Get a snapshot of the cache statistics.
+	 *
+	 * @return A struct with the <code>size</code>, <code>maxSize</code>, <code>hits</code> and <code>misses</code> of the cache.
+	 */
+	public IStruct stats() {
+		return Struct.of(
+		    KeyDictionary.size, size(),
+		    KeyDictionary.maxSize, this.maxSize,
+		    KeyDictionary.hits, getHits(),
+		    KeyDictionary.misses, getMisses()
+		);
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static SelectorCache fromSettings() {
+		return new SelectorCache( ( int ) ModuleSettings.getLong( ModuleSettings.get(), KeyDictionary.selectorCacheSize, DEFAULT_SIZE ) );
+	}
+
+}
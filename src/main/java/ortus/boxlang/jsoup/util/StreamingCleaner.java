@@ -0,0 +1,196 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * Cleans an HTML document with a safelist while it is being parsed, writing the cleaned body to an output as it goes.
+ * <p>
+ * The document is read through the {@link HtmlEventStreamer}, so every node is dropped once it is handled and memory
+ * is bounded by the nesting depth of the document, not its size. Each element of the body is checked against the
+ * safelist as soon as it is opened: a safe element is written with its safe and enforced attributes, an unsafe one is
+ * dropped while its contents are kept, exactly like the Jsoup {@link Cleaner} does. Elements that a
+ * {@link HtmlCleaner#copiesUnchanged(Element, Safelist) would be copied unchanged} are written from the parsed element,
+ * any other safe element is run through the shared cleaner on its own.
+ * <p>
+ * The output is not pretty-printed: it matches the cleaned body serialized with <code>prettyPrint</code> off, the
+ * source whitespace preserved. Mis-nested markup the parser restructures after the fact may be split at other places
+ * than in a full clean, the output only ever holds safe markup.
+ */
+public final class StreamingCleaner implements HtmlEventHandler {
+
+	private final Safelist		safelist;
+	private final Appendable	out;
+
+	/**
+	 * Serializes the cleaned nodes one at a time, without pretty-printing
+	 */
+	private final Element		scratch;
+
+	/**
+	 * The end tag of each open element of the body, empty for void elements and null for dropped ones
+	 */
+	private final List<String>	endTags	= new ArrayList<>();
+
+	/**
+	 * Whether the body is open
+	 */
+	private boolean				inBody	= false;
+
+	private long				written	= 0;
+
+	private StreamingCleaner( Safelist safelist, Appendable out, Charset charset ) {
+		this.safelist	= safelist;
+		this.out		= out;
+		Document document = Document.createShell( "" );
+		document.outputSettings().prettyPrint( false ).charset( charset );
+		this.scratch = document.body();
+	}
+
+	/**
+	 * Clean an HTML document with a resolved safelist, writing the cleaned body to an output.
+	 *
+	 * @param input    The HTML to read. It is read incrementally and closed once done.
+	 * @param safelist The safelist to apply.
+	 * @param baseUri  The base URI to resolve relative links against.
+	 * @param out      The output to write the cleaned HTML to. It is neither flushed nor closed.
+	 * @param charset  The charset the output is encoded with, characters it cannot encode are written as entities.
+	 * @param limits   The limits to parse within.
+	 *
+	 * @return The number of characters written.
+	 *
+	 * @throws BoxRuntimeException If the output fails to accept the HTML.
+	 * @throws HtmlLimitException  If the input goes over a limit. What was cleaned so far is already written.
+	 */
+	public static long clean( Reader input, Safelist safelist, String baseUri, Appendable out, Charset charset, ParseLimits limits ) {
+		StreamingCleaner cleaner = new StreamingCleaner( safelist, out, charset );
+		HtmlEventStreamer.stream( input, HtmlCleaner.parseBaseUri( safelist, baseUri ), cleaner, limits );
+		return cleaner.written;
+	}
+
+	@Override
+	public boolean startTag( Element element ) {
+		if ( !this.inBody ) {
+			this.inBody = isBody( element );
+			return true;
+		}
+		if ( !this.safelist.isSafeTag( element.normalName() ) ) {
+			this.endTags.add( null );
+			return true;
+		}
+
+		String	html	= serialize( safeCopy( element ) );
+		String	endTag	= "</" + element.tagName() + ">";
+		if ( html.endsWith( endTag ) ) {
+			write( html.substring( 0, html.length() - endTag.length() ) );
+		} else {
+			// Void elements have no end tag
+			write( html );
+			endTag = "";
+		}
+		this.endTags.add( endTag );
+		return true;
+	}
+
+	@Override
+	public boolean endTag( Element element ) {
+		if ( this.endTags.isEmpty() ) {
+			// The body itself, anything after it is outside of the cleaned content
+			this.inBody = false;
+			return true;
+		}
+		String endTag = this.endTags.remove( this.endTags.size() - 1 );
+		if ( endTag != null ) {
+			write( endTag );
+		}
+		return true;
+	}
+
+	@Override
+	public boolean text( TextNode text ) {
+		if ( this.inBody ) {
+			// Copied like the cleaner does, so CDATA sections become escaped text
+			write( serialize( new TextNode( text.getWholeText() ) ) );
+		}
+		return true;
+	}
+
+	@Override
+	public boolean data( DataNode data ) {
+		if ( this.inBody && data.parent() instanceof Element parent && this.safelist.isSafeTag( parent.normalName() ) ) {
+			write( serialize( new DataNode( data.getWholeData() ) ) );
+		}
+		return true;
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	private static boolean isBody( Element element ) {
+		if ( !"body".equals( element.normalName() ) ) {
+			return false;
+		}
+		Document document = element.ownerDocument();
+		return document != null && document.body() == element;
+	}
+
+	/**
+	 * The element the cleaner would copy into the clean document, without its children
+	 */
+	private Element safeCopy( Element element ) {
+		if ( HtmlCleaner.copiesUnchanged( element, this.safelist ) ) {
+			return element.shallowClone();
+		}
+		// Cleaned on its own, within a document with the same base URI to resolve its links against
+		Document probe = Document.createShell( element.baseUri() );
+		probe.body().appendChild( element.shallowClone() );
+		return SafelistRegistry.cleaner( this.safelist ).clean( probe ).body().firstElementChild();
+	}
+
+	private String serialize( Node node ) {
+		this.scratch.appendChild( node );
+		String html = node.outerHtml();
+		node.remove();
+		return html;
+	}
+
+	private void write( String html ) {
+		try {
+			this.out.append( html );
+			this.written += html.length();
+		} catch ( IOException e ) {
+			throw new BoxRuntimeException( "Failed to write the cleaned HTML", e );
+		}
+	}
+
+}
@@ -0,0 +1,242 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+
+/**
+ * Runs a CSS selector over an HTML document while it is being parsed, keeping only the matches.
+ * <p>
+ * Elements are checked as the stream parser completes them. An element that neither matches, sits inside a match nor
+ * contains one is removed from the DOM right away, together with the text before it, so only the matches, their
+ * ancestors and the path to the currently open element are retained. The matches are finally detached from the
+ * document, which can then be collected.
+ * <p>
+ * Pruning is only correct when an element's match can be decided from the element itself and its ancestors. Selectors
+ * that look at children, text or siblings (<code>:has</code>, <code>:contains</code>, <code>:nth-child</code>,
+ * <code>+</code>, <code>~</code>, ...) are therefore run on the fully parsed document instead: the results are the
+ * same, only the memory savings are lost.
+ */
+public final class StreamingSelector {
+
+	/**
+	 * Selector fragments whose match depends on more than the element and its ancestors
+	 */
+	private static final String[]		NOT_STREAMABLE	= {
+	    ":has", ":contains", ":match", ":nth-", ":first-", ":last-", ":only-", ":empty", ":lt(", ":gt(", ":eq(", "+", "~"
+	};
+
+	private final Evaluator				evaluator;
+	private final int					limit;
+
+	/**
+	 * Whether each open element matches or sits inside a match, filled lazily
+	 */
+	private final Map<Element, Boolean>	insideMatch		= new IdentityHashMap<>();
+
+	/**
+	 * The open elements that contain a complete match, which must be kept when they complete
+	 */
+	private final Set<Element>			containsMatch	= Collections.newSetFromMap( new IdentityHashMap<>() );
+
+	/**
+	 * The number of complete matches found outside of any other match
+	 */
+	private int							outerMatches	= 0;
+
+	private StreamingSelector( Evaluator evaluator, int limit ) {
+		this.evaluator	= evaluator;
+		this.limit		= limit;
+	}
+
+	/**
+	 * Select the elements matching a selector from an HTML source, without retaining the rest of the document.
+	 *
+	 * @param input     The HTML to read. It is read incrementally and closed once done.
+	 * @param baseUri   The base URI of the document, used to resolve relative links.
+	 * @param selector  The CSS selector.
+	 * @param evaluator The compiled selector.
+	 * @param limit     The maximum number of matches to return, 0 for all of them. Parsing stops once they are found.
+	 *
+	 * @return The matches in document order, detached from the document.
+	 */
+	public static Elements select( Reader input, String baseUri, String selector, Evaluator evaluator, int limit ) {
+		Document document;
+		try ( StreamParser streamer = new StreamParser( Parser.htmlParser() ) ) {
+			streamer.parse( input, baseUri );
+			if ( isStreamable( selector ) ) {
+				StreamingSelector	pruner		= new StreamingSelector( evaluator, limit );
+				Iterator<Element>	elements	= streamer.stream().iterator();
+				while ( elements.hasNext() ) {
+					if ( !pruner.completed( elements.next() ) ) {
+						streamer.stop();
+						break;
+					}
+				}
+				document = streamer.document();
+			} else {
+				document = streamer.complete();
+			}
+		}
+		return detach( document.select( evaluator ), limit );
+	}
+
+	/**
+	 * Whether a selector can be evaluated while parsing, that is from an element and its ancestors only.
+	 *
+	 * @param selector The CSS selector.
+	 *
+	 * @return True if non-matching elements can be dropped as soon as they are complete.
+	 */
+	public static boolean isStreamable( String selector ) {
+		String normalized = selector.toLowerCase( Locale.ROOT );
+		for ( String fragment : NOT_STREAMABLE ) {
+			if ( normalized.contains( fragment ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Handles an element the parser has completed: keeps it if it belongs to a match, drops it otherwise.
+	 *
+	 * @return False once enough matches were found to stop parsing.
+	 */
+	private boolean completed( Element element ) {
+		if ( element instanceof Document ) {
+			return true;
+		}
+
+		Element	parent			= element.parent();
+		boolean	ancestorMatch	= isInsideMatch( parent );
+		boolean	matches			= !ancestorMatch && element.is( this.evaluator );
+		this.insideMatch.remove( element );
+
+		if ( ancestorMatch ) {
+			return true;
+		}
+		if ( matches ) {
+			keepAncestors( parent );
+			return this.limit <= 0 || ++this.outerMatches < this.limit;
+		}
+		if ( this.containsMatch.remove( element ) ) {
+			// Holds a match, keep it so the match stays in place for the final select
+			return true;
+		}
+
+		// Not part of any match: drop it along with the text that came before it
+		int index = element.siblingIndex();
+		element.remove();
+		for ( int i = index - 1; i >= 0; i-- ) {
+			Node sibling = parent.childNode( i );
+			if ( ! ( sibling instanceof Element ) ) {
+				sibling.remove();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Marks an element and its ancestors as containing a match, so they are not dropped when they complete.
+	 */
+	private void keepAncestors( Element element ) {
+		for ( Element node = element; node != null && ! ( node instanceof Document ); node = node.parent() ) {
+			if ( !this.containsMatch.add( node ) ) {
+				// The rest of the path is already marked
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Whether an open element matches or sits inside a match. Verdicts are cached until the element is completed.
+	 */
+	private boolean isInsideMatch( Element element ) {
+		// Climb to the nearest ancestor with a known verdict
+		List<Element>	unknown	= new ArrayList<>();
+		Boolean			known	= null;
+		for ( Element node = element; node != null && ! ( node instanceof Document ); node = node.parent() ) {
+			known = this.insideMatch.get( node );
+			if ( known != null ) {
+				break;
+			}
+			unknown.add( node );
+		}
+
+		// Then settle the verdicts on the way back down
+		boolean inside = known != null && known;
+		for ( int i = unknown.size() - 1; i >= 0; i-- ) {
+			Element node = unknown.get( i );
+			inside = inside || node.is( this.evaluator );
+			this.insideMatch.put( node, inside );
+		}
+		return inside;
+	}
+
+	/**
+	 * Detaches the outermost matches from the document. Nested matches stay inside their outer match, like a regular select.
+	 */
+	private static Elements detach( Elements matches, int limit ) {
+		Elements	detached	= new Elements();
+		Element		outer		= null;
+		for ( Element match : matches ) {
+			if ( match instanceof Document ) {
+				continue;
+			}
+			if ( limit > 0 && detached.size() >= limit ) {
+				break;
+			}
+			if ( outer == null || !isDescendant( match, outer ) ) {
+				match.remove();
+				outer = match;
+			}
+			detached.add( match );
+		}
+		return detached;
+	}
+
+	private static boolean isDescendant( Element element, Element ancestor ) {
+		for ( Element node = element.parent(); node != null; node = node.parent() ) {
+			if ( node == ancestor ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,539 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Query;
+import ortus.boxlang.runtime.types.QueryColumnType;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+/**
+ * Turns an HTML table into a BoxLang {@link Query}, one table row at a time.
+ * <p>
+ * Cells spanning several columns or rows are repeated in every column and row they cover, so each query row holds the
+ * values a reader sees on that line of the table. Column names come from the header rows, the explicit column names,
+ * or default to <code>column1</code>, <code>column2</code>, ... Column types are inferred from the values when asked:
+ * integer, decimal and boolean columns get typed values, anything else stays a string.
+ * <p>
+ * Tables are read either from a parsed document, or from an HTML stream: rows are then converted as the parser
+ * completes them and removed from the DOM right away, along with everything outside the table, so only the current
+ * row is ever held as nodes. Without type inference the rows go straight into the query; with it, the converted values
+ * are kept until the table ends, since the type of a column depends on all of its values.
+ */
+public class TableQueryBuilder {
+
+	/**
+	 * How header rows are detected
+	 */
+	public enum HeaderMode {
+		/**
+		 * The rows of the <code>thead</code>, and leading rows made of <code>th</code> cells only
+		 */
+		AUTO,
+		/**
+		 * The rows of the <code>thead</code>, or else the first row
+		 */
+		FIRST_ROW,
+		/**
+		 * No header rows, every row is data
+		 */
+		NONE
+	}
+
+	/**
+	 * The largest spans honored, same as browsers
+	 */
+	private static final int			MAX_COLSPAN		= 1_000;
+	private static final int			MAX_ROWSPAN		= 65_534;
+
+	private static final Pattern		INTEGER			= Pattern.compile( "-?(0|[1-9]\\d{0,17})" );
+	private static final Pattern		DECIMAL			= Pattern.compile( "-?(0|[1-9]\\d*)(\\.\\d+)?([eE][-+]?\\d{1,3})?" );
+
+	private final HeaderMode			headerMode;
+	private final List<String>			columns;
+	private final boolean				inferTypes;
+	private final int					maxRows;
+
+	/**
+	 * The header rows seen before the first data row
+	 */
+	private final List<List<String>>	headerRows		= new ArrayList<>();
+
+	/**
+	 * The column names, settled by the first data row and extended by wider rows
+	 */
+	private List<String>				names;
+	private final Set<String>			usedNames		= new HashSet<>();
+
+	/**
+	 * The data rows kept until the table ends to infer the column types
+	 */
+	private final List<Object[]>		rows			= new ArrayList<>();
+
+	/**
+	 * The query filled as the rows come, when the column types are not inferred
+	 */
+	private Query						query;
+	private int							rowCount		= 0;
+
+	/**
+	 * The row group of the last row, and the cells spanning down from its rows
+	 */
+	private Element						group;
+	private String[]					carriedValues	= new String[ 0 ];
+	private int[]						carriedRows		= new int[ 0 ];
+
+	/**
+	 * Constructor
+	 *
+	 * @param headerMode How header rows are detected.
+	 * @param columns    The column names to use, in order, over the header names. May be empty.
+	 * @param inferTypes Whether to infer integer, decimal and boolean column types from the values.
+	 * @param maxRows    The maximum number of data rows to read, 0 for all of them.
+	 */
+	public TableQueryBuilder( HeaderMode headerMode, List<String> columns, boolean inferTypes, int maxRows ) {
+		this.headerMode	= headerMode;
+		this.columns	= columns;
+		this.inferTypes	= inferTypes;
+		this.maxRows	= Math.max( 0, maxRows );
+	}
+
+	/**
+	 * Convert the first table matching a selector in a parsed document or element, the element itself included.
+	 *
+	 * @param root      The document or element to search.
+	 * @param selector  The CSS selector, for error messages.
+	 * @param evaluator The compiled selector.
+	 *
+	 * @return The query holding the rows of the table.
+	 *
+	 * @throws BoxRuntimeException If no table matches the selector.
+	 */
+	public Query build( Element root, String selector, Evaluator evaluator ) {
+		Element table = null;
+		for ( Element match : root.select( evaluator ) ) {
+			if ( isTable( match ) ) {
+				table = match;
+				break;
+			}
+		}
+		if ( table == null ) {
+			throw noTable( selector );
+		}
+
+		for ( Element child : table.children() ) {
+			if ( isRowGroup( child ) ) {
+				for ( Element row : child.children() ) {
+					if ( isRow( row ) && !addRow( row ) ) {
+						return toQuery();
+					}
+				}
+			} else if ( isRow( child ) && !addRow( child ) ) {
+				return toQuery();
+			}
+		}
+		return toQuery();
+	}
+
+	/**
+	 * Convert the first table matching a selector while an HTML source is parsed, without building its DOM.
+	 * Selectors that cannot be evaluated while parsing, see {@link StreamingSelector#isStreamable(String)}, are run
+	 * on the fully parsed document instead.
+	 *
+	 * @param input     The HTML to read. It is read incrementally and closed once done.
+	 * @param baseUri   The base URI of the document.
+	 * @param selector  The CSS selector.
+	 * @param evaluator The compiled selector.
+	 *
+	 * @return The query holding the rows of the table.
+	 *
+	 * @throws BoxRuntimeException If no table matches the selector.
+	 */
+	public Query build( Reader input, String baseUri, String selector, Evaluator evaluator ) {
+		Element target = null;
+		try ( StreamParser streamer = new StreamParser( Parser.htmlParser() ) ) {
+			streamer.parse( input, baseUri );
+			if ( !StreamingSelector.isStreamable( selector ) ) {
+				Document document = streamer.complete();
+				return build( document, selector, evaluator );
+			}
+
+			Iterator<Element> elements = streamer.stream().iterator();
+			while ( elements.hasNext() ) {
+				Element element = elements.next();
+				if ( element instanceof Document ) {
+					// The stream ends with the document itself, the table is not in it
+					break;
+				}
+				// The table is complete, or was matched without any row
+				if ( element == target || ( target == null && isTable( element ) && isOutermostMatch( element, evaluator ) ) ) {
+					target = element;
+					streamer.stop();
+					break;
+				}
+				if ( isRow( element ) ) {
+					Element table = tableOf( element );
+					if ( table != null && ( table == target || ( target == null && isOutermostMatch( table, evaluator ) ) ) ) {
+						target = table;
+						boolean more = addRow( element );
+						prune( element );
+						if ( !more ) {
+							streamer.stop();
+							break;
+						}
+						continue;
+					}
+				}
+				// Anything completed outside of a table can never be part of the target
+				if ( target == null && !isInsideTable( element ) ) {
+					prune( element );
+				}
+			}
+		}
+		if ( target == null ) {
+			throw noTable( selector );
+		}
+		return toQuery();
+	}
+
+	/**
+	 * ----------------------------------------------------------------
+	 * Private Methods
+	 * ----------------------------------------------------------------
+	 */
+
+	/**
+	 * Adds a table row, as a header or data row.
+	 *
+	 * @return False once the maximum number of data rows is reached.
+	 */
+	private boolean addRow( Element row ) {
+		Element rowGroup = row.parent();
+		if ( rowGroup != this.group ) {
+			// Row spans never cross row groups
+			this.group = rowGroup;
+			Arrays.fill( this.carriedRows, 0 );
+		}
+
+		boolean			headerCells	= true;
+		List<String>	values		= new ArrayList<>();
+		int				column		= 0;
+		for ( Element cell : row.children() ) {
+			String name = cell.normalName();
+			if ( !name.equals( "td" ) && !name.equals( "th" ) ) {
+				continue;
+			}
+			headerCells = headerCells && name.equals( "th" );
+			column = takeCarried( values, column, false );
+
+			String	text	= cell.text();
+			int		colspan	= span( cell, "colspan", MAX_COLSPAN );
+			int		rowspan	= span( cell, "rowspan", MAX_ROWSPAN );
+			for ( int i = 0; i < colspan; i++, column++ ) {
+				values.add( text );
+				if ( rowspan > 1 ) {
+					carry( column, text, rowspan - 1 );
+				}
+			}
+		}
+		takeCarried( values, column, true );
+		while ( !values.isEmpty() && values.get( values.size() - 1 ) == null ) {
+			values.remove( values.size() - 1 );
+		}
+
+		if ( this.names == null && isHeader( rowGroup, headerCells && !values.isEmpty() ) ) {
+			this.headerRows.add( values );
+			return true;
+		}
+		addData( values );
+		return this.maxRows == 0 || this.rowCount < this.maxRows;
+	}
+
+	private boolean isHeader( Element rowGroup, boolean headerCells ) {
+		boolean inHead = rowGroup != null && rowGroup.normalName().equals( "thead" );
+		return switch ( this.headerMode ) {
+			case AUTO -> inHead || headerCells;
+			case FIRST_ROW -> inHead || this.headerRows.isEmpty();
+			case NONE -> false;
+		};
+	}
+
+	private void addData( List<String> values ) {
+		if ( this.names == null ) {
+			settleNames( values.size() );
+		}
+		for ( int i = this.names.size(); i < values.size(); i++ ) {
+			addName( null, i );
+		}
+
+		Object[] row = Arrays.copyOf( values.toArray(), this.names.size() );
+		if ( this.query != null ) {
+			this.query.addRow( row );
+		} else {
+			this.rows.add( row );
+		}
+		this.rowCount++;
+	}
+
+	/**
+	 * Names the columns from the explicit names, then the header rows, then their position
+	 */
+	private void settleNames( int dataWidth ) {
+		int width = Math.max( dataWidth, this.columns.size() );
+		for ( List<String> header : this.headerRows ) {
+			width = Math.max( width, header.size() );
+		}
+
+		this.names = new ArrayList<>( width );
+		if ( !this.inferTypes ) {
+			this.query = new Query();
+		}
+		for ( int i = 0; i < width; i++ ) {
+			if ( i < this.columns.size() && !this.columns.get( i ).isBlank() ) {
+				addName( this.columns.get( i ), i );
+				continue;
+			}
+			// Stacked header rows are joined, spanning cells only count once
+			Set<String> parts = new LinkedHashSet<>();
+			for ( List<String> header : this.headerRows ) {
+				if ( i < header.size() && header.get( i ) != null && !header.get( i ).isBlank() ) {
+					parts.add( header.get( i ) );
+				}
+			}
+			addName( String.join( " ", parts ), i );
+		}
+	}
+
+	private void addName( String name, int index ) {
+		if ( name == null || name.isBlank() ) {
+			name = "column" + ( index + 1 );
+		}
+		// Query columns are case insensitive
+		String unique = name;
+		for ( int n = 2; !this.usedNames.add( unique.toLowerCase( Locale.ROOT ) ); n++ ) {
+			unique = name + "_" + n;
+		}
+		this.names.add( unique );
+		if ( this.query != null ) {
+			this.query.addColumn( Key.of( unique ), QueryColumnType.VARCHAR );
+		}
+	}
+
+	/**
+	 * Builds the query, inferring the column types from all the kept rows if asked to
+	 */
+	private Query toQuery() {
+		if ( this.names == null ) {
+			settleNames( 0 );
+		}
+		if ( this.query != null ) {
+			return this.query;
+		}
+
+		int					width	= this.names.size();
+		QueryColumnType[]	types	= new QueryColumnType[ width ];
+		Query				result	= new Query();
+		for ( int i = 0; i < width; i++ ) {
+			types[ i ] = inferType( i );
+			result.addColumn( Key.of( this.names.get( i ) ), types[ i ] );
+		}
+		for ( Object[] row : this.rows ) {
+			Object[] values = new Object[ width ];
+			for ( int i = 0; i < row.length; i++ ) {
+				values[ i ] = convert( ( String ) row[ i ], types[ i ] );
+			}
+			result.addRow( values );
+		}
+		this.rows.clear();
+		return result;
+	}
+
+	private QueryColumnType inferType( int column ) {
+		boolean	any			= false;
+		boolean	integers	= true;
+		boolean	ints		= true;
+		boolean	decimals	= true;
+		boolean	booleans	= true;
+		for ( Object[] row : this.rows ) {
+			String value = column < row.length ? ( String ) row[ column ] : null;
+			if ( value == null || value.isEmpty() ) {
+				continue;
+			}
+			any = true;
+			if ( integers && INTEGER.matcher( value ).matches() ) {
+				ints = ints && value.length() <= 10 && Long.parseLong( value ) == ( int ) Long.parseLong( value );
+			} else {
+				integers = false;
+			}
+			decimals	= decimals && DECIMAL.matcher( value ).matches();
+			booleans	= booleans && ( value.equalsIgnoreCase( "true" ) || value.equalsIgnoreCase( "false" ) );
+			if ( !integers && !decimals && !booleans ) {
+				return QueryColumnType.VARCHAR;
+			}
+		}
+		if ( !any ) {
+			return QueryColumnType.VARCHAR;
+		}
+		if ( integers ) {
+			return ints ? QueryColumnType.INTEGER : QueryColumnType.BIGINT;
+		}
+		return decimals ? QueryColumnType.DOUBLE : QueryColumnType.BIT;
+	}
+
+	private static Object convert( String value, QueryColumnType type ) {
+		if ( type == QueryColumnType.VARCHAR || value == null ) {
+			return value;
+		}
+		if ( value.isEmpty() ) {
+			return null;
+		}
+		return switch ( type ) {
+			case INTEGER -> Integer.valueOf( value );
+			case BIGINT -> Long.valueOf( value );
+			case DOUBLE -> Double.valueOf( value );
+			default -> Boolean.valueOf( value );
+		};
+	}
+
+	/**
+	 * Adds the values spanning down from previous rows, from the given column on.
+	 *
+	 * @param toEnd Whether to go on past columns without a spanning value, to finish the row.
+	 *
+	 * @return The next free column.
+	 */
+	private int takeCarried( List<String> values, int column, boolean toEnd ) {
+		for ( ; column < this.carriedRows.length; column++ ) {
+			if ( this.carriedRows[ column ] > 0 ) {
+				this.carriedRows[ column ]--;
+				values.add( this.carriedValues[ column ] );
+			} else if ( toEnd ) {
+				values.add( null );
+			} else {
+				break;
+			}
+		}
+		return column;
+	}
+
+	private void carry( int column, String value, int rows ) {
+		if ( column >= this.carriedRows.length ) {
+			int size = Math.max( column + 1, this.carriedRows.length * 2 );
+			this.carriedRows	= Arrays.copyOf( this.carriedRows, size );
+			this.carriedValues	= Arrays.copyOf( this.carriedValues, size );
+		}
+		this.carriedRows[ column ]		= rows;
+		this.carriedValues[ column ]	= value;
+	}
+
+	private static int span( Element cell, String attribute, int max ) {
+		String value = cell.attr( attribute ).trim();
+		if ( value.isEmpty() ) {
+			return 1;
+		}
+		try {
+			return Math.min( max, Math.max( 1, Integer.parseInt( value ) ) );
+		} catch ( NumberFormatException e ) {
+			return 1;
+		}
+	}
+
+	/**
+	 * Whether a table is the outermost one matching the selector, so nested tables stay inside its cells
+	 */
+	private static boolean isOutermostMatch( Element table, Evaluator evaluator ) {
+		if ( !table.is( evaluator ) ) {
+			return false;
+		}
+		for ( Element ancestor = table.parent(); ancestor != null; ancestor = ancestor.parent() ) {
+			if ( isTable( ancestor ) && ancestor.is( evaluator ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The table a row belongs to, or null for a stray row
+	 */
+	private static Element tableOf( Element row ) {
+		Element parent = row.parent();
+		if ( parent != null && isRowGroup( parent ) ) {
+			parent = parent.parent();
+		}
+		return parent != null && isTable( parent ) ? parent : null;
+	}
+
+	private static boolean isInsideTable( Element element ) {
+		for ( Element ancestor = element.parent(); ancestor != null; ancestor = ancestor.parent() ) {
+			if ( isTable( ancestor ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Drops a completed element from the DOM, along with the text right before it
+	 */
+	private static void prune( Element element ) {
+		Element	parent	= element.parent();
+		int		index	= element.siblingIndex();
+		element.remove();
+		for ( int i = index - 1; i >= 0; i-- ) {
+			Node sibling = parent.childNode( i );
+			if ( sibling instanceof Element ) {
+				break;
+			}
+			sibling.remove();
+		}
+	}
+
+	private static boolean isTable( Element element ) {
+		return element.normalName().equals( "table" );
+	}
+
+	private static boolean isRowGroup( Element element ) {
+		String name = element.normalName();
+		return name.equals( "thead" ) || name.equals( "tbody" ) || name.equals( "tfoot" );
+	}
+
+	private static boolean isRow( Element element ) {
+		return element.normalName().equals( "tr" );
+	}
+
+	private static BoxRuntimeException noTable( String selector ) {
+		return new BoxRuntimeException( "No table matches the selector [" + selector + "]" );
+	}
+
+}
@@ -0,0 +1,133 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.jsoup.util;
+
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import ortus.boxlang.runtime.types.IStruct;
+
+/**
+ * Safety limits applied by every document walk the module performs (JSON, XML and any other exporter).
+ * <p>
+ * The walks themselves never recurse, so arbitrarily deep documents cannot overflow the stack. These limits
+ * exist to fail fast, with a clear error, on documents that are too deep or too large to be worth exporting.
+ * They are configured through the <code>limits</code> module setting, a value of 0 meaning unlimited.
+ */
+public final class TraversalLimits {
+
+	/**
+	 * No limits at all
+	 */
+	public static final TraversalLimits	UNLIMITED	= new TraversalLimits( 0, 0 );
+
+	private final int					maxDepth;
+	private final long					maxNodes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxDepth The maximum nesting depth below the starting node, 0 for unlimited.
+	 * @param maxNodes The maximum number of nodes visited, 0 for unlimited.
+	 */
+	public TraversalLimits( int maxDepth, long maxNodes ) {
+		this.maxDepth	= maxDepth;
+		this.maxNodes	= maxNodes;
+	}
+
+	/**
+	 * Get the limits configured in the <code>limits</code> module setting.
+	 *
+	 * @return The configured limits.
+	 */
+	public static TraversalLimits fromSettings() {
+		IStruct	limits		= ModuleSettings.getStruct( KeyDictionary.limits );
+		int		maxDepth	= ( int ) ModuleSettings.getLong( limits, KeyDictionary.maxDepth, 0 );
+		long	maxNodes	= ModuleSettings.getLong( limits, KeyDictionary.maxNodes, 0 );
+		return maxDepth <= 0 && maxNodes <= 0 ? UNLIMITED : new TraversalLimits( maxDepth, maxNodes );
+	}
+
+	/**
+	 * Whether no limit is set at all.
+	 *
+	 * @return True if unlimited.
+	 */
+	public boolean isUnlimited() {
+		return this.maxDepth <= 0 && this.maxNodes <= 0;
+	}
+
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	public long getMaxNodes() {
+		return this.maxNodes;
+	}
+
+	/**
+	 * Wrap a visitor so the limits are enforced while it walks the tree.
+	 *
+	 * @param delegate The visitor doing the actual work.
+	 *
+	 * @return The guarded visitor, or the delegate itself when unlimited.
+	 */
+	public NodeVisitor guard( NodeVisitor delegate ) {
+		if ( isUnlimited() ) {
+			return delegate;
+		}
+		return new NodeVisitor() {
+
+			private long nodes = 0;
+
+			@Override
+			public void head( Node node, int depth ) {
+				if ( maxDepth > 0 && depth > maxDepth ) {
+					throw new HtmlLimitException(
+					    KeyDictionary.maxDepth.getName(),
+					    "The HTML document is nested deeper than the allowed maximum of " + maxDepth + " levels (limits.maxDepth module setting)"
+					);
+				}
+				if ( maxNodes > 0 && ++this.nodes > maxNodes ) {
+					throw new HtmlLimitException(
+					    KeyDictionary.maxNodes.getName(),
+					    "The HTML document holds more than the allowed maximum of " + maxNodes + " nodes (limits.maxNodes module setting)"
+					);
+				}
+				delegate.head( node, depth );
+			}
+
+			@Override
+			public void tail( Node node, int depth ) {
+				delegate.tail( node, depth );
+			}
+		};
+	}
+
+	/**
+	 * Walk a tree only to check it against the limits, for exporters that delegate the actual walk to Jsoup.
+	 *
+	 * @param root The node to start from.
+	 *
+	 * @throws HtmlLimitException If a limit is exceeded.
+	 */
+	public void check( Node root ) {
+		if ( !isUnlimited() ) {
+			NodeTraversor.traverse( guard( ( node, depth ) -> {
+			} ), root );
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class HtmlCacheStatsTest extends BaseIntegrationTest {
+
+	@DisplayName( "It reports the hits and misses of the selector cache" )
+	@Test
+	public void testSelectorCacheStats() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    before = htmlCacheStats().selectors;
+			    doc = htmlParse( "<p class='stats-test'>One</p><p class='stats-test'>Two</p>" );
+			    for ( i = 1; i <= 3; i++ ) {
+			        doc.select( "p.stats-test" );
+			    }
+			    result = {
+			        before : before,
+			        after  : htmlCacheStats().selectors
+			    };
+		    """,
+		    context );
+		// @formatter:on
+
+		IStruct	stats	= variables.getAsStruct( result );
+		IStruct	before	= stats.getAsStruct( Key.of( "before" ) );
+		IStruct	after	= stats.getAsStruct( Key.of( "after" ) );
+
+		assertThat( after.getAsLong( KeyDictionary.misses ) - before.getAsLong( KeyDictionary.misses ) ).isEqualTo( 1 );
+		assertThat( after.getAsLong( KeyDictionary.hits ) - before.getAsLong( KeyDictionary.hits ) ).isEqualTo( 2 );
+		assertThat( after.getAsInteger( KeyDictionary.maxSize ) ).isEqualTo( 500 );
+	}
+
+	@DisplayName( "It reports the clean cache, disabled by default" )
+	@Test
+	public void testCleanCacheStats() {
+		runtime.executeSource( "result = htmlCacheStats().clean", context );
+
+		IStruct stats = variables.getAsStruct( result );
+		assertThat( stats.getAsBoolean( KeyDictionary.enabled ) ).isFalse();
+		assertThat( stats.getAsLong( KeyDictionary.maxBytes ) ).isEqualTo( 16_777_216L );
+		assertThat( stats.getAsLong( KeyDictionary.maxEntryBytes ) ).isEqualTo( 65_536L );
+		assertThat( stats.getAsInteger( KeyDictionary.size ) ).isEqualTo( 0 );
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class HtmlCleanAllTest extends BaseIntegrationTest {
+
+	@DisplayName( "It cleans a batch in parallel and keeps the original order" )
+	@Test
+	public void testHtmlCleanAll() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    fragments = [];
+			    for ( i = 1; i <= 2000; i++ ) {
+			        fragments.append( "<p onclick='x()'>Item #i#<script>alert(#i#)</script></p>" );
+			    }
+			    result = htmlCleanAll( items: fragments, safeList: "basic", parallelism: 8 );
+		    """,
+		    context );
+		// @formatter:on
+
+		Array results = variables.getAsArray( result );
+		assertThat( results.size() ).isEqualTo( 2000 );
+		for ( int i = 0; i < results.size(); i++ ) {
+			String expected = Jsoup.clean( "<p onclick='x()'>Item " + ( i + 1 ) + "<script>alert(1)</script></p>", Safelist.basic() );
+			assertThat( results.get( i ) ).isEqualTo( expected );
+		}
+	}
+
+	@DisplayName( "It cleans a query column" )
+	@Test
+	public void testHtmlCleanAllQuery() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    comments = queryNew( "id,body", "integer,varchar", [
+			        [ 1, "<b>Bold</b><img src='x.png'>" ],
+			        [ 2, "" ],
+			        [ 3, "<i>Italic</i>" ]
+			    ] );
+			    result = htmlCleanAll( items: comments, column: "body", safeList: "simpletext" );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( result ) ).containsExactly( "<b>Bold</b>", "", "<i>Italic</i>" ).inOrder();
+	}
+
+	@DisplayName( "It fails fast or collects the errors per item" )
+	@Test
+	public void testHtmlCleanAllErrors() {
+		// @formatter:off
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource(
+		    """
+			    result = htmlCleanAll( [ "<p>ok</p>", { notHtml : true }, "<p>ok too</p>" ] );
+		    """,
+		    context ) );
+
+		runtime.executeSource(
+		    """
+			    result = htmlCleanAll( items: [ "<p>ok</p>", { notHtml : true }, "<p>ok too</p>" ], errors: "collect" );
+		    """,
+		    context );
+		// @formatter:on
+
+		IStruct	batch	= variables.getAsStruct( result );
+		Array	results	= batch.getAsArray( KeyDictionary.results );
+		Array	errors	= batch.getAsArray( KeyDictionary.errors );
+		assertThat( results.size() ).isEqualTo( 3 );
+		assertThat( results.get( 0 ) ).isEqualTo( "<p>ok</p>" );
+		assertThat( results.get( 1 ) ).isNull();
+		assertThat( results.get( 2 ) ).isEqualTo( "<p>ok too</p>" );
+		assertThat( errors.size() ).isEqualTo( 1 );
+		assertThat( ( ( IStruct ) errors.get( 0 ) ).get( KeyDictionary.index ) ).isEqualTo( 2 );
+	}
+
+}
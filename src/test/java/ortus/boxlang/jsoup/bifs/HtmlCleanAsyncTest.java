@@ -0,0 +1,64 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+
+public class HtmlCleanAsyncTest extends BaseIntegrationTest {
+
+	@DisplayName( "It cleans HTML in the background into the same output as htmlClean()" )
+	@Test
+	public void testHtmlCleanAsync() {
+		variables.put( "html", "<p onclick='x()'>Hello <b>World</b><script>alert('XSS')</script> <a href='/about'>About</a></p>" );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    futures = [
+			        htmlCleanAsync( html ),
+			        htmlCleanAsync( html, "basic" ),
+			        htmlCleanAsync( html: html, safeList: "basic", baseUri: "https://example.com/" ),
+			        htmlCleanAsync( html: charsetDecode( html, "UTF-8" ), safeList: "none" )
+			    ];
+			    expected = [
+			        htmlClean( html ),
+			        htmlClean( html, "basic" ),
+			        htmlClean( html: html, safeList: "basic", baseUri: "https://example.com/" ),
+			        htmlClean( html: charsetDecode( html, "UTF-8" ), safeList: "none" )
+			    ];
+			    result = futures.map( ( future ) => future.get() );
+		    """,
+		    context );
+		// @formatter:on
+
+		Array	cleaned		= variables.getAsArray( result );
+		Array	expected	= variables.getAsArray( Key.of( "expected" ) );
+		for ( int i = 0; i < expected.size(); i++ ) {
+			assertThat( cleaned.get( i ) ).isEqualTo( expected.get( i ) );
+		}
+		assertThat( ( String ) cleaned.get( 2 ) ).contains( "https://example.com/about" );
+		assertThat( ( String ) cleaned.get( 2 ) ).doesNotContain( "script" );
+	}
+
+}
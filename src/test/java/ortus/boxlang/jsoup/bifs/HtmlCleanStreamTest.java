@@ -0,0 +1,249 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.HtmlLimitException;
+import ortus.boxlang.jsoup.util.SafelistRegistry;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class HtmlCleanStreamTest extends BaseIntegrationTest {
+
+	private static final String[]	SNIPPETS	= {
+	    "<p>Hello <b>world</b> <script>alert(1)</script><a href='http://x.com/a' onclick='evil()'>link</a></p>",
+	    "<html><head><title>T</title><style>p {}</style></head><body>\n<div class=x><p>one<br>two<img src='/a.png' alt=y></p></div>\n<!-- c --><table><tr><td>c</td></tr></table></body></html>",
+	    "<p>a &amp; b &lt; c &nbsp; d é € 😀</p><a href='rel/x'>r</a><a href='javascript:alert(1)'>j</a>",
+	    "<ul><li>1<li>2</ul><pre>  keep\n  spaces </pre><textarea>a<b></textarea><svg><circle r=1></circle></svg>",
+	    "<blockquote cite='http://a.b/c'>q</blockquote><a href='http://a.b'>ext</a><iframe src='x'></iframe>",
+	    "plain text only",
+	    ""
+	};
+
+	@TempDir
+	Path							tempDir;
+
+	@DisplayName( "It writes the same cleaned HTML as the Jsoup cleaner, for every safelist" )
+	@Test
+	public void testSameAsCleaner() {
+		for ( String safelistName : SafelistRegistry.BUILT_IN ) {
+			for ( boolean preserveRelativeLinks : new boolean[] { false, true } ) {
+				for ( String html : SNIPPETS ) {
+					StringWriter output = new StringWriter();
+					variables.put( "html", html );
+					variables.put( "output", output );
+					variables.put( "safelist", safelistName );
+					variables.put( "preserve", preserveRelativeLinks );
+					// @formatter:off
+					runtime.executeSource(
+					    """
+						    result = htmlCleanStream( html, output, safelist, preserve, "http://example.com/dir/" );
+					    """,
+					    context );
+					// @formatter:on
+
+					Safelist	safelist	= SafelistRegistry.getInstance().get( safelistName, preserveRelativeLinks );
+					String		expected	= clean( html, safelist, "http://example.com/dir/" );
+					assertThat( output.toString() ).isEqualTo( expected );
+					assertThat( variables.get( result ) ).isEqualTo( ( long ) expected.length() );
+				}
+			}
+		}
+	}
+
+	@DisplayName( "It writes to streams and files" )
+	@Test
+	public void testOutputs() throws IOException {
+		ByteArrayOutputStream	stream	= new ByteArrayOutputStream();
+		Path					file	= this.tempDir.resolve( "cleaned.html" );
+		Path					source	= this.tempDir.resolve( "upload.html" );
+		Files.writeString( source, "<p onclick='x()'>Ünïcode <script>bad()</script><b>bold</b></p>", StandardCharsets.ISO_8859_1 );
+		variables.put( "stream", stream );
+		variables.put( "file", file.toString() );
+		variables.put( "source", source.toString() );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    toStream = htmlCleanStream( output: stream, safeList: "basic", charset: "ISO-8859-1", file: source );
+			    toFile   = htmlCleanStream( html: "<i>€</i><img src='x.png'>", output: file, safeList: "simpletext" );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( stream.toString( StandardCharsets.ISO_8859_1 ) ).isEqualTo( "<p>Ünïcode <b>bold</b></p>" );
+		assertThat( Files.readString( file ) ).isEqualTo( "<i>€</i>" );
+		assertThat( variables.get( Key.of( "toFile" ) ) ).isEqualTo( 8L );
+
+		// Characters the output charset cannot encode are written as entities
+		stream.reset();
+		runtime.executeSource( "htmlCleanStream( '<p>€ and é</p>', stream, 'basic', false, '', 'US-ASCII' )", context );
+		assertThat( stream.toString( StandardCharsets.US_ASCII ) ).isEqualTo( "<p>&#x20ac; and &eacute;</p>" );
+
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "htmlCleanStream( '<p>x</p>', stream, 'nosuchlist' )", context ) );
+	}
+
+	@DisplayName( "It never reads html strings as file paths" )
+	@Test
+	public void testHtmlIsNeverAPath() throws IOException {
+		Path source = this.tempDir.resolve( "secret.txt" );
+		Files.writeString( source, "top secret" );
+		StringWriter output = new StringWriter();
+		variables.put( "source", source.toString() );
+		variables.put( "output", output );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    htmlCleanStream( source, output, "none" );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( output.toString() ).isEqualTo( source.toString() );
+	}
+
+	@DisplayName( "It cleans within the parse limits" )
+	@Test
+	public void testLimits() {
+		variables.put( "input", new GeneratedHtml( 1_000 ) );
+		variables.put( "output", new CountingWriter() );
+
+		HtmlLimitException e = assertThrows(
+		    HtmlLimitException.class,
+		    () -> runtime.executeSource( "htmlCleanStream( html: input, output: output, limits: { maxInputBytes: 10000 } )", context )
+		);
+		assertThat( e.getLimit() ).isEqualTo( "maxInputBytes" );
+
+		e = assertThrows(
+		    HtmlLimitException.class,
+		    () -> runtime.executeSource( "htmlCleanStream( html: '<div><div><div><p>deep</p></div></div></div>', output: output, limits: { maxDepth: 3 } )", context )
+		);
+		assertThat( e.getLimit() ).isEqualTo( "maxDepth" );
+	}
+
+	@DisplayName( "It cleans large inputs as they are read" )
+	@Test
+	public void testLargeInput() {
+		CountingWriter output = new CountingWriter();
+		variables.put( "input", new GeneratedHtml( 100_000 ) );
+		variables.put( "output", output );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = htmlCleanStream( input, output, "basic" );
+		    """,
+		    context );
+		// @formatter:on
+
+		String paragraph = "<p>Row <b>bold</b> text</p>\n";
+		assertThat( variables.get( result ) ).isEqualTo( 100_000L * paragraph.length() );
+		assertThat( output.count ).isEqualTo( 100_000L * paragraph.length() );
+		assertThat( output.lastParagraph ).isEqualTo( paragraph );
+	}
+
+	/**
+	 * The HTML the Jsoup cleaner produces for a full document, without pretty-printing
+	 */
+	private static String clean( String html, Safelist safelist, String baseUri ) {
+		Document dirty = Jsoup.parse( html, baseUri );
+		Document clean = new Cleaner( safelist ).clean( dirty );
+		clean.outputSettings().prettyPrint( false );
+		return clean.body().html();
+	}
+
+	/**
+	 * Generates paragraphs with unsafe markup, never holding more than one of them
+	 */
+	private static final class GeneratedHtml extends Reader {
+
+		private static final String	PARAGRAPH	= "<p class='x' onmouseover='steal()'>Row <b>bold</b> <script>alert(1)</script>text<!-- note --></p>\n";
+
+		private final long			length;
+		private long				read;
+
+		GeneratedHtml( int paragraphs ) {
+			this.length = ( long ) paragraphs * PARAGRAPH.length();
+		}
+
+		@Override
+		public int read( char[] buffer, int offset, int length ) {
+			if ( this.read >= this.length ) {
+				return -1;
+			}
+			int count = ( int ) Math.min( length, this.length - this.read );
+			for ( int i = 0; i < count; i++ ) {
+				buffer[ offset + i ] = PARAGRAPH.charAt( ( int ) ( this.read++ % PARAGRAPH.length() ) );
+			}
+			return count;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * Counts the characters written, keeping only the last paragraph
+	 */
+	private static final class CountingWriter extends Writer {
+
+		private final StringBuilder	current			= new StringBuilder();
+		private long				count;
+		private String				lastParagraph	= "";
+
+		@Override
+		public void write( char[] buffer, int offset, int length ) {
+			for ( int i = offset; i < offset + length; i++ ) {
+				this.current.append( buffer[ i ] );
+				if ( buffer[ i ] == '\n' ) {
+					this.lastParagraph = this.current.toString();
+					this.current.setLength( 0 );
+				}
+			}
+			this.count += length;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
@@ -18,14 +18,42 @@
 package ortus.boxlang.jsoup.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.CleanCache;
+import ortus.boxlang.jsoup.util.HtmlCleaner;
+import ortus.boxlang.jsoup.util.HtmlLimitException;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ModuleSettings;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.jsoup.util.SafelistRegistry;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
 
 public class HtmlCleanTest extends BaseIntegrationTest {
 
+	@TempDir
+	Path tempDir;
+
 	@DisplayName( "It can clean HTML content correctly" )
 	@Test
 	public void testHtmlClean() {
@@ -70,4 +98,266 @@ public class HtmlCleanTest extends BaseIntegrationTest {
 		assertThat( actual ).contains( "<div>" );
 	}
 
+	@DisplayName( "Clean with a custom safelist registered in the module settings" )
+	@Test
+	public void testHtmlCleanWithCustomSafeList() {
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    content = "<div><p>Visit <a href='https://boxlang.io' onclick='evil()'>BoxLang</a> <a href='http://insecure.io'>here</a></p><img src='x.png'></div>";
+			    result = HtmlClean( html: content, safeList: "Comments" );
+		    """,
+		    context );
+		// @formatter:on
+
+		String actual = ( String ) variables.get( result );
+		assertThat( actual ).contains( "<a href=\"https://boxlang.io\" rel=\"nofollow\">BoxLang</a>" );
+		assertThat( actual ).doesNotContain( "http://insecure.io" );
+		assertThat( actual ).doesNotContain( "onclick" );
+		assertThat( actual ).doesNotContain( "<div>" );
+		assertThat( actual ).doesNotContain( "<img" );
+	}
+
+	@DisplayName( "An unknown safelist name is rejected" )
+	@Test
+	public void testHtmlCleanWithUnknownSafeList() {
+		assertThrows(
+		    BoxRuntimeException.class,
+		    () -> runtime.executeSource( "result = HtmlClean( html: '<p>Test</p>', safeList: 'doesNotExist' )", context )
+		);
+	}
+
+	@DisplayName( "Registered safelists are built once, shared and read-only" )
+	@Test
+	public void testSafelistsAreSharedAndReadOnly() {
+		SafelistRegistry	registry	= SafelistRegistry.getInstance();
+		Safelist			relaxed		= registry.get( "relaxed", false );
+
+		assertThat( registry.get( "RELAXED", false ) ).isSameInstanceAs( relaxed );
+		assertThat( registry.get( "relaxed", true ) ).isNotSameInstanceAs( relaxed );
+		assertThat( registry.has( "comments" ) ).isTrue();
+		assertThrows( BoxRuntimeException.class, () -> relaxed.addTags( "script" ) );
+		assertThrows( BoxRuntimeException.class, () -> relaxed.preserveRelativeLinks( true ) );
+	}
+
+	@DisplayName( "Plain text is detected without parsing only when the cleaner would return it unchanged" )
+	@Test
+	public void testIsPlainText() {
+		assertThat( HtmlCleaner.isPlainText( "Just a plain comment, with \"quotes\" and 'apostrophes' \uD83D\uDE00" ) ).isTrue();
+		assertThat( HtmlCleaner.isPlainText( "Fish & chips" ) ).isFalse();
+		assertThat( HtmlCleaner.isPlainText( "a <b>bold</b> move" ) ).isFalse();
+		assertThat( HtmlCleaner.isPlainText( "2 > 1" ) ).isFalse();
+		assertThat( HtmlCleaner.isPlainText( " leading space" ) ).isFalse();
+		assertThat( HtmlCleaner.isPlainText( "double  space" ) ).isFalse();
+		assertThat( HtmlCleaner.isPlainText( "new\nline" ) ).isFalse();
+		assertThat( HtmlCleaner.isPlainText( "non\u00A0breaking" ) ).isFalse();
+		assertThat( HtmlCleaner.isPlainText( "lone \uD83D surrogate" ) ).isFalse();
+	}
+
+	@DisplayName( "The fast paths produce exactly the same output as Jsoup.clean()" )
+	@Test
+	public void testSameOutputAsJsoupClean() {
+		List<String>	inputs		= new ArrayList<>( DIFFERENTIAL_INPUTS );
+		Random			random		= new Random( 42 );
+		// Random mixes of the inputs, to cover combinations nobody wrote by hand
+		for ( int i = 0; i < 300; i++ ) {
+			StringBuilder mix = new StringBuilder();
+			for ( int j = random.nextInt( 5 ) + 1; j > 0; j-- ) {
+				mix.append( DIFFERENTIAL_INPUTS.get( random.nextInt( DIFFERENTIAL_INPUTS.size() ) ) );
+			}
+			inputs.add( mix.toString() );
+		}
+
+		SafelistRegistry	registry	= SafelistRegistry.getInstance();
+		int					checked		= 0;
+		for ( String name : registry.names() ) {
+			for ( boolean preserveRelativeLinks : new boolean[] { false, true } ) {
+				for ( String baseUri : new String[] { "", "https://example.com/base/" } ) {
+					Safelist safelist = registry.get( name, preserveRelativeLinks );
+					for ( String input : inputs ) {
+						String	expected	= Jsoup.clean( input, baseUri, safelist );
+						String	actual		= HtmlCleaner.clean( input, safelist, baseUri );
+						assertWithMessage( "safelist=%s preserveRelativeLinks=%s baseUri=%s input=%s", name, preserveRelativeLinks, baseUri, input )
+						    .that( actual )
+						    .isEqualTo( expected );
+						checked++;
+					}
+				}
+			}
+		}
+		assertThat( checked ).isGreaterThan( 5_000 );
+	}
+
+	@DisplayName( "Cleaning within parse limits produces exactly the same output, and aborts past them" )
+	@Test
+	public void testCleanWithinLimits() {
+		ParseLimits	generous	= ParseLimits.UNLIMITED.with( Struct.of( "maxNodes", 1_000_000, "maxDepth", 1_000, "timeout", 60_000 ) );
+		Safelist	relaxed		= SafelistRegistry.getInstance().get( "relaxed", false );
+		for ( String input : DIFFERENTIAL_INPUTS ) {
+			assertWithMessage( "input=%s", input )
+			    .that( HtmlCleaner.clean( input, relaxed, "", generous ) )
+			    .isEqualTo( Jsoup.clean( input, "", relaxed ) );
+		}
+
+		// A fragment is as deep as it would be in the body: html > body > p > b > text
+		ParseLimits shallow = ParseLimits.UNLIMITED.with( Struct.of( "maxDepth", 4 ) );
+		assertThat( HtmlCleaner.clean( "<p>fine</p>", relaxed, "", shallow ) ).isEqualTo( "<p>fine</p>" );
+		assertThrows( HtmlLimitException.class, () -> HtmlCleaner.clean( "<p><b>too deep</b></p>", relaxed, "", shallow ) );
+
+		// Plain text skips the parser, but not the size limit
+		assertThrows( HtmlLimitException.class,
+		    () -> runtime.executeSource( "result = htmlClean( html: 'Plain but long text', limits: { maxInputBytes: 10 } )", context ) );
+	}
+
+	@DisplayName( "It cleans bytes and files straight from their bytes, with the same rules as strings" )
+	@Test
+	public void testCleanBytesAndFiles() throws IOException {
+		String	html	= "<p>Caf\u00E9 <a href='/menu' onclick='evil()'>menu</a><script>evil()</script></p>";
+		Path	file	= tempDir.resolve( "comment.html" );
+		Files.writeString( file, html, StandardCharsets.UTF_8 );
+		variables.put( Key.of( "html" ), html );
+		variables.put( Key.of( "bytes" ), html.getBytes( StandardCharsets.UTF_8 ) );
+		variables.put( Key.of( "file" ), file.toAbsolutePath().toString() );
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = [
+			        htmlClean( html: html, safeList: "basic", preserveRelativeLinks: true ),
+			        htmlClean( html: bytes, safeList: "basic", preserveRelativeLinks: true ),
+			        htmlClean( file: file, safeList: "basic", preserveRelativeLinks: true )
+			    ];
+		    """,
+		    context );
+		// @formatter:on
+
+		Array results = variables.getAsArray( result );
+		assertThat( results.get( 0 ) ).isEqualTo( "<p>Caf\u00E9 <a href=\"/menu\" rel=\"nofollow\">menu</a></p>" );
+		assertThat( results.get( 1 ) ).isEqualTo( results.get( 0 ) );
+		assertThat( results.get( 2 ) ).isEqualTo( results.get( 0 ) );
+	}
+
+	@DisplayName( "The clean cache is used when enabled in the module settings, unless a call opts out" )
+	@Test
+	public void testCleanCacheFromModuleSettings() {
+		IStruct settings = ModuleSettings.get();
+		settings.put( KeyDictionary.cleanCache, Struct.of( "enabled", true, "maxBytes", 1_048_576, "maxEntryBytes", 65_536 ) );
+		try {
+			CleanCache cache = CleanCache.reload();
+
+			// @formatter:off
+			runtime.executeSource(
+			    """
+				    content = "<p>Signature <script>evil()</script></p>";
+				    first   = htmlClean( content );
+				    second  = htmlClean( content );
+				    skipped = htmlClean( html: content, cache: false );
+				    text    = htmlClean( "Plain text is never cached" );
+				    result  = [ first, second, skipped ];
+			    """,
+			    context );
+			// @formatter:on
+
+			String cleaned = HtmlCleaner.clean( "<p>Signature <script>evil()</script></p>", "relaxed", false, "", false );
+			assertThat( cleaned ).doesNotContain( "script" );
+			assertThat( variables.getAsArray( result ) ).containsExactly( cleaned, cleaned, cleaned );
+			assertThat( cache.getMisses() ).isEqualTo( 1 );
+			assertThat( cache.getHits() ).isEqualTo( 1 );
+			assertThat( cache.size() ).isEqualTo( 1 );
+
+			// The same input with another safelist or base URI is another entry
+			HtmlCleaner.clean( "<p>Signature <script>evil()</script></p>", "basic", false, "", true );
+			HtmlCleaner.clean( "<p>Signature <script>evil()</script></p>", "relaxed", false, "https://example.com/", true );
+			assertThat( cache.size() ).isEqualTo( 3 );
+		} finally {
+			settings.put( KeyDictionary.cleanCache, Struct.of( "enabled", false, "maxBytes", 16_777_216, "maxEntryBytes", 65_536 ) );
+			CleanCache.reload();
+		}
+	}
+
+	@DisplayName( "The clean cache is bounded by bytes and evicts the least recently used entries" )
+	@Test
+	public void testCleanCacheEviction() {
+		Safelist	safelist	= SafelistRegistry.getInstance().get( "basic", false );
+		String		block		= "x".repeat( 400 );
+		// Each entry weighs about 2 * ( 400 + 400 ) bytes plus the overhead, so three of them fit
+		CleanCache	cache		= new CleanCache( true, 6_000, 2_000 );
+
+		cache.put( "a" + block, safelist, "", block );
+		cache.put( "b" + block, safelist, "", block );
+		cache.put( "c" + block, safelist, "", block );
+		// Touch "a" so "b" becomes the eldest
+		assertThat( cache.get( "a" + block, safelist, "" ) ).isEqualTo( block );
+		cache.put( "d" + block, safelist, "", block );
+
+		assertThat( cache.size() ).isEqualTo( 3 );
+		assertThat( cache.getBytes() ).isAtMost( cache.getMaxBytes() );
+		assertThat( cache.getEvictions() ).isEqualTo( 1 );
+		assertThat( cache.get( "b" + block, safelist, "" ) ).isNull();
+		assertThat( cache.get( "a" + block, safelist, "" ) ).isEqualTo( block );
+
+		// Entries bigger than maxEntryBytes are never cached
+		cache.put( "huge", safelist, "", "y".repeat( 2_000 ) );
+		assertThat( cache.get( "huge", safelist, "" ) ).isNull();
+
+		// The safelist instance is part of the key, so preserving relative links is another entry
+		assertThat( cache.get( "a" + block, SafelistRegistry.getInstance().get( "basic", true ), "" ) ).isNull();
+
+		// A disabled cache stores nothing and counts nothing
+		CleanCache disabled = new CleanCache( false, 6_000, 2_000 );
+		disabled.put( "a", safelist, "", "a" );
+		assertThat( disabled.get( "a", safelist, "" ) ).isNull();
+		assertThat( disabled.size() ).isEqualTo( 0 );
+		assertThat( disabled.getMisses() ).isEqualTo( 0 );
+	}
+
+	private static final List<String> DIFFERENTIAL_INPUTS = List.of(
+	    "Plain text",
+	    "Plain text with \"quotes\", 'apostrophes' and unicode: caf\u00E9 \u4E2D\u6587 \uD83D\uDE00",
+	    " leading and trailing spaces ",
+	    "multiple   spaces\tand\ttabs\nand\r\nnewlines",
+	    "non\u00A0breaking space",
+	    "Fish &amp; chips & peas &copy; &#169; &notanentity;",
+	    "1 < 2 > 0",
+	    "lone \uD83D surrogate",
+	    "\uFEFFbyte order mark",
+	    "control \u0001 char \u007F",
+	    "<b>bold</b> and <i>italic</i>",
+	    "<p>Paragraph</p><p>Another <em>one</em></p>",
+	    "<ul><li>One</li><li>Two <strong>strong</strong></li></ul>",
+	    "<blockquote cite='https://example.com/quote'>Quote</blockquote>",
+	    "<a href='https://example.com/page'>absolute</a>",
+	    "<a href='/relative/page'>relative</a>",
+	    "<a href='page.html' title='Title'>relative page</a>",
+	    "<a href='javascript:alert(1)'>js link</a>",
+	    "<a href='mailto:someone@example.com'>mail</a>",
+	    "<a>no href</a>",
+	    "<img src='https://example.com/img.png' alt='image'>",
+	    "<img src='/img.png' onerror='alert(1)'>",
+	    "<p onclick='alert(1)' class='x'>handler</p>",
+	    "<script>alert('xss')</script>",
+	    "<style>body { color: red }</style>text",
+	    "<!-- a comment -->after comment",
+	    "<custom-element>unknown tag</custom-element>",
+	    "<foo/>self closing unknown",
+	    "<br/>line<br>break<hr>",
+	    "<svg><circle r='1'/></svg>",
+	    "<math><mi>x</mi></math>",
+	    "<svg><![CDATA[cdata]]></svg>",
+	    "<form action='/go'><input name='q'></form>",
+	    "<table><tr><td>cell</td></tr></table>",
+	    "<p>unclosed <b>bold <i>nested</p> tail",
+	    "<div><p>block</div>",
+	    "<pre>  preformatted\n   text  </pre>",
+	    "<code>a  b</code>",
+	    "<span style='color:red'>styled</span>",
+	    "<h1>Title</h1><h2 id='x'>Sub</h2>",
+	    "<q cite='/relative-cite'>quoted</q>",
+	    "<a href='https://example.com/base/inside'>same host</a>",
+	    "text <B>UPPER</B> <A HREF='https://example.com'>case</A>",
+	    "<iframe src='https://evil.example'></iframe>",
+	    "&lt;already escaped&gt;"
+	);
+
 }
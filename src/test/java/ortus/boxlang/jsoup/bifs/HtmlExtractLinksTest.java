@@ -0,0 +1,190 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class HtmlExtractLinksTest extends BaseIntegrationTest {
+
+	private static final String	PAGE	= """
+	    <html><head>
+	      <link rel="stylesheet" href="//cdn.example.net/site.css">
+	      <script src="js/app.js"></script>
+	    </head><body>
+	      <a href="about.html">About</a>
+	      <a href="../blog/?page=2#comments">Blog</a>
+	      <a href="about.html">About again</a>
+	      <a href="about.html#team">Team</a>
+	      <a href="mailto:hi@example.com">Mail</a>
+	      <a href="tel:+15551234">Call</a>
+	      <a href="http://[broken">Broken</a>
+	      <a href=" /spaced\tpath ">Spaced</a>
+	      <img src="img/logo.png" srcset="img/logo@2x.png 2x, img/logo@3x.png 3x">
+	      <video poster="poster.jpg" src="clip.mp4"><track src="subs.vtt"></video>
+	      <iframe src="HTTPS://Video.Example.com/embed"></iframe>
+	      <form action="search"><button formaction="/advanced">Go</button></form>
+	      <blockquote cite="https://quotes.example.com/1">Quote</blockquote>
+	    </body></html>
+	    """;
+
+	@TempDir
+	Path						tempDir;
+
+	@DisplayName( "It resolves every URL like absUrl(), from parsed documents and while streaming" )
+	@Test
+	public void testSameAsAbsUrl() {
+		Document		document	= Jsoup.parse( PAGE, "https://example.com/docs/index.html" );
+		List<String>	expected	= new ArrayList<>();
+		for ( Element element : document.getAllElements() ) {
+			for ( String attribute : new String[] { "href", "src", "poster", "action", "formaction", "cite" } ) {
+				String url = element.absUrl( attribute );
+				if ( !url.isEmpty() && !expected.contains( url ) ) {
+					expected.add( url );
+				}
+			}
+		}
+
+		variables.put( "html", PAGE );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    options  = { types : "link,resource,script,frame,media,form,cite" };
+			    parsed   = htmlExtractLinks( htmlParse( html = html, baseUri = "https://example.com/docs/index.html" ), "", options );
+			    streamed = htmlExtractLinks( html, "https://example.com/docs/index.html", options );
+			    images   = htmlExtractLinks( html, "https://example.com/docs/index.html", { types : [ "image" ] } );
+		    """,
+		    context );
+		// @formatter:on
+
+		Array parsed = variables.getAsArray( Key.of( "parsed" ) );
+		expected.removeIf( url -> url.endsWith( "logo.png" ) || url.endsWith( "poster.jpg" ) );
+		assertThat( urls( parsed ) ).containsExactlyElementsIn( expected ).inOrder();
+		assertThat( urls( variables.getAsArray( Key.of( "streamed" ) ) ) ).isEqualTo( urls( parsed ) );
+		assertThat( urls( variables.getAsArray( Key.of( "images" ) ) ) ).containsExactly(
+		    "https://example.com/docs/img/logo.png",
+		    "https://example.com/docs/img/logo@2x.png",
+		    "https://example.com/docs/img/logo@3x.png",
+		    "https://example.com/docs/poster.jpg"
+		).inOrder();
+
+		IStruct first = ( IStruct ) parsed.get( 0 );
+		assertThat( first.getAsString( Key.of( "url" ) ) ).isEqualTo( "https://cdn.example.net/site.css" );
+		assertThat( first.getAsString( Key.of( "type" ) ) ).isEqualTo( "resource" );
+		assertThat( first.getAsString( Key.of( "tag" ) ) ).isEqualTo( "link" );
+		assertThat( first.getAsString( Key.of( "attribute" ) ) ).isEqualTo( "href" );
+	}
+
+	@DisplayName( "It honors the dedupe, stripFragments and maxLinks options" )
+	@Test
+	public void testOptions() {
+		variables.put( "html", PAGE );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    all      = htmlExtractLinks( html, "https://example.com/", { types : "link", dedupe : false } );
+			    unique   = htmlExtractLinks( html, "https://example.com/", { types : "link" } );
+			    pages    = htmlExtractLinks( html, "https://example.com/", { types : "link", stripFragments : true } );
+			    firstTwo = htmlExtractLinks( html, "https://example.com/", { maxLinks : 2 } );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( Key.of( "all" ) ).size() ).isEqualTo( 8 );
+		assertThat( variables.getAsArray( Key.of( "unique" ) ).size() ).isEqualTo( 7 );
+		assertThat( urls( variables.getAsArray( Key.of( "pages" ) ) ) ).containsExactly(
+		    "https://example.com/about.html",
+		    "https://example.com/blog/?page=2",
+		    "mailto:hi@example.com",
+		    "tel:+15551234",
+		    "http://[broken",
+		    "https://example.com/spacedpath"
+		).inOrder();
+		assertThat( urls( variables.getAsArray( Key.of( "firstTwo" ) ) ) ).containsExactly(
+		    "https://cdn.example.net/site.css",
+		    "https://example.com/js/app.js"
+		).inOrder();
+
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "htmlExtractLinks( html, '', { types : 'anchors' } )", context ) );
+	}
+
+	@DisplayName( "It resolves against the base element of the document while streaming" )
+	@Test
+	public void testBaseElement() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = htmlExtractLinks( "<head><base href='https://cdn.example.com/v2/'></head><img src='a.png'><a href='/b'>b</a>", "https://example.com/" );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( urls( variables.getAsArray( result ) ) ).containsExactly(
+		    "https://cdn.example.com/v2/",
+		    "https://cdn.example.com/v2/a.png",
+		    "https://cdn.example.com/b"
+		).inOrder();
+	}
+
+	@DisplayName( "It reads files from the file argument only, never from an html string" )
+	@Test
+	public void testFileArgument() throws IOException {
+		Path file = this.tempDir.resolve( "page.html" );
+		Files.writeString( file, "<a href='about.html'>About</a><img src='logo.png'>" );
+		variables.put( "path", file.toString() );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = htmlExtractLinks( file: path, baseUri: "https://example.com/" );
+			    fromString = htmlExtractLinks( path, "https://example.com/" );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( urls( variables.getAsArray( result ) ) ).containsExactly( "https://example.com/about.html", "https://example.com/logo.png" ).inOrder();
+		assertThat( variables.getAsArray( Key.of( "fromString" ) ) ).isEmpty();
+	}
+
+	private static List<String> urls( Array links ) {
+		List<String> urls = new ArrayList<>();
+		for ( Object link : links ) {
+			urls.add( ( ( IStruct ) link ).getAsString( Key.of( "url" ) ) );
+		}
+		return urls;
+	}
+
+}
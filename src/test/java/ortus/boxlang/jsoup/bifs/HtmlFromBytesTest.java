@@ -0,0 +1,177 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.Parser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class HtmlFromBytesTest extends BaseIntegrationTest {
+
+	private static final String[]	SNIPPETS	= {
+	    "<!DOCTYPE html><html lang=en><head><title>Title</title></head><body><p>Hello</p></body></html>",
+	    "<!DOCTYPE html PUBLIC \"-//W3C//DTD HTML 4.01//EN\" \"http://www.w3.org/TR/html4/strict.dtd\"><p>Old",
+	    "<!-- comment --><div hidden data-empty=\"\" data-amp='a&amp;b' CamelCase=x>&lt;&euro;&nbsp;</div><!-- tail -->",
+	    "<svg viewBox='0 0 10 10'><path d='M0 0'/><foreignObject><p>in</p></foreignObject></svg><math><mi/></math>",
+	    "<custom-tag/><br><img src=a.png alt><input disabled><p/>",
+	    "<script>if ( a < b ) { run(); }</script><style>p > a { color: red }</style><textarea>\n raw</textarea>",
+	    "<pre>\n  indented\n</pre>  <p>  spaced  </p>\n\n<form action=/go><input name=q></form>",
+	    "<table><tr><td>1<td>2</table><p>unclosed <b>bold <i>italic</p>",
+	    ""
+	};
+
+	@DisplayName( "Documents come back identical from their bytes" )
+	@Test
+	public void testRoundTrip() throws IOException {
+		for ( String name : new String[] { "small", "medium", "large" } ) {
+			String html = Files.readString( Path.of( "src/test/resources/corpus", name + ".html" ), StandardCharsets.UTF_8 );
+			assertRoundTrip( Jsoup.parse( html, "https://example.com/" + name + ".html" ) );
+		}
+		for ( String html : SNIPPETS ) {
+			assertRoundTrip( Jsoup.parse( html ) );
+			assertRoundTrip( Jsoup.parseBodyFragment( html ) );
+		}
+		assertRoundTrip(
+		    Jsoup.parse( "<?xml version=\"1.0\" encoding=\"UTF-8\"?><!DOCTYPE feed><feed a=\"1\"><entry/><![CDATA[ <raw> ]]><!-- c --><t>x</t></feed>", "",
+		        Parser.xmlParser() )
+		);
+	}
+
+	@DisplayName( "The base URI and output settings survive, and the document is editable" )
+	@Test
+	public void testSettings() {
+		Document document = Jsoup.parse( "<p>Quirky", "https://example.com/base/" );
+		document.quirksMode( Document.QuirksMode.limitedQuirks );
+		document.outputSettings()
+		    .prettyPrint( false )
+		    .indentAmount( 3 )
+		    .charset( "ISO-8859-1" )
+		    .escapeMode( Entities.EscapeMode.xhtml )
+		    .syntax( Document.OutputSettings.Syntax.xml );
+
+		BoxDocument decoded = BoxDocument.fromBytes( BoxDocument.adopt( document ).toBytes() );
+
+		assertThat( decoded.location() ).isEqualTo( "https://example.com/base/" );
+		assertThat( decoded.quirksMode() ).isEqualTo( Document.QuirksMode.limitedQuirks );
+		assertThat( decoded.charset().name() ).isEqualTo( "ISO-8859-1" );
+		assertThat( decoded.outputSettings().prettyPrint() ).isFalse();
+		assertThat( decoded.outputSettings().indentAmount() ).isEqualTo( 3 );
+		assertThat( decoded.outputSettings().escapeMode() ).isEqualTo( Entities.EscapeMode.xhtml );
+		assertThat( decoded.outputSettings().syntax() ).isEqualTo( Document.OutputSettings.Syntax.xml );
+		assertThat( decoded.isFrozen() ).isFalse();
+
+		decoded.body().appendElement( "a" ).attr( "href", "page.html" );
+		assertThat( decoded.selectFirst( "a" ).absUrl( "href" ) ).isEqualTo( "https://example.com/base/page.html" );
+	}
+
+	@DisplayName( "The bytes are much smaller than the HTML" )
+	@Test
+	public void testSize() throws IOException {
+		for ( String name : new String[] { "medium", "large" } ) {
+			BoxDocument document = BoxDocument.parse( Files.readString( Path.of( "src/test/resources/corpus", name + ".html" ), StandardCharsets.UTF_8 ) );
+			assertThat( document.toBytes().length ).isLessThan( document.outerHtml().getBytes( StandardCharsets.UTF_8 ).length );
+		}
+	}
+
+	@DisplayName( "It loads documents saved with toBytes() from BoxLang" )
+	@Test
+	public void testBif() {
+		variables.put( "html", SNIPPETS[ 0 ] );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    doc    = htmlParse( html );
+			    bytes  = doc.toBytes();
+			    copy   = htmlFromBytes( bytes );
+			    same   = copy.outerHtml() == doc.outerHtml();
+			    copy.title( "Changed" );
+			    result = doc.title();
+			    binary = isBinary( bytes );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsBoolean( Key.of( "same" ) ) ).isTrue();
+		assertThat( variables.getAsString( result ) ).isEqualTo( "Title" );
+		assertThat( variables.getAsBoolean( Key.of( "binary" ) ) ).isTrue();
+	}
+
+	@DisplayName( "It refuses anything but complete encoded documents" )
+	@Test
+	public void testInvalidBytes() {
+		byte[] bytes = BoxDocument.parse( SNIPPETS[ 2 ] ).toBytes();
+		for ( int length = 0; length < bytes.length; length++ ) {
+			byte[] truncated = Arrays.copyOf( bytes, length );
+			assertThrows( BoxRuntimeException.class, () -> BoxDocument.fromBytes( truncated ) );
+		}
+
+		byte[] trailing = Arrays.copyOf( bytes, bytes.length + 1 );
+		assertThrows( BoxRuntimeException.class, () -> BoxDocument.fromBytes( trailing ) );
+
+		byte[] version = bytes.clone();
+		version[ 4 ] = 99;
+		assertThrows( BoxRuntimeException.class, () -> BoxDocument.fromBytes( version ) );
+
+		assertThrows( BoxRuntimeException.class, () -> BoxDocument.fromBytes( "<p>Not encoded</p>".getBytes( StandardCharsets.UTF_8 ) ) );
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "htmlFromBytes( '<p>Not encoded</p>' )", context ) );
+	}
+
+	private static void assertRoundTrip( Document document ) {
+		BoxDocument	source	= BoxDocument.adopt( document );
+		BoxDocument	decoded	= BoxDocument.fromBytes( source.toBytes() );
+		assertSameNode( source, decoded );
+		assertThat( decoded.outerHtml() ).isEqualTo( source.outerHtml() );
+		assertThat( decoded.location() ).isEqualTo( source.location() );
+	}
+
+	private static void assertSameNode( Node expected, Node actual ) {
+		if ( ! ( expected instanceof Document ) ) {
+			assertThat( actual.getClass() ).isEqualTo( expected.getClass() );
+		}
+		assertThat( actual.nodeName() ).isEqualTo( expected.nodeName() );
+		assertThat( actual.attributes().asList() ).isEqualTo( expected.attributes().asList() );
+		if ( expected instanceof Element element ) {
+			assertThat( ( ( Element ) actual ).tag().namespace() ).isEqualTo( element.tag().namespace() );
+			assertThat( ( ( Element ) actual ).tag().isSelfClosing() ).isEqualTo( element.tag().isSelfClosing() );
+		}
+		assertThat( actual.childNodeSize() ).isEqualTo( expected.childNodeSize() );
+		for ( int i = 0; i < expected.childNodeSize(); i++ ) {
+			assertSameNode( expected.childNode( i ), actual.childNode( i ) );
+		}
+	}
+
+}
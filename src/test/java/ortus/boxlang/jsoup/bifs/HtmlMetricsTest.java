@@ -0,0 +1,179 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.BifMetrics;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.LatencyHistogram;
+import ortus.boxlang.jsoup.util.ModuleSettings;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+public class HtmlMetricsTest extends BaseIntegrationTest {
+
+	@AfterEach
+	public void disableMetrics() {
+		ModuleSettings.get().put( KeyDictionary.metrics, Struct.of( "enabled", false, "events", false ) );
+		BifMetrics.reload();
+	}
+
+	@DisplayName( "Metrics are disabled by default and record nothing" )
+	@Test
+	public void testDisabledByDefault() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    htmlParse( "<p>Not measured</p>" );
+			    htmlClean( "<p>Not measured</p>" );
+			    result = htmlMetrics();
+		    """,
+		    context );
+		// @formatter:on
+
+		IStruct metrics = variables.getAsStruct( result );
+		assertThat( metrics.getAsBoolean( KeyDictionary.enabled ) ).isFalse();
+		assertThat( metrics.getAsStruct( KeyDictionary.bifs ) ).isEmpty();
+	}
+
+	@DisplayName( "It records calls, latencies, sizes and stripped bytes per BIF and safelist" )
+	@Test
+	public void testRecordsMetrics() {
+		ModuleSettings.get().put( KeyDictionary.metrics, Struct.of( "enabled", true, "events", false ) );
+		BifMetrics.reload();
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    htmlParse( "<p>One</p>" );
+			    htmlParse( "<div><p>Two</p><p>Three</p></div>" );
+			    htmlClean( html: "<p>Hi<script>evil()</script></p>", safeList: "basic" );
+			    htmlCleanAll( [ "<b>a</b>", "<i>b</i><script>c</script>" ], "simpletext" );
+			    result = htmlMetrics( reset: true );
+			    after  = htmlMetrics();
+		    """,
+		    context );
+		// @formatter:on
+
+		IStruct	bifs	= variables.getAsStruct( result ).getAsStruct( KeyDictionary.bifs );
+		IStruct	parse	= bifs.getAsStruct( KeyDictionary.htmlParse );
+		assertThat( parse.getAsLong( KeyDictionary.calls ) ).isEqualTo( 2 );
+		assertThat( parse.getAsLong( KeyDictionary.errors ) ).isEqualTo( 0 );
+		assertThat( parse.getAsLong( KeyDictionary.inputBytes ) ).isEqualTo( "<p>One</p>".length() + "<div><p>Two</p><p>Three</p></div>".length() );
+		IStruct latency = parse.getAsStruct( KeyDictionary.latency );
+		assertThat( latency.getAsLong( KeyDictionary.count ) ).isEqualTo( 2 );
+		assertThat( latency.getAsLong( KeyDictionary.max ) ).isAtLeast( latency.getAsLong( KeyDictionary.p50 ) );
+		assertThat( latency.getAsLong( KeyDictionary.p50 ) ).isAtLeast( latency.getAsLong( KeyDictionary.min ) );
+
+		IStruct	clean	= bifs.getAsStruct( KeyDictionary.htmlClean );
+		IStruct	basic	= clean.getAsStruct( KeyDictionary.safelists ).getAsStruct( Key.of( "basic" ) );
+		assertThat( clean.getAsLong( KeyDictionary.calls ) ).isEqualTo( 1 );
+		assertThat( clean.getAsLong( KeyDictionary.outputBytes ) ).isEqualTo( "<p>Hi</p>".length() );
+		assertThat( basic.getAsLong( KeyDictionary.strippedBytes ) ).isEqualTo( "<script>evil()</script>".length() );
+
+		IStruct cleanAll = bifs.getAsStruct( KeyDictionary.htmlCleanAll );
+		assertThat( cleanAll.getAsLong( KeyDictionary.calls ) ).isEqualTo( 2 );
+		assertThat( cleanAll.getAsStruct( KeyDictionary.safelists ).containsKey( "simpletext" ) ).isTrue();
+
+		// The reset happens once the snapshot is taken
+		assertThat( variables.getAsStruct( Key.of( "after" ) ).getAsStruct( KeyDictionary.bifs ) ).isEmpty();
+	}
+
+	@DisplayName( "Failed calls are counted and timed as errors" )
+	@Test
+	public void testRecordsErrors() {
+		ModuleSettings.get().put( KeyDictionary.metrics, Struct.of( "enabled", true, "events", false ) );
+		BifMetrics.reload();
+
+		BifMetrics metrics = BifMetrics.getInstance();
+		try {
+			metrics.measureParse( KeyDictionary.htmlParse, "", () -> {
+				throw new IllegalStateException( "boom" );
+			} );
+		} catch ( IllegalStateException e ) {
+			// expected
+		}
+		IStruct parse = metrics.stats().getAsStruct( KeyDictionary.bifs ).getAsStruct( KeyDictionary.htmlParse );
+		assertThat( parse.getAsLong( KeyDictionary.calls ) ).isEqualTo( 1 );
+		assertThat( parse.getAsLong( KeyDictionary.errors ) ).isEqualTo( 1 );
+		assertThat( parse.getAsStruct( KeyDictionary.latency ).getAsLong( KeyDictionary.count ) ).isEqualTo( 1 );
+	}
+
+	@DisplayName( "Every call is announced to the interception points when events are on" )
+	@Test
+	public void testAnnouncesEvents() {
+		ModuleSettings.get().put( KeyDictionary.metrics, Struct.of( "enabled", true, "events", true ) );
+		BifMetrics.reload();
+		List<IStruct> announced = new CopyOnWriteArrayList<>();
+		runtime.getInterceptorService().register( data -> {
+			announced.add( data );
+			return false;
+		}, KeyDictionary.onHtmlParse, KeyDictionary.onHtmlClean );
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    htmlParse( "<p>Announced</p>" );
+			    htmlClean( html: "<p>Announced<script>x</script></p>", safeList: "basic" );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( announced ).hasSize( 2 );
+		assertThat( announced.get( 0 ).getAsString( KeyDictionary.bif ) ).isEqualTo( "htmlParse" );
+		assertThat( announced.get( 1 ).getAsString( KeyDictionary.bif ) ).isEqualTo( "htmlClean" );
+		assertThat( announced.get( 1 ).getAsString( KeyDictionary.safeList ) ).isEqualTo( "basic" );
+		assertThat( announced.get( 1 ).getAsLong( KeyDictionary.strippedBytes ) ).isEqualTo( "<script>x</script>".length() );
+
+		// Turning events off stops the announcements
+		ModuleSettings.get().put( KeyDictionary.metrics, Struct.of( "enabled", true, "events", false ) );
+		BifMetrics.reload();
+		runtime.executeSource( "htmlParse( '<p>Quiet</p>' )", context );
+		assertThat( announced ).hasSize( 2 );
+	}
+
+	@DisplayName( "The latency histogram reports percentiles within its precision" )
+	@Test
+	public void testLatencyHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for ( long i = 1; i <= 1_000; i++ ) {
+			histogram.record( i * 1_000 );
+		}
+
+		assertThat( histogram.getCount() ).isEqualTo( 1_000 );
+		assertThat( ( double ) histogram.getPercentile( 50 ) ).isWithin( 500_000 * 0.125 ).of( 500_000 );
+		assertThat( ( double ) histogram.getPercentile( 99 ) ).isWithin( 990_000 * 0.125 ).of( 990_000 );
+		assertThat( histogram.getPercentile( 100 ) ).isEqualTo( 1_000_000 );
+		assertThat( histogram.stats().getAsLong( KeyDictionary.min ) ).isEqualTo( 1_000 );
+
+		histogram.reset();
+		assertThat( histogram.getCount() ).isEqualTo( 0 );
+		assertThat( histogram.getPercentile( 99 ) ).isEqualTo( 0 );
+	}
+
+}
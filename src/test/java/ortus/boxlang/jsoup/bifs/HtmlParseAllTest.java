@@ -0,0 +1,74 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+
+public class HtmlParseAllTest extends BaseIntegrationTest {
+
+	@DisplayName( "It parses a batch in parallel and keeps the original order" )
+	@Test
+	public void testHtmlParseAll() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    pages = [];
+			    for ( i = 1; i <= 500; i++ ) {
+			        pages.append( "<html><head><title>Page #i#</title></head><body><p>Body #i#</p></body></html>" );
+			    }
+			    result = htmlParseAll( pages ).map( ( doc ) => doc.title() );
+		    """,
+		    context );
+		// @formatter:on
+
+		Array titles = variables.getAsArray( result );
+		assertThat( titles.size() ).isEqualTo( 500 );
+		for ( int i = 0; i < titles.size(); i++ ) {
+			assertThat( titles.get( i ) ).isEqualTo( "Page " + ( i + 1 ) );
+		}
+	}
+
+	@DisplayName( "It returns the same documents as htmlParse() for every item" )
+	@Test
+	public void testHtmlParseAllMatchesHtmlParse() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    docs = htmlParseAll( items: [ "<p>One</p>", "", "<div>Two</div>" ], parallelism: 2 );
+			    result = docs.map( ( doc ) => doc.outerHtml() );
+			    expected = [ htmlParse( "<p>One</p>" ).outerHtml(), "", htmlParse( "<div>Two</div>" ).outerHtml() ];
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( result ) ).isEqualTo( variables.getAsArray( Key.of( "expected" ) ) );
+		// Empty items get their own editable document, never the shared frozen one
+		BoxDocument empty = ( BoxDocument ) variables.getAsArray( Key.of( "docs" ) ).get( 1 );
+		assertThat( empty ).isNotSameInstanceAs( BoxDocument.EMPTY_DOCUMENT );
+		assertThat( empty.isFrozen() ).isFalse();
+	}
+
+}
@@ -0,0 +1,212 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.Reader;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.HtmlExecutor;
+import ortus.boxlang.jsoup.util.HtmlLimitException;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class HtmlParseAsyncTest extends BaseIntegrationTest {
+
+	/**
+	 * The BIFs submit to the shared executor, a fresh one is created for the next test
+	 */
+	@AfterEach
+	public void shutdownExecutor() {
+		HtmlExecutor.shutdownInstance();
+	}
+
+	@DisplayName( "It parses HTML in the background and returns a future of the document" )
+	@Test
+	public void testHtmlParseAsync() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    future = htmlParseAsync( "<html><head><title>My Page</title></head><body><h1>Hello World</h1></body></html>" );
+			    doc    = future.get();
+			    title  = doc.title();
+			    result = htmlParseAsync( html: "<a href='/about'>About</a>", baseUri: "https://example.com/" ).get().select( "a" ).first().absUrl( "href" );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.get( Key.of( "doc" ) ) ).isInstanceOf( BoxDocument.class );
+		assertThat( variables.getAsString( Key.of( "title" ) ) ).isEqualTo( "My Page" );
+		assertThat( variables.getAsString( result ) ).isEqualTo( "https://example.com/about" );
+	}
+
+	@DisplayName( "Limit failures fail the future instead of the call" )
+	@Test
+	public void testFailuresFailTheFuture() {
+		variables.put( "html", "<div><div><div><div><p>Too deep</p></div></div></div></div>" );
+		runtime.executeSource( "result = htmlParseAsync( html: html, limits: { maxDepth : 3 } )", context );
+
+		Future<?>			future	= ( Future<?> ) variables.get( result );
+		ExecutionException	failure	= assertThrows( ExecutionException.class, () -> future.get( 10, TimeUnit.SECONDS ) );
+		assertThat( failure.getCause() ).isInstanceOf( HtmlLimitException.class );
+	}
+
+	@DisplayName( "Cancelling the future stops the parse" )
+	@Test
+	public void testCancelStopsTheParse() throws Exception {
+		EndlessHtml		endless	= new EndlessHtml();
+		CountDownLatch	stopped	= new CountDownLatch( 1 );
+
+		try ( HtmlExecutor executor = new HtmlExecutor( true, 0 ) ) {
+			Future<BoxDocument> future = executor.submit( () -> {
+				try {
+					return HtmlParse.parse( KeyDictionary.htmlParseAsync, endless, "", "", ParseLimits.UNLIMITED.interruptible() );
+				} finally {
+					stopped.countDown();
+				}
+			} );
+
+			assertThat( endless.started.await( 10, TimeUnit.SECONDS ) ).isTrue();
+			assertThat( future.cancel( true ) ).isTrue();
+			assertThrows( CancellationException.class, future::get );
+
+			// The parse gives up at its next read, the input would never end otherwise
+			assertThat( stopped.await( 10, TimeUnit.SECONDS ) ).isTrue();
+			executor.close();
+
+			assertThat( executor.getActive() ).isEqualTo( 0 );
+			assertThat( executor.stats().getAsLong( KeyDictionary.cancelled ) ).isEqualTo( 1 );
+			assertThat( executor.stats().getAsLong( KeyDictionary.failed ) ).isEqualTo( 0 );
+		}
+	}
+
+	@DisplayName( "The executor queues tasks past maxConcurrent, and reports its queued and active tasks" )
+	@Test
+	public void testQueueAndActiveCounts() throws Exception {
+		CountDownLatch	running	= new CountDownLatch( 1 );
+		CountDownLatch	release	= new CountDownLatch( 1 );
+
+		try ( HtmlExecutor executor = new HtmlExecutor( true, 1 ) ) {
+			Future<String> first = executor.submit( () -> {
+				running.countDown();
+				awaitQuietly( release );
+				return "first";
+			} );
+			assertThat( running.await( 10, TimeUnit.SECONDS ) ).isTrue();
+
+			// The first task holds the only permit, the others wait for it
+			Future<String>	second	= executor.submit( () -> "second" );
+			Future<String>	third	= executor.submit( () -> "third" );
+			assertThat( executor.getQueued() ).isEqualTo( 2 );
+			assertThat( executor.getActive() ).isEqualTo( 1 );
+
+			assertThat( third.cancel( true ) ).isTrue();
+			release.countDown();
+			assertThat( first.get( 10, TimeUnit.SECONDS ) ).isEqualTo( "first" );
+			assertThat( second.get( 10, TimeUnit.SECONDS ) ).isEqualTo( "second" );
+			assertThrows( CancellationException.class, third::get );
+
+			// Once closed, every task has ended and been counted
+			executor.close();
+			IStruct stats = executor.stats();
+			assertThat( stats.getAsBoolean( KeyDictionary.virtualThreads ) ).isTrue();
+			assertThat( stats.getAsInteger( KeyDictionary.maxConcurrent ) ).isEqualTo( 1 );
+			assertThat( stats.getAsInteger( KeyDictionary.queued ) ).isEqualTo( 0 );
+			assertThat( stats.getAsInteger( KeyDictionary.active ) ).isEqualTo( 0 );
+			assertThat( stats.getAsLong( KeyDictionary.completed ) ).isEqualTo( 2 );
+			assertThat( stats.getAsLong( KeyDictionary.cancelled ) ).isEqualTo( 1 );
+			assertThat( stats.getAsLong( KeyDictionary.failed ) ).isEqualTo( 0 );
+		}
+	}
+
+	@DisplayName( "A closed executor fails new tasks instead of running them" )
+	@Test
+	public void testClosedExecutorRejectsTasks() {
+		HtmlExecutor executor = new HtmlExecutor( false, 1 );
+		executor.close();
+
+		Future<String>		future	= executor.submit( () -> "never" );
+		ExecutionException	failure	= assertThrows( ExecutionException.class, () -> future.get( 10, TimeUnit.SECONDS ) );
+		assertThat( failure.getCause() ).isInstanceOf( RejectedExecutionException.class );
+		assertThat( executor.stats().getAsLong( KeyDictionary.failed ) ).isEqualTo( 1 );
+	}
+
+	@DisplayName( "htmlCacheStats() reports the async executor" )
+	@Test
+	public void testAsyncStats() {
+		runtime.executeSource( "htmlParseAsync( '<p>Stats</p>' ).get()", context );
+		// Wait for the task to be counted as well as completed
+		HtmlExecutor.getInstance().close();
+		runtime.executeSource( "result = htmlCacheStats().async", context );
+
+		IStruct stats = variables.getAsStruct( result );
+		assertThat( stats.getAsBoolean( KeyDictionary.virtualThreads ) ).isTrue();
+		assertThat( stats.getAsInteger( KeyDictionary.maxConcurrent ) ).isEqualTo( 0 );
+		assertThat( stats.getAsLong( KeyDictionary.completed ) ).isAtLeast( 1L );
+	}
+
+	private static void awaitQuietly( CountDownLatch latch ) {
+		try {
+			latch.await();
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A reader of paragraphs that never ends
+	 */
+	private static final class EndlessHtml extends Reader {
+
+		private static final char[]	PARAGRAPH	= "<p>Still going</p>".toCharArray();
+
+		private final CountDownLatch	started		= new CountDownLatch( 1 );
+		private int						position;
+
+		@Override
+		public int read( char[] buffer, int offset, int length ) {
+			for ( int i = 0; i < length; i++ ) {
+				buffer[ offset + i ] = PARAGRAPH[ this.position ];
+				this.position = ( this.position + 1 ) % PARAGRAPH.length;
+			}
+			this.started.countDown();
+			return length;
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
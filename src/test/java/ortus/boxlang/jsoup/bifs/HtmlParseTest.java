@@ -19,16 +19,51 @@ package ortus.boxlang.jsoup.bifs;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
 
 import ortus.boxlang.jsoup.BaseIntegrationTest;
 import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.DocumentJSONWriter;
+import ortus.boxlang.jsoup.util.HtmlLimitException;
+import ortus.boxlang.jsoup.util.HtmlSource;
+import ortus.boxlang.jsoup.util.KeyDictionary;
+import ortus.boxlang.jsoup.util.ModuleSettings;
+import ortus.boxlang.jsoup.util.ParseLimits;
+import ortus.boxlang.jsoup.util.SelectorCache;
+import ortus.boxlang.jsoup.util.TraversalLimits;
+import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
 
 public class HtmlParseTest extends BaseIntegrationTest {
 
+	@TempDir
+	Path tempDir;
+
 	@DisplayName( "It can parse HTML content correctly" )
 	@Test
 	public void testHtmlParse() {
@@ -69,4 +104,455 @@ public class HtmlParseTest extends BaseIntegrationTest {
 		assertThat( json ).contains( "\"head\"" );
 	}
 
+	@DisplayName( "BoxDocument streams the same JSON schema as before" )
+	@Test
+	public void testBoxDocumentToJsonSchema() {
+		BoxDocument doc = BoxDocument.parse( "<div class='product' id='item-1'><h2>Product Name</h2>  <p>\"Quoted\"\ttext</p></div>" );
+
+		// @formatter:off
+		assertThat( doc.toJSON() ).isEqualTo(
+			"{\"tag\":\"#root\",\"children\":[{\"tag\":\"html\",\"children\":[{\"tag\":\"head\"},{\"tag\":\"body\",\"children\":[" +
+			"{\"tag\":\"div\",\"attributes\":{\"class\":\"product\",\"id\":\"item-1\"},\"children\":[" +
+			"{\"tag\":\"h2\",\"children\":[{\"text\":\"Product Name\"}]}," +
+			"{\"tag\":\"p\",\"children\":[{\"text\":\"\\\"Quoted\\\" text\"}]}" +
+			"]}]}]}]}"
+		);
+		// @formatter:on
+	}
+
+	@DisplayName( "BoxDocument offers a lazy, read-only struct view with the same schema as toJSON()" )
+	@Test
+	public void testBoxDocumentToStruct() {
+		BoxDocument	doc		= BoxDocument.parse( "<div class='product' id='item-1'><h2>Product Name</h2>  <p>\"Quoted\"\ttext</p><!-- skipped --></div>" );
+		IStruct		root	= doc.toStruct();
+		assertThat( root.getAsString( KeyDictionary.tag ) ).isEqualTo( "#root" );
+		assertThat( root.containsKey( KeyDictionary.attributes ) ).isFalse();
+
+		IStruct	html	= ( IStruct ) root.getAsArray( KeyDictionary.children ).get( 0 );
+		IStruct	head	= ( IStruct ) html.getAsArray( KeyDictionary.children ).get( 0 );
+		IStruct	div		= ( IStruct ) ( ( IStruct ) html.getAsArray( KeyDictionary.children ).get( 1 ) ).getAsArray( KeyDictionary.children ).get( 0 );
+		assertThat( head.containsKey( KeyDictionary.children ) ).isFalse();
+		assertThat( div.getAsStruct( KeyDictionary.attributes ).getAsString( Key.of( "id" ) ) ).isEqualTo( "item-1" );
+		// Blank text and comments have no view
+		assertThat( div.getAsArray( KeyDictionary.children ) ).hasSize( 2 );
+		IStruct p = ( IStruct ) div.getAsArray( KeyDictionary.children ).get( 1 );
+		assertThat( ( ( IStruct ) p.getAsArray( KeyDictionary.children ).get( 0 ) ).getAsString( KeyDictionary.text ) ).isEqualTo( "\"Quoted\" text" );
+
+		// Views are built once and kept
+		assertThat( div.getAsArray( KeyDictionary.children ).get( 1 ) ).isSameInstanceAs( p );
+
+		variables.put( Key.of( "doc" ), doc );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    view     = doc.toStruct();
+			    result   = serializeJSON( view ) == serializeJSON( deserializeJSON( doc.toJSON() ) );
+			    heading  = view.children[ 1 ].children[ 2 ].children[ 1 ].children[ 1 ].children[ 1 ].text;
+			    isViews  = isStruct( view ) && isArray( view.children );
+		    """,
+		    context );
+		// @formatter:on
+		assertThat( variables.getAsBoolean( result ) ).isTrue();
+		assertThat( variables.getAsString( Key.of( "heading" ) ) ).isEqualTo( "Product Name" );
+		assertThat( variables.getAsBoolean( Key.of( "isViews" ) ) ).isTrue();
+
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "view.tag = 'changed'", context ) );
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "view.children.append( {} )", context ) );
+	}
+
+	@DisplayName( "BoxDocument honors prettyPrint in toJSON()" )
+	@Test
+	public void testBoxDocumentToJsonPrettyPrint() {
+		BoxDocument	doc		= BoxDocument.parse( "<ul id='list'><li>One</li><li>Two</li></ul>" );
+		String		compact	= doc.toJSON( false );
+		String		pretty	= doc.toJSON( true );
+
+		assertThat( pretty ).contains( "\n  \"children\": [" );
+		assertThat( pretty.replaceAll( "\n\\s*", "" ).replace( "\": ", "\":" ) ).isEqualTo( compact );
+	}
+
+	@DisplayName( "BoxDocument can stream its JSON to an OutputStream" )
+	@Test
+	public void testBoxDocumentToJsonStream() {
+		BoxDocument				doc	= BoxDocument.parse( "<p title='caf\u00e9'>Cr\u00e8me br\u00fbl\u00e9e</p>" );
+		ByteArrayOutputStream	out	= new ByteArrayOutputStream();
+
+		doc.toJSON( out, false );
+
+		assertThat( out.toString( StandardCharsets.UTF_8 ) ).isEqualTo( doc.toJSON() );
+	}
+
+	@DisplayName( "BoxDocument can stream its XML to a Writer, an OutputStream or a file" )
+	@Test
+	public void testBoxDocumentToXMLStreams() throws IOException {
+		BoxDocument				doc		= BoxDocument.parse( "<div id='report'><p title='caf\u00e9'>Cr\u00e8me br\u00fbl\u00e9e</p></div>" );
+		String					xml		= doc.toXML( true, 2 );
+
+		StringBuilder			writer	= new StringBuilder();
+		ByteArrayOutputStream	out		= new ByteArrayOutputStream();
+		Path					file	= tempDir.resolve( "report.xml" );
+		doc.toXML( writer, true, 2 );
+		doc.toXML( out, true, 2 );
+		doc.toXMLFile( file.toString(), true, 2 );
+
+		assertThat( writer.toString() ).isEqualTo( xml );
+		assertThat( out.toString( doc.charset() ) ).isEqualTo( xml );
+		assertThat( Files.readString( file, doc.charset() ) ).isEqualTo( xml );
+	}
+
+	@DisplayName( "BoxDocument.toXML() returns well-formed XHTML without changing the document" )
+	@Test
+	public void testBoxDocumentToXMLIsWellFormed() throws Exception {
+		BoxDocument	doc			= BoxDocument.parse( "<!doctype html><p class=x>Fish&nbsp;&amp; chips<br><input disabled><img src=a.png></p>" );
+		String		html		= doc.outerHtml();
+		boolean		prettyPrint	= doc.outputSettings().prettyPrint();
+
+		String		xml			= doc.toXML( true, 4 );
+
+		assertThat( xml ).contains( "<br />" );
+		assertThat( xml ).contains( "<input disabled=\"\" />" );
+		assertThat( xml ).contains( "&#xa0;" );
+		assertThat( xml ).doesNotContain( "&nbsp;" );
+		// Parses as XML
+		DocumentBuilderFactory.newInstance().newDocumentBuilder().parse( new InputSource( new StringReader( xml ) ) );
+
+		// The document and its settings are untouched
+		assertThat( doc.outputSettings().syntax() ).isEqualTo( Document.OutputSettings.Syntax.html );
+		assertThat( doc.outputSettings().prettyPrint() ).isEqualTo( prettyPrint );
+		assertThat( doc.outerHtml() ).isEqualTo( html );
+		// Compact means compact, whatever the document settings
+		assertThat( doc.toXML() ).doesNotContain( "\n" );
+	}
+
+	@DisplayName( "A shared document can be serialized by many threads at once with different settings" )
+	@Test
+	public void testBoxDocumentToXMLConcurrently() throws Exception {
+		BoxDocument	doc		= BoxDocument.parse( buildLargeHtml( 200 ) ).freeze();
+		String		compact	= doc.toXML( false, 0 );
+		String		pretty	= doc.toXML( true, 2 );
+
+		try ( ExecutorService executor = Executors.newFixedThreadPool( 8 ) ) {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for ( int i = 0; i < 400; i++ ) {
+				boolean indent = i % 2 == 0;
+				futures.add( executor.submit( () -> indent ? doc.toXML( true, 2 ).equals( pretty ) : doc.toXML( false, 0 ).equals( compact ) ) );
+			}
+			for ( Future<Boolean> future : futures ) {
+				assertThat( future.get() ).isTrue();
+			}
+		}
+	}
+
+	@DisplayName( "BoxDocument exports a 100k levels deep document without overflowing the stack" )
+	@Test
+	public void testDeepDocumentExports() {
+		BoxDocument	doc		= buildDeepDocument( 100_000 );
+
+		String		json	= doc.toJSON();
+		assertThat( json ).startsWith( "{\"tag\":\"#root\"" );
+		assertThat( json ).contains( "{\"text\":\"deep\"}" );
+
+		String xml = doc.toXML();
+		assertThat( xml ).contains( "deep" );
+	}
+
+	@DisplayName( "BoxDocument exports fail fast when a document exceeds the limits" )
+	@Test
+	public void testDeepDocumentExceedsLimits() {
+		BoxDocument			doc		= buildDeepDocument( 100_000 );
+
+		BoxRuntimeException	depth	= assertThrows(
+		    BoxRuntimeException.class,
+		    () -> DocumentJSONWriter.write( doc, new StringBuilder(), false, new TraversalLimits( 1_000, 0 ) )
+		);
+		assertThat( depth.getMessage() ).contains( "limits.maxDepth" );
+
+		BoxRuntimeException nodes = assertThrows(
+		    BoxRuntimeException.class,
+		    () -> new TraversalLimits( 0, 5_000 ).check( doc )
+		);
+		assertThat( nodes.getMessage() ).contains( "limits.maxNodes" );
+	}
+
+	@DisplayName( "BoxDocument exports honor the limits module setting" )
+	@Test
+	public void testExportLimitsFromModuleSettings() {
+		IStruct settings = ModuleSettings.get();
+		settings.put( KeyDictionary.limits, Struct.of( "maxDepth", 100, "maxNodes", 0 ) );
+		try {
+			BoxDocument doc = buildDeepDocument( 100_000 );
+			assertThrows( BoxRuntimeException.class, () -> doc.toJSON() );
+			assertThrows( BoxRuntimeException.class, () -> doc.toXML() );
+			// Shallow documents are not affected
+			assertThat( BoxDocument.parse( "<p>Hello</p>" ).toJSON() ).contains( "Hello" );
+		} finally {
+			settings.put( KeyDictionary.limits, Struct.of( "maxDepth", 0, "maxNodes", 0 ) );
+		}
+	}
+
+	@DisplayName( "htmlParse() returns the nodes built by the parser, not copies of them" )
+	@Test
+	public void testAdoptPreservesNodeIdentity() {
+		Document	parsed	= Jsoup.parse( "<html><head><title>My Page</title></head><body><h1 id='title'>Hello World</h1></body></html>" );
+		Element		heading	= parsed.getElementById( "title" );
+
+		BoxDocument	doc		= BoxDocument.adopt( parsed );
+
+		assertThat( doc.getElementById( "title" ) ).isSameInstanceAs( heading );
+		assertThat( heading.ownerDocument() ).isSameInstanceAs( doc );
+		assertThat( doc.title() ).isEqualTo( "My Page" );
+		// The source document gave its nodes away
+		assertThat( parsed.childNodeSize() ).isEqualTo( 0 );
+	}
+
+	@DisplayName( "It parses bytes and streams, detecting their charset from the meta declaration" )
+	@Test
+	public void testParseBytesAndStreams() {
+		byte[] latin1 = "<html><head><meta charset='ISO-8859-1'></head><body><p>Caf\u00E9 cr\u00E8me</p></body></html>"
+		    .getBytes( StandardCharsets.ISO_8859_1 );
+		variables.put( Key.of( "bytes" ), latin1 );
+		variables.put( Key.of( "stream" ), new ByteArrayInputStream( latin1 ) );
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = [
+			        htmlParse( bytes ).select( "p" ).text(),
+			        htmlParse( stream ).select( "p" ).text(),
+			        htmlParse( html: bytes, charset: "UTF-8" ).charset().name()
+			    ];
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( result ) ).containsExactly( "Caf\u00E9 cr\u00E8me", "Caf\u00E9 cr\u00E8me", "UTF-8" ).inOrder();
+	}
+
+	@DisplayName( "It parses files by path, honoring a byte order mark and the base URI" )
+	@Test
+	public void testParseFile() throws IOException {
+		Path file = tempDir.resolve( "page.html" );
+		// A UTF-8 byte order mark wins over anything else
+		Files.write( file, ( "\uFEFF<p><a href='/about'>\u00C0 propos</a></p>" ).getBytes( StandardCharsets.UTF_8 ) );
+		variables.put( Key.of( "file" ), file.toAbsolutePath().toString() );
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    link = htmlParse( file: file, baseUri: "https://example.com/" ).selectFirst( "a" );
+			    result = [ link.text(), link.absUrl( "href" ) ];
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( result ) ).containsExactly( "\u00C0 propos", "https://example.com/about" ).inOrder();
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "result = htmlParse( file: 'does/not/exist.html' )", context ) );
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "result = htmlParse()", context ) );
+	}
+
+	@DisplayName( "Each parse limit aborts the parse with an HtmlLimitException" )
+	@Test
+	public void testParseLimits() {
+		String page = "<html><body><div id='a' class='b' title='c'><p>One</p><p>Two</p></div></body></html>";
+
+		assertThat( limitExceeded( page, Struct.of( "maxInputBytes", 20 ) ).getLimit() ).isEqualTo( "maxInputBytes" );
+		assertThat( limitExceeded( page, Struct.of( "maxNodes", 5 ) ).getLimit() ).isEqualTo( "maxNodes" );
+		assertThat( limitExceeded( page, Struct.of( "maxDepth", 3 ) ).getLimit() ).isEqualTo( "maxDepth" );
+		assertThat( limitExceeded( page, Struct.of( "maxAttributes", 2 ) ).getLimit() ).isEqualTo( "maxAttributes" );
+		assertThat( limitExceeded( "<p><b><i>mis</b>nested</i></p></div></span>", Struct.of( "maxErrors", 1 ) ).getLimit() )
+		    .isEqualTo( "maxErrors" );
+		assertThat( limitExceeded( "<div title=x>".repeat( 200_000 ), Struct.of( "timeout", 1 ) ).getLimit() ).isEqualTo( "timeout" );
+
+		// html > body > div > p > text is 5 levels deep and holds 8 nodes
+		Document within = ParseLimits.UNLIMITED.with( Struct.of( "maxDepth", 5, "maxNodes", 8, "maxAttributes", 3 ) ).parse( page, "" );
+		assertThat( within.select( "p" ) ).hasSize( 2 );
+
+		// Byte sources are checked as well, before being read when their size is known
+		HtmlLimitException bytes = assertThrows(
+		    HtmlLimitException.class,
+		    () -> HtmlSource.parse( page.getBytes( StandardCharsets.UTF_8 ), "", "", ParseLimits.UNLIMITED.with( Struct.of( "maxNodes", 5 ) ) )
+		);
+		assertThat( bytes.getLimit() ).isEqualTo( "maxNodes" );
+	}
+
+	@DisplayName( "Parsing within limits builds exactly the same document as parsing without them" )
+	@Test
+	public void testLimitedParseMatchesRegularParse() {
+		ParseLimits generous = ParseLimits.UNLIMITED.with( Struct.of( "maxNodes", 1_000_000, "timeout", 60_000 ) );
+		for ( String html : List.of(
+		    "<!doctype html><html><head><title>T</title></head><body><p>Hello <b>world</b></p></body></html>",
+		    "<p>unclosed <b>bold <i>nested</p> tail<table><tr><td>cell</table>",
+		    "text only",
+		    "<!-- comment --><div><p>block</div><script>var a = '<p>';</script>"
+		) ) {
+			assertThat( generous.parse( html, "" ).outerHtml() ).isEqualTo( Jsoup.parse( html ).outerHtml() );
+		}
+	}
+
+	@DisplayName( "Byte sources are checked while they are read, and decoded like Jsoup does" )
+	@Test
+	public void testLimitedByteSources() throws IOException {
+		// The structure limits stop the parse long before the stream is read to its end
+		byte[]					page	= ( "<html><body>" + "<p>paragraph</p>".repeat( 100_000 ) + "</body></html>" ).getBytes( StandardCharsets.UTF_8 );
+		ByteArrayInputStream	stream	= new ByteArrayInputStream( page );
+		HtmlLimitException		nodes	= assertThrows(
+		    HtmlLimitException.class,
+		    () -> ParseLimits.UNLIMITED.with( Struct.of( "maxNodes", 100 ) ).parse( stream, null, "" )
+		);
+		assertThat( nodes.getLimit() ).isEqualTo( "maxNodes" );
+		assertThat( stream.available() ).isGreaterThan( page.length / 2 );
+
+		ParseLimits generous = ParseLimits.UNLIMITED.with( Struct.of( "maxNodes", 1_000_000, "timeout", 60_000 ) );
+		for ( byte[] bytes : List.of(
+		    "<html><head><meta charset='ISO-8859-1'></head><body><p>Caf\u00E9</p></body></html>".getBytes( StandardCharsets.ISO_8859_1 ),
+		    "<meta http-equiv='Content-Type' content='text/html; charset=windows-1252'><p>\u00E0 la carte</p>".getBytes( "windows-1252" ),
+		    "\uFEFF<meta charset='ISO-8859-1'><p>\u00C0 propos</p>".getBytes( StandardCharsets.UTF_8 ),
+		    "\uFEFF<p>\u00FCber</p>".getBytes( StandardCharsets.UTF_16LE ),
+		    "<p>no declaration \u00E9</p>".getBytes( StandardCharsets.UTF_8 )
+		) ) {
+			Document	limited	= generous.parse( new ByteArrayInputStream( bytes ), null, "" );
+			Document	regular	= Jsoup.parse( new ByteArrayInputStream( bytes ), null, "" );
+			assertThat( limited.outerHtml() ).isEqualTo( regular.outerHtml() );
+			assertThat( limited.charset() ).isEqualTo( regular.charset() );
+		}
+	}
+
+	@DisplayName( "Parse limits come from the module settings and can be caught by type" )
+	@Test
+	public void testParseLimitsFromModuleSettings() {
+		IStruct	settings	= ModuleSettings.get();
+		Object	original	= settings.get( KeyDictionary.parseLimits );
+		settings.put( KeyDictionary.parseLimits, Struct.of( "maxInputBytes", 0, "maxNodes", 10 ) );
+		try {
+			ParseLimits.reload();
+
+			// @formatter:off
+			runtime.executeSource(
+			    """
+				    try {
+				        htmlParse( "<ul>" & repeatString( "<li>item</li>", 20 ) & "</ul>" );
+				        result = "parsed";
+				    } catch ( HtmlLimitException e ) {
+				        result = "aborted";
+				    }
+				    // A call can lift the limit
+				    overridden = htmlParse( html: "<ul>" & repeatString( "<li>item</li>", 20 ) & "</ul>", limits: { maxNodes: 0 } ).select( "li" ).size();
+			    """,
+			    context );
+			// @formatter:on
+
+			assertThat( variables.get( result ) ).isEqualTo( "aborted" );
+			assertThat( variables.get( Key.of( "overridden" ) ) ).isEqualTo( 20 );
+		} finally {
+			settings.put( KeyDictionary.parseLimits, original );
+			ParseLimits.reload();
+		}
+	}
+
+	@DisplayName( "The shared empty document is frozen and cannot be corrupted" )
+	@Test
+	public void testEmptyDocumentIsFrozen() {
+		BoxDocument empty = BoxDocument.EMPTY_DOCUMENT;
+		assertThat( empty.isFrozen() ).isTrue();
+
+		assertThrows( BoxRuntimeException.class, () -> empty.appendElement( "p" ) );
+		assertThrows( BoxRuntimeException.class, () -> empty.appendChild( new Element( "p" ) ) );
+		assertThrows( BoxRuntimeException.class, () -> empty.append( "<p>Hello</p>" ) );
+		assertThrows( BoxRuntimeException.class, () -> empty.attr( "id", "corrupted" ) );
+		// Creating the missing html and body elements is a change too
+		assertThrows( BoxRuntimeException.class, () -> empty.body() );
+		assertThat( empty.childNodeSize() ).isEqualTo( 0 );
+
+		// Copies are editable and leave the shared document alone
+		BoxDocument copy = empty.copy();
+		assertThat( copy.isFrozen() ).isFalse();
+		copy.body().appendElement( "p" ).text( "Hello" );
+		assertThat( copy.body().html() ).isEqualTo( "<p>Hello</p>" );
+		assertThat( empty.childNodeSize() ).isEqualTo( 0 );
+	}
+
+	@DisplayName( "A frozen document rejects changes to its own children" )
+	@Test
+	public void testFrozenDocumentRejectsChanges() {
+		BoxDocument	doc		= BoxDocument.parse( "<p>Hello</p>" ).freeze();
+		Element		html	= doc.child( 0 );
+
+		assertThrows( BoxRuntimeException.class, () -> html.remove() );
+		assertThrows( BoxRuntimeException.class, () -> doc.empty() );
+		assertThrows( BoxRuntimeException.class, () -> doc.title( "Changed" ) );
+		assertThat( doc.body().html() ).isEqualTo( "<p>Hello</p>" );
+	}
+
+	@DisplayName( "BoxDocument selects through the shared compiled selector cache" )
+	@Test
+	public void testSelectUsesSelectorCache() {
+		BoxDocument		doc		= BoxDocument.parse( "<ul><li class='a'>1</li><li>2</li><li class='a'>3</li></ul>" );
+		SelectorCache	cache	= SelectorCache.getInstance();
+		String			query	= "ul > li.a:not(#missing)";
+
+		long			misses	= cache.getMisses();
+		assertThat( doc.select( query ).eachText() ).containsExactly( "1", "3" ).inOrder();
+		assertThat( cache.getMisses() ).isEqualTo( misses + 1 );
+
+		long hits = cache.getHits();
+		assertThat( doc.selectFirst( query ).text() ).isEqualTo( "1" );
+		assertThat( doc.select( query ).size() ).isEqualTo( 2 );
+		assertThat( cache.getHits() ).isEqualTo( hits + 2 );
+		assertThat( cache.getMisses() ).isEqualTo( misses + 1 );
+	}
+
+	@DisplayName( "The selector cache evicts the least recently used selectors" )
+	@Test
+	public void testSelectorCacheEviction() {
+		SelectorCache cache = new SelectorCache( 2 );
+		cache.get( "a" );
+		cache.get( "b" );
+		// Touch "a" so "b" becomes the eldest
+		cache.get( "a" );
+		cache.get( "c" );
+		assertThat( cache.size() ).isEqualTo( 2 );
+
+		long misses = cache.getMisses();
+		cache.get( "a" );
+		assertThat( cache.getMisses() ).isEqualTo( misses );
+		cache.get( "b" );
+		assertThat( cache.getMisses() ).isEqualTo( misses + 1 );
+
+		// A size of 0 disables caching
+		SelectorCache disabled = new SelectorCache( 0 );
+		disabled.get( "a" );
+		disabled.get( "a" );
+		assertThat( disabled.size() ).isEqualTo( 0 );
+		assertThat( disabled.getMisses() ).isEqualTo( 2 );
+	}
+
+	private static HtmlLimitException limitExceeded( String html, IStruct limits ) {
+		return assertThrows( HtmlLimitException.class, () -> ParseLimits.UNLIMITED.with( limits ).parse( html, "" ) );
+	}
+
+	/**
+	 * Builds a document with the given amount of nested divs, inside out so no step has to walk up the tree.
+	 */
+	private static BoxDocument buildDeepDocument( int depth ) {
+		Element inner = new Element( "div" ).text( "deep" );
+		for ( int i = 1; i < depth; i++ ) {
+			inner = new Element( "div" ).appendChild( inner );
+		}
+		BoxDocument doc = new BoxDocument( "" );
+		doc.appendChild( new Element( "html" ).appendChild( new Element( "body" ).appendChild( inner ) ) );
+		return doc;
+	}
+
+	/**
+	 * Builds a scraping-sized HTML page with the given amount of product rows.
+	 */
+	private static String buildLargeHtml( int rows ) {
+		StringBuilder sb = new StringBuilder( "<!DOCTYPE html><html><head><title>Products</title></head><body><table>" );
+		for ( int i = 0; i < rows; i++ ) {
+			sb.append( "<tr class='row' data-id='" ).append( i ).append( "'><td><a href='/p/" ).append( i ).append( "'>Product " ).append( i )
+			    .append( "</a></td><td class='price'>$" ).append( i ).append( ".99</td></tr>" );
+		}
+		return sb.append( "</table></body></html>" ).toString();
+	}
+
 }
@@ -0,0 +1,154 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.jsoup.select.QueryParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.StreamingSelector;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+
+public class HtmlSelectTest extends BaseIntegrationTest {
+
+	private static final String HTML = """
+	    <html><head><title>Shop</title></head><body>
+	    <div class="product" id="p1"><h2>Lamp</h2><span class="price">10.00</span><a href="/lamp">More</a></div>
+	    <div class="product" id="p2"><h2>Desk</h2><span class="price">99.50</span><div class="product" id="p2b"><span class="price">5.00</span></div></div>
+	    <ul><li>One</li><li>Two</li><li class="last">Three</li></ul>
+	    <p>Text with <b>bold</b> and <a href="https://example.com">a link</a></p>
+	    </body></html>
+	    """;
+
+	@TempDir
+	Path						tempDir;
+
+	@DisplayName( "It returns only the matching elements, detached from the document" )
+	@Test
+	public void testHtmlSelect() {
+		variables.put( "html", HTML );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    matches = htmlSelect( html, ".price" );
+			    result = matches.map( ( element ) => element.text() );
+			    detached = matches.every( ( element ) => isNull( element.parent() ) );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( result ) ).containsExactly( "10.00", "99.50", "5.00" ).inOrder();
+		assertThat( variables.getAsBoolean( Key.of( "detached" ) ) ).isTrue();
+	}
+
+	@DisplayName( "It stops parsing once the limit is reached" )
+	@Test
+	public void testHtmlSelectLimit() {
+		variables.put( "html", HTML );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = htmlSelect( html: html, selector: "a[href]", limit: 1 );
+		    """,
+		    context );
+		// @formatter:on
+
+		Array matches = variables.getAsArray( result );
+		assertThat( matches.size() ).isEqualTo( 1 );
+		assertThat( ( ( Element ) matches.get( 0 ) ).attr( "href" ) ).isEqualTo( "/lamp" );
+	}
+
+	@DisplayName( "It returns the same matches as a full parse, streamable selector or not" )
+	@Test
+	public void testSameResultsAsFullParse() {
+		List<String> selectors = List.of(
+		    ".price",
+		    "div.product",
+		    "div.product > h2",
+		    "body div span",
+		    "#p2b",
+		    "a[href^=https]",
+		    "li",
+		    "title",
+		    "*",
+		    "ul li:nth-child(2)",
+		    "div:has(> h2)",
+		    "li:contains(Three)",
+		    "h2 + span",
+		    "h2 ~ a",
+		    "li:last-child"
+		);
+
+		for ( String selector : selectors ) {
+			Elements	expected	= Jsoup.parse( HTML ).select( selector );
+			Elements	actual		= StreamingSelector.select( new StringReader( HTML ), "", selector, QueryParser.parse( selector ), 0 );
+			expected.removeIf( element -> element instanceof Document );
+
+			assertThat( actual.size() ).isEqualTo( expected.size() );
+			for ( int i = 0; i < expected.size(); i++ ) {
+				assertThat( actual.get( i ).outerHtml() ).isEqualTo( expected.get( i ).outerHtml() );
+			}
+		}
+	}
+
+	@DisplayName( "It reads files from the file argument only, never from an html string" )
+	@Test
+	public void testFileArgument() throws IOException {
+		Path file = this.tempDir.resolve( "shop.html" );
+		Files.writeString( file, HTML );
+		variables.put( "path", file.toString() );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = htmlSelect( file: path, selector: ".price" ).map( ( element ) => element.text() );
+			    fromString = htmlSelect( path, "*" ).map( ( element ) => element.tagName() );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( result ) ).containsExactly( "10.00", "99.50", "5.00" ).inOrder();
+		assertThat( variables.getAsArray( Key.of( "fromString" ) ) ).containsExactly( "html", "head", "body" ).inOrder();
+	}
+
+	@DisplayName( "It only flags selectors that need more than the element and its ancestors" )
+	@Test
+	public void testIsStreamable() {
+		assertThat( StreamingSelector.isStreamable( "div.product > span.price" ) ).isTrue();
+		assertThat( StreamingSelector.isStreamable( "a[href^=https]" ) ).isTrue();
+		assertThat( StreamingSelector.isStreamable( "div:has(p)" ) ).isFalse();
+		assertThat( StreamingSelector.isStreamable( "p:containsOwn(x)" ) ).isFalse();
+		assertThat( StreamingSelector.isStreamable( "li:nth-child(2)" ) ).isFalse();
+		assertThat( StreamingSelector.isStreamable( "h2 + span" ) ).isFalse();
+	}
+
+}
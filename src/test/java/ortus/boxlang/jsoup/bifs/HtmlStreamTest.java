@@ -0,0 +1,210 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.HtmlEventHandler;
+import ortus.boxlang.jsoup.util.HtmlEventStreamer;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+
+public class HtmlStreamTest extends BaseIntegrationTest {
+
+	@TempDir
+	Path tempDir;
+
+	@DisplayName( "It streams start tag, end tag, text and comment events in document order" )
+	@Test
+	public void testEventOrder() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    events = [];
+			    result = htmlStream(
+			        "<html><head><title>T</title></head><body><p class='a'>Hello <b>World</b>!</p><!-- c --></body></html>",
+			        {
+			            onStartTag : ( name, attributes ) => events.append( "start:" & name & ( attributes.isEmpty() ? "" : ":" & attributes.class ) ),
+			            onEndTag   : ( name ) => events.append( "end:" & name ),
+			            onText     : ( text ) => events.append( "text:" & text ),
+			            onComment  : ( text ) => events.append( "comment:" & trim( text ) )
+			        }
+			    );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsBoolean( result ) ).isTrue();
+		assertThat( variables.getAsArray( Key.of( "events" ) ) ).containsExactly(
+		    "start:html",
+		    "start:head",
+		    "start:title",
+		    "text:T",
+		    "end:title",
+		    "end:head",
+		    "start:body",
+		    "start:p:a",
+		    "text:Hello ",
+		    "start:b",
+		    "text:World",
+		    "end:b",
+		    "text:!",
+		    "end:p",
+		    "comment:c",
+		    "end:body",
+		    "end:html"
+		).inOrder();
+	}
+
+	@DisplayName( "The document itself is never streamed as an element, its trailing nodes are" )
+	@Test
+	public void testNoDocumentEvents() {
+		List<String> events = new ArrayList<>();
+		boolean complete = HtmlEventStreamer.stream(
+		    new StringReader( "<!doctype html><html><body><p>x</p></body></html><!-- after -->" ),
+		    "",
+		    new HtmlEventHandler() {
+
+			    @Override
+			    public boolean startTag( Element element ) {
+				    events.add( "start:" + element.nodeName() );
+				    return true;
+			    }
+
+			    @Override
+			    public boolean endTag( Element element ) {
+				    events.add( "end:" + element.nodeName() );
+				    return true;
+			    }
+
+			    @Override
+			    public boolean comment( Comment comment ) {
+				    events.add( "comment:" + comment.getData().trim() );
+				    return true;
+			    }
+		    }
+		);
+
+		assertThat( complete ).isTrue();
+		assertThat( events ).containsExactly(
+		    "start:html",
+		    "start:head",
+		    "end:head",
+		    "start:body",
+		    "start:p",
+		    "end:p",
+		    "end:body",
+		    "end:html",
+		    "comment:after"
+		).inOrder();
+	}
+
+	@DisplayName( "A handler returning false stops the stream" )
+	@Test
+	public void testEarlyStop() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    names = [];
+			    result = htmlStream(
+			        "<ul><li>1</li><li>2</li><li>3</li><li>4</li></ul>",
+			        {
+			            onStartTag : ( name, attributes ) => {
+			                names.append( name );
+			                return names.len() < 4;
+			            }
+			        }
+			    );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsBoolean( result ) ).isFalse();
+		assertThat( variables.getAsArray( Key.of( "names" ) ).size() ).isEqualTo( 4 );
+	}
+
+	@DisplayName( "It streams a file without loading it as a string" )
+	@Test
+	public void testFileSource() throws IOException {
+		StringBuilder html = new StringBuilder( "<html><body>" );
+		for ( int i = 0; i < 5_000; i++ ) {
+			html.append( "<p>Paragraph <a href='/page/" ).append( i ).append( "'>link</a></p>" );
+		}
+		html.append( "</body></html>" );
+		Path file = tempDir.resolve( "large.html" );
+		Files.writeString( file, html );
+
+		variables.put( Key.of( "path" ), file.toAbsolutePath().toString() );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    links = [];
+			    result = htmlStream( file: path, handlers: {
+			        onStartTag : ( name, attributes ) => {
+			            if ( name == "a" ) {
+			                links.append( attributes.href );
+			            }
+			        }
+			    } );
+		    """,
+		    context );
+		// @formatter:on
+
+		Array links = variables.getAsArray( Key.of( "links" ) );
+		assertThat( variables.getAsBoolean( result ) ).isTrue();
+		assertThat( links.size() ).isEqualTo( 5_000 );
+		assertThat( links.get( 0 ) ).isEqualTo( "/page/0" );
+		assertThat( links.get( 4_999 ) ).isEqualTo( "/page/4999" );
+	}
+
+	@DisplayName( "It never reads source strings as file paths" )
+	@Test
+	public void testSourceIsNeverAPath() throws IOException {
+		Path file = tempDir.resolve( "secret.txt" );
+		Files.writeString( file, "top secret" );
+
+		variables.put( Key.of( "path" ), file.toAbsolutePath().toString() );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    texts = [];
+			    htmlStream( path, {
+			        onText : ( text ) => texts.append( text )
+			    } );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsArray( Key.of( "texts" ) ) ).containsExactly( file.toAbsolutePath().toString() );
+	}
+
+}
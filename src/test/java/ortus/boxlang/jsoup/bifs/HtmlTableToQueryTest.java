@@ -0,0 +1,218 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.exceptions.BoxRuntimeException;
+
+public class HtmlTableToQueryTest extends BaseIntegrationTest {
+
+	private static final String	PRODUCTS	= """
+	    <html><body>
+	    <p>Intro</p>
+	    <table id="products">
+	      <thead><tr><th>Name</th><th>Qty</th><th>Price</th><th>Active</th></tr></thead>
+	      <tbody>
+	        <tr><td> Lamp </td><td>3</td><td>9.50</td><td>true</td></tr>
+	        <tr><td>Desk</td><td></td><td>120</td><td>FALSE</td></tr>
+	        <tr><td>007</td><td>-2</td><td>1e3</td><td>true</td></tr>
+	      </tbody>
+	    </table>
+	    </body></html>
+	    """;
+
+	private static final String	SPANS		= """
+	    <table class="sales">
+	      <tr><th>Region</th><th colspan="2">Sales</th></tr>
+	      <tr><th></th><th>Q1</th><th>Q2</th></tr>
+	      <tr><td rowspan="2">North</td><td>1</td><td>2</td></tr>
+	      <tr><td>3</td><td>4</td></tr>
+	      <tr><td>South</td><td colspan="2">5</td></tr>
+	    </table>
+	    """;
+
+	private static final String	NESTED		= """
+	    <table id="first"><tr><td>Skip me</td></tr></table>
+	    <table id="second">
+	      <tr><td>a</td><td><table><tr><td>inner</td><td>cells</td></tr></table></td></tr>
+	      <tr><td>b</td><td>plain</td><td>extra</td></tr>
+	      <tr><td>c</td><td>d</td></tr>
+	    </table>
+	    """;
+
+	@TempDir
+	Path						tempDir;
+
+	@DisplayName( "It converts a table with a header into a typed query" )
+	@Test
+	public void testTypedQuery() {
+		variables.put( "html", PRODUCTS );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result  = htmlTableToQuery( html );
+			    columns = result.columnList;
+			    count   = result.recordCount;
+			    name    = result.name[ 1 ];
+			    qty     = result.qty[ 3 ];
+			    noQty   = isNull( result.qty[ 2 ] );
+			    price   = result.price[ 1 ];
+			    active  = result.active[ 2 ];
+			    zip     = result.name[ 3 ];
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsString( Key.of( "columns" ) ) ).isEqualTo( "Name,Qty,Price,Active" );
+		assertThat( variables.get( Key.of( "count" ) ) ).isEqualTo( 3 );
+		assertThat( variables.get( Key.of( "name" ) ) ).isEqualTo( "Lamp" );
+		assertThat( variables.get( Key.of( "qty" ) ) ).isEqualTo( -2 );
+		assertThat( variables.getAsBoolean( Key.of( "noQty" ) ) ).isTrue();
+		assertThat( variables.get( Key.of( "price" ) ) ).isEqualTo( 9.5 );
+		assertThat( variables.get( Key.of( "active" ) ) ).isEqualTo( false );
+		// Leading zeros are not numbers
+		assertThat( variables.get( Key.of( "zip" ) ) ).isEqualTo( "007" );
+	}
+
+	@DisplayName( "It repeats spanning cells and joins stacked header rows" )
+	@Test
+	public void testSpans() {
+		variables.put( "html", SPANS );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result  = htmlTableToQuery( html, "table.sales" );
+			    columns = result.columnList;
+			    regions = result.columnData( "Region" ).toList();
+			    q2      = result.columnData( "Sales Q2" ).toList();
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsString( Key.of( "columns" ) ) ).isEqualTo( "Region,Sales Q1,Sales Q2" );
+		assertThat( variables.getAsString( Key.of( "regions" ) ) ).isEqualTo( "North,North,South" );
+		assertThat( variables.getAsString( Key.of( "q2" ) ) ).isEqualTo( "2,4,5" );
+	}
+
+	@DisplayName( "It keeps nested tables inside their cells and honors the options" )
+	@Test
+	public void testOptions() {
+		variables.put( "html", NESTED );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    wide    = htmlTableToQuery( html, "##second" );
+			    named   = htmlTableToQuery( html, "##second", { columns : [ "letter", "value" ], maxRows : 2 } );
+			    strings = htmlTableToQuery( "<table><tr><th>n</th></tr><tr><td>1</td></tr></table>", "table", { header : false, inferTypes : false } );
+			    result  = wide.columnList;
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsString( result ) ).isEqualTo( "column1,column2,column3" );
+		assertThat( runtime.executeStatement( "wide.column2[ 1 ]", context ) ).isEqualTo( "inner cells" );
+		assertThat( runtime.executeStatement( "isNull( wide.column3[ 3 ] )", context ) ).isEqualTo( true );
+		assertThat( runtime.executeStatement( "named.columnList", context ) ).isEqualTo( "letter,value,column3" );
+		assertThat( runtime.executeStatement( "named.recordCount", context ) ).isEqualTo( 2 );
+		assertThat( runtime.executeStatement( "strings.columnList", context ) ).isEqualTo( "column1" );
+		assertThat( runtime.executeStatement( "strings.columnData( 'column1' ).toList()", context ) ).isEqualTo( "n,1" );
+
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "htmlTableToQuery( html, 'table.missing' )", context ) );
+	}
+
+	@DisplayName( "Streaming, parsed documents and non-streamable selectors all give the same query" )
+	@Test
+	public void testSameResultsEverywhere() {
+		for ( String[] test : new String[][] {
+		    { PRODUCTS, "table" },
+		    { SPANS, "table.sales" },
+		    { NESTED, "#second" },
+		    { NESTED, "table:has(table)" }
+		} ) {
+			variables.put( "html", test[ 0 ] );
+			variables.put( "selector", test[ 1 ] );
+			// @formatter:off
+			runtime.executeSource(
+			    """
+				    streamed = serializeJSON( htmlTableToQuery( html, selector ) );
+				    parsed   = serializeJSON( htmlTableToQuery( htmlParse( html ), selector ) );
+				    result   = streamed == parsed;
+			    """,
+			    context );
+			// @formatter:on
+			assertThat( variables.getAsBoolean( result ) ).isTrue();
+		}
+	}
+
+	@DisplayName( "It reads files from the file argument only, never from an html string" )
+	@Test
+	public void testFileArgument() throws IOException {
+		Path file = this.tempDir.resolve( "products.html" );
+		Files.writeString( file, PRODUCTS );
+		variables.put( "path", file.toString() );
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = htmlTableToQuery( file: path ).recordCount;
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.get( result ) ).isEqualTo( 3 );
+		// The path is read as HTML, which holds no table
+		assertThrows( BoxRuntimeException.class, () -> runtime.executeSource( "htmlTableToQuery( path )", context ) );
+	}
+
+	@DisplayName( "It streams large tables into a query" )
+	@Test
+	public void testLargeTable() {
+		StringBuilder html = new StringBuilder( "<table><thead><tr><th>id</th><th>label</th></tr></thead><tbody>\n" );
+		for ( int i = 1; i <= 50_000; i++ ) {
+			html.append( "<tr><td>" ).append( i ).append( "</td><td>Row " ).append( i ).append( "</td></tr>\n" );
+		}
+		html.append( "</tbody></table>" );
+		variables.put( "html", html.toString() );
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    result = htmlTableToQuery( html );
+			    typed  = result.id[ 50000 ];
+			    raw    = htmlTableToQuery( html: html, options: { inferTypes : false } ).id[ 50000 ];
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( runtime.executeStatement( "result.recordCount", context ) ).isEqualTo( 50_000 );
+		assertThat( variables.get( Key.of( "typed" ) ) ).isEqualTo( 50_000 );
+		assertThat( variables.get( Key.of( "raw" ) ) ).isEqualTo( "50000" );
+	}
+
+}
@@ -0,0 +1,119 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.jsoup.util.BoxDocument;
+import ortus.boxlang.jsoup.util.BoxDocumentTemplate;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class HtmlTemplateTest extends BaseIntegrationTest {
+
+	private static final String LAYOUT = """
+	    <html><head><title>Layout</title></head>
+	    <body><nav><a href="/">Home</a></nav><main id="content"></main><footer>Footer</footer></body></html>
+	    """;
+
+	@DisplayName( "Each instance is a fresh document, independent from the template and the other instances" )
+	@Test
+	public void testInstancesAreIndependent() {
+		variables.put( Key.of( "layout" ), LAYOUT );
+
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    template = htmlTemplate( layout );
+			    first = template.instance();
+			    first.title( "First" );
+			    first.getElementById( "content" ).append( "<p>First page</p>" );
+			    second = template.instance();
+			    result = {
+			        first    : first.getElementById( "content" ).html(),
+			        second   : second.getElementById( "content" ).html(),
+			        title    : second.title(),
+			        template : template.html()
+			    };
+		    """,
+		    context );
+		// @formatter:on
+
+		IStruct stats = variables.getAsStruct( result );
+		assertThat( stats.getAsString( Key.of( "first" ) ) ).isEqualTo( "<p>First page</p>" );
+		assertThat( stats.getAsString( Key.of( "second" ) ) ).isEmpty();
+		assertThat( stats.getAsString( Key.of( "title" ) ) ).isEqualTo( "Layout" );
+		assertThat( stats.getAsString( Key.of( "template" ) ) ).doesNotContain( "First page" );
+	}
+
+	@DisplayName( "An instance serializes exactly like a fresh parse" )
+	@Test
+	public void testInstanceMatchesParse() {
+		BoxDocumentTemplate	template	= BoxDocumentTemplate.compile( LAYOUT );
+		BoxDocument			instance	= template.instance();
+
+		assertThat( instance.isFrozen() ).isFalse();
+		assertThat( instance.outerHtml() ).isEqualTo( BoxDocument.parse( LAYOUT ).outerHtml() );
+		assertThat( instance.select( "nav a" ).attr( "href" ) ).isEqualTo( "/" );
+	}
+
+	@DisplayName( "Changes to the source document do not leak into a template made from it" )
+	@Test
+	public void testTemplateFromDocument() {
+		BoxDocument			source		= BoxDocument.parse( LAYOUT );
+		BoxDocumentTemplate	template	= BoxDocumentTemplate.from( source );
+
+		source.getElementById( "content" ).text( "Changed" );
+		assertThat( source.isFrozen() ).isFalse();
+		assertThat( template.instance().getElementById( "content" ).text() ).isEmpty();
+	}
+
+	@DisplayName( "A template can hand out instances to many threads at once" )
+	@Test
+	public void testConcurrentInstances() throws Exception {
+		BoxDocumentTemplate	template	= BoxDocumentTemplate.compile( LAYOUT );
+		String				expected	= template.html();
+
+		try ( ExecutorService executor = Executors.newFixedThreadPool( 8 ) ) {
+			List<Future<String>> futures = new ArrayList<>();
+			for ( int i = 0; i < 200; i++ ) {
+				int page = i;
+				futures.add( executor.submit( () -> {
+					BoxDocument doc = template.instance();
+					doc.getElementById( "content" ).appendElement( "p" ).text( "Page " + page );
+					return doc.getElementById( "content" ).text();
+				} ) );
+			}
+			for ( int i = 0; i < futures.size(); i++ ) {
+				assertThat( futures.get( i ).get() ).isEqualTo( "Page " + i );
+			}
+		}
+		assertThat( template.html() ).isEqualTo( expected );
+	}
+
+}
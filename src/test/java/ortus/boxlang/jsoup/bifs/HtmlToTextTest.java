@@ -0,0 +1,178 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ortus.boxlang.jsoup.bifs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.jsoup.BaseIntegrationTest;
+import ortus.boxlang.runtime.scopes.Key;
+
+public class HtmlToTextTest extends BaseIntegrationTest {
+
+	private static final String[]	SNIPPETS	= {
+	    "<p>Hello <b>world</b></p><p>Next</p>",
+	    "a<br>b",
+	    "<div>a</div>b<span>c</span>",
+	    "<div>a</div> <div>b</div>",
+	    "<div>a<span>b</span></div>c",
+	    "<ul><li>one<li>two</ul>",
+	    "<dl><dt>term<dd>definition</dl>",
+	    "<p>one<p>two<div>three</div>",
+	    "<h1>T</h1>text<h2>U</h2>",
+	    "<pre>\n  keep   this\n</pre>",
+	    "<textarea>\n a &amp;  b</textarea>",
+	    "<title>T  i</title><body>x",
+	    "x &amp; y &lt; z &copy; &nbsp;&nosuch; &#65;&#x42; &amp",
+	    "<!-- c -->a<!-->b<!--->c<?php echo ?>d",
+	    "a < b > c",
+	    "<script>var x = '<p>';</script>after<style>p {}</style>",
+	    "<xmp>&amp;<b></xmp>z",
+	    "<table><tr><td>1</td><td>2</td></tr><tr><td>3</td></tr></table>end",
+	    "<img alt='x>y'>z<a href=\"/x\" title=\"a > b\">link</a>",
+	    "</p>x a</br>b",
+	    "<BODY><P>Up</P>",
+	    "<plaintext><b>x</b>",
+	    "<p>x<!-- unterminated",
+	    "<table><tr><td>1</td></tr>fostered<tr><td>2</td></tr></table>after",
+	    "<table>a<b>bold</b><tr><td>cell</td></tr>c<table><tr><td>inner</td></tr>d</table></table>",
+	    "<div>x<table><caption>cap</caption><td>implied</td><p>moved</p></table>y</div>",
+	    "<p>a<svg><title>t</title><text>svg text</text><foreignObject><div>fo</div></foreignObject></svg>b</p>",
+	    "<math><mi>x</mi><mo>=</mo><mn>1</mn></math><p>after math</p>",
+	    "<noscript><p>no script</p></noscript><noembed><b>raw</b></noembed>z",
+	    "<template><p>in template</p></template><p>out</p>",
+	    "<select><option>one<option>two<optgroup><option>three</select>after",
+	    "<head><title>a</title></head><title>b</title><body>c",
+	    "<b>1<p>2</b>3</p>",
+	    "<a><div>block in link</div></a>text<i>x<div>y</i>z</div>"
+	};
+
+	@DisplayName( "It extracts the same text as a parsed document" )
+	@Test
+	public void testSameTextAsDocument() {
+		for ( String html : SNIPPETS ) {
+			variables.put( "html", html );
+			// @formatter:off
+			runtime.executeSource(
+			    """
+				    fast   = htmlToText( html );
+				    parsed = htmlParse( html ).text();
+				    dom    = htmlToText( htmlParse( html ) );
+			    """,
+			    context );
+			// @formatter:on
+			String expected = variables.getAsString( Key.of( "parsed" ) );
+			assertThat( variables.getAsString( Key.of( "fast" ) ) ).isEqualTo( expected );
+			assertThat( variables.getAsString( Key.of( "dom" ) ) ).isEqualTo( expected );
+		}
+	}
+
+	@DisplayName( "It extracts the same text as a parsed document from strings, files and readers" )
+	@Test
+	public void testCorpus() throws IOException {
+		for ( String name : new String[] { "small", "medium", "large" } ) {
+			Path	file		= Path.of( "src/test/resources/corpus", name + ".html" ).toAbsolutePath();
+			String	html		= Files.readString( file, StandardCharsets.UTF_8 );
+			String	expected	= Jsoup.parse( html ).text();
+			variables.put( "html", html );
+			variables.put( "file", file.toString() );
+			variables.put( "reader", Files.newBufferedReader( file ) );
+			// @formatter:off
+			runtime.executeSource(
+			    """
+				    fromString = htmlToText( html );
+				    fromFile   = htmlToText( file: file );
+				    fromReader = htmlToText( reader );
+				    fromPath   = htmlToText( file );
+			    """,
+			    context );
+			// @formatter:on
+			assertThat( variables.getAsString( Key.of( "fromString" ) ) ).isEqualTo( expected );
+			assertThat( variables.getAsString( Key.of( "fromFile" ) ) ).isEqualTo( expected );
+			assertThat( variables.getAsString( Key.of( "fromReader" ) ) ).isEqualTo( expected );
+			// An html string is never read as a file path
+			assertThat( variables.getAsString( Key.of( "fromPath" ) ) ).isEqualTo( file.toString() );
+		}
+	}
+
+	@DisplayName( "It honors the line break, script and maximum length options" )
+	@Test
+	public void testOptions() {
+		// @formatter:off
+		runtime.executeSource(
+		    """
+			    html    = "<h1>Title</h1><p>One <b>two</b></p>Three<br>Four<ul><li>Five<li>Six</ul><script>var seven;</script>";
+			    lines   = htmlToText( html, { lineBreaks : true } );
+			    scripts = htmlToText( html, { skipScripts : false } );
+			    short   = htmlToText( html, { maxLength : 9 } );
+			    emoji   = htmlToText( "<p>ab😀</p>", { maxLength : 3 } );
+		    """,
+		    context );
+		// @formatter:on
+
+		assertThat( variables.getAsString( Key.of( "lines" ) ) ).isEqualTo( "Title\nOne two\nThree\nFour\nFive\nSix" );
+		assertThat( variables.getAsString( Key.of( "scripts" ) ) ).isEqualTo( "Title One two Three Four Five Six var seven;" );
+		assertThat( variables.getAsString( Key.of( "short" ) ) ).isEqualTo( "Title One" );
+		// A surrogate pair is never split
+		assertThat( variables.getAsString( Key.of( "emoji" ) ) ).isEqualTo( "ab" );
+	}
+
+	@DisplayName( "It stops reading once the maximum length is reached" )
+	@Test
+	public void testMaxLengthStopsReading() {
+		EndlessHtml reader = new EndlessHtml();
+		variables.put( "reader", reader );
+		runtime.executeSource( "result = htmlToText( reader, { maxLength : 100 } )", context );
+
+		assertThat( variables.getAsString( result ) ).hasLength( 100 );
+		assertThat( variables.getAsString( result ) ).startsWith( "Still going Still going" );
+		assertThat( reader.read ).isLessThan( 100_000L );
+	}
+
+	/**
+	 * An HTML stream that never ends, counting the characters read from it
+	 */
+	private static final class EndlessHtml extends Reader {
+
+		private static final char[]	PARAGRAPH	= "<p>Still going</p>".toCharArray();
+
+		private long				read;
+
+		@Override
+		public int read( char[] buffer, int offset, int length ) {
+			for ( int i = 0; i < length; i++ ) {
+				buffer[ offset + i ] = PARAGRAPH[ ( int ) ( this.read++ % PARAGRAPH.length ) ];
+			}
+			return length;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}